@@ -0,0 +1,56 @@
+package jmh.java;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point of the benchmarks jar. Runs every benchmark in throughput mode with the GC profiler attached, so allocation rate is
+ * reported next to throughput, and writes the results to {@code target/jmh-results.json}. Each default only applies when the command
+ * line leaves that option unset, so any standard JMH option, including a benchmark name pattern or {@code -prof}, replaces it.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        //The builder's settings win over its parent's, so only set the ones the command line didn't
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include("jmh\\.java\\..*Benchmark");
+        }
+        if (commandLine.getBenchModes().isEmpty()) {
+            options.mode(Mode.Throughput);
+        }
+        if (!commandLine.getTimeUnit().hasValue()) {
+            options.timeUnit(TimeUnit.MILLISECONDS);
+        }
+        if (commandLine.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!commandLine.getForkCount().hasValue()) {
+            options.forks(1);
+        }
+        if (!commandLine.getWarmupIterations().hasValue()) {
+            options.warmupIterations(3);
+        }
+        if (!commandLine.getMeasurementIterations().hasValue()) {
+            options.measurementIterations(5);
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.result("target/jmh-results.json");
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,46 @@
+package jmh.java;
+
+import main.java.com.staticflow.TimeIdScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Benchmarks for the response body scan performed by the passive scan check, over synthetic JSON bodies from 1KB to 10MB.
+ * Each body is an array of records holding V1 and V4 UUIDs, hex hashes and plain text, so every branch of the scanner is exercised,
+ * and the plain text words keep the ULID run tracking busy.
+ */
+@State(Scope.Benchmark)
+public class BodyScanBenchmark {
+
+    @Param({"1024", "65536", "1048576", "10485760"})
+    int bodySize;
+
+    byte[] body;
+
+    @Setup
+    public void buildBody() {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(bodySize + 256);
+        sb.append('[');
+        while (sb.length() < bodySize) {
+            sb.append("{\"id\":\"").append(String.format("%08x-%04x-11ec-8833-00155d01ef00", random.nextInt(), random.nextInt(0x10000)))
+                    .append("\",\"ref\":\"").append(String.format("%08x-%04x-41d2-883f-0016d3cca427", random.nextInt(), random.nextInt(0x10000)))
+                    .append("\",\"sha\":\"").append(Long.toHexString(random.nextLong())).append(Long.toHexString(random.nextLong()))
+                    .append("\",\"name\":\"Lorem ipsum dolor sit amet, consectetur adipiscing elit\"},");
+        }
+        sb.append(']');
+        body = sb.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public void scanBody(Blackhole blackhole) {
+        TimeIdScanner.scan(body, 0, body.length, (codec, msb, lsb, offset) -> blackhole.consume(offset));
+    }
+}
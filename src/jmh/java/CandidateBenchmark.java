@@ -0,0 +1,56 @@
+package jmh.java;
+
+import main.java.com.staticflow.Utils;
+import main.java.com.staticflow.V1CandidateGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.UUID;
+
+/**
+ * Benchmarks for generating and rendering a one second candidate window at the active scan check's 1ms step
+ */
+@State(Scope.Benchmark)
+public class CandidateBenchmark {
+
+    UUID seed = UUID.fromString("95f6e264-bb00-11ec-8833-00155d01ef00");
+    byte[] payload = new byte[V1CandidateGenerator.UUID_TEXT_LENGTH];
+
+    @Benchmark
+    public void genUuidsIterate(Blackhole blackhole) {
+        for (UUID uuid : Utils.genUUIDs(seed, 10000L, 1)) {
+            blackhole.consume(uuid);
+        }
+    }
+
+    @Benchmark
+    public void genUuidsToString(Blackhole blackhole) {
+        for (UUID uuid : Utils.genUUIDs(seed, 10000L, 1)) {
+            blackhole.consume(uuid.toString());
+        }
+    }
+
+    @Benchmark
+    public void generatorRender(Blackhole blackhole) {
+        V1CandidateGenerator candidates = new V1CandidateGenerator(seed, 10000L, 1);
+        for (long i = 0; i < candidates.count(); i++) {
+            long msb = candidates.msbAt(i);
+            if (!candidates.isSeed(msb)) {
+                candidates.render(msb, payload, 0);
+                blackhole.consume(payload);
+            }
+        }
+    }
+
+    @Benchmark
+    public String uuidTime() {
+        return Utils.getUuidTime(seed);
+    }
+
+    @Benchmark
+    public String uuidMac() {
+        return Utils.getUuidMac(seed);
+    }
+}
@@ -0,0 +1,44 @@
+package jmh.java;
+
+import main.java.com.staticflow.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.UUID;
+
+/**
+ * Benchmarks for parsing header and parameter values, the most frequently called code in the passive scan check
+ */
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    // A V1 UUID as it would appear in a header value
+    String validV1 = "95f6e264-bb00-11ec-8833-00155d01ef00";
+    // A V4 UUID, which is rejected on the version character
+    String validV4 = "1b4e28ba-2fa1-41d2-883f-0016d3cca427";
+    // A typical header value, which is rejected on length
+    String headerValue = "application/json; charset=utf-8";
+    // A UUID length value that isn't a UUID, which is rejected on hyphen position
+    String sameLength = "Mozilla/5.0 (X11; Linux x86_64) AppW";
+
+    @Benchmark
+    public UUID parseValidV1() {
+        return Utils.parseUuidString(validV1);
+    }
+
+    @Benchmark
+    public UUID parseValidV4() {
+        return Utils.parseUuidString(validV4);
+    }
+
+    @Benchmark
+    public UUID parseHeaderValue() {
+        return Utils.parseUuidString(headerValue);
+    }
+
+    @Benchmark
+    public UUID parseSameLength() {
+        return Utils.parseUuidString(sameLength);
+    }
+}
@@ -0,0 +1,119 @@
+package main.java.com.staticflow;
+
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+/**
+ * Per host AIMD (additive increase, multiplicative decrease) limit on the number of active scan requests in flight.<br>
+ * Every completed request reports its latency and status. While the host looks healthy the limit grows by roughly one request per
+ * window of completions, up to the user configured maximum. When the host throttles (429/503), fails to respond, or its 95th percentile
+ * latency climbs well above the best median seen so far, the limit is halved, at most once per window so a single burst of slow
+ * responses only counts once.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // Number of latency samples kept for percentile calculations
+    private static final int WINDOW = 64;
+    // Multiple of the baseline median latency above which the 95th percentile is considered stressed
+    private static final long LATENCY_STRESS_FACTOR = 3;
+
+    // The host and port this limiter applies to
+    private final String host;
+    // Supplies the user configured upper bound on the limit
+    private final IntSupplier maxLimit;
+    // Ring buffer of the most recent request latencies in nanoseconds
+    private final long[] latencies = new long[WINDOW];
+    // Scratch space used when sorting latencies for percentiles
+    private final long[] sorted = new long[WINDOW];
+
+    // The current, possibly fractional, limit on requests in flight
+    private double limit;
+    // The number of requests currently in flight
+    private int inFlight;
+    // The total number of latency samples recorded
+    private long samples;
+    // The sample count at the last decrease, used to decrease at most once per window
+    private long lastDecrease = -WINDOW;
+    // Latency percentiles of the most recent full window
+    private long p50;
+    private long p95;
+    // The lowest median latency seen, used as the healthy baseline
+    private long baselineP50 = Long.MAX_VALUE;
+    // The number of throttled or failed responses seen
+    private long throttled;
+
+    /**
+     * Constructor for a host's limiter, starting at a quarter of the configured maximum
+     * @param host the host and port this limiter applies to
+     * @param maxLimit supplies the user configured upper bound on requests in flight
+     */
+    public AdaptiveConcurrencyLimiter(String host, IntSupplier maxLimit) {
+        this.host = host;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(1, maxLimit.getAsInt() / 4);
+    }
+
+    /**
+     * Wait until another request may be sent to this host
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while (inFlight >= currentLimit()) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    /**
+     * Report the outcome of a request started with {@link #acquire()} and adjust the limit
+     * @param latencyNanos how long the request took
+     * @param stressed true if the host throttled or failed to respond to the request
+     */
+    public synchronized void release(long latencyNanos, boolean stressed) {
+        inFlight--;
+        latencies[(int) (samples++ % WINDOW)] = latencyNanos;
+        if (samples % WINDOW == 0) {
+            updatePercentiles();
+        }
+        if (stressed) {
+            throttled++;
+        }
+        boolean slow = samples >= WINDOW && p95 > baselineP50 * LATENCY_STRESS_FACTOR;
+        if ((stressed || slow) && samples - lastDecrease >= WINDOW) {
+            limit = Math.max(1, limit / 2);
+            lastDecrease = samples;
+        } else if (!stressed && !slow) {
+            limit = Math.min(maxLimit.getAsInt(), limit + 1 / limit);
+        }
+        notifyAll();
+    }
+
+    private void updatePercentiles() {
+        System.arraycopy(latencies, 0, sorted, 0, WINDOW);
+        Arrays.sort(sorted);
+        p50 = sorted[WINDOW / 2];
+        p95 = sorted[WINDOW * 95 / 100];
+        baselineP50 = Math.min(baselineP50, p50);
+    }
+
+    /**
+     * Getter for the current limit on requests in flight to this host
+     * @return the limit, at least 1 and at most the configured maximum
+     */
+    public synchronized int limit() {
+        return currentLimit();
+    }
+
+    private int currentLimit() {
+        return (int) Math.max(1, Math.min(limit, maxLimit.getAsInt()));
+    }
+
+    /**
+     * Describe the current state of this limiter for display in the settings UI
+     * @return a single line summary of the limit, requests in flight, latency percentiles and throttled responses
+     */
+    public synchronized String describe() {
+        return String.format("%s  limit=%d  in-flight=%d  p50=%dms  p95=%dms  throttled=%d",
+                host, currentLimit(), inFlight, p50 / 1_000_000, p95 / 1_000_000, throttled);
+    }
+}
@@ -0,0 +1,127 @@
+package main.java.com.staticflow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The order in which the active scan check visits the candidates of a {@link V1CandidateGenerator}.<br>
+ * Candidates close to timestamps already observed for the same node and clock sequence are visited first, ranked by how many known
+ * timestamps sit near them and then by how close the nearest one is. The remaining candidates follow in a spiral outward from the
+ * seed, alternating one step after and one step before it until the shorter side of the window runs out, since the nearest
+ * candidates are the most likely to be valid. Candidates whose timestamp is already known are skipped, as are candidates already
+ * visited in the prioritized prefix.
+ */
+public final class CandidateOrder {
+
+    // The most candidates placed in the prioritized prefix
+    private static final int MAX_PRIORITY = 10_000;
+
+    // The generator whose candidates are being ordered
+    private final V1CandidateGenerator candidates;
+    // Candidate indices visited before the rest of the sequence
+    private final long[] priority;
+    // The same indices sorted, for membership checks
+    private final long[] prioritySorted;
+    // Sorted timestamps already known to be valid
+    private final long[] known;
+
+    private CandidateOrder(V1CandidateGenerator candidates, long[] priority, long[] known) {
+        this.candidates = candidates;
+        this.priority = priority;
+        this.prioritySorted = priority.clone();
+        Arrays.sort(this.prioritySorted);
+        this.known = known;
+    }
+
+    /**
+     * Order candidates by their proximity to known timestamps
+     * @param candidates the candidates to order
+     * @param known sorted timestamps already observed for the seed's node and clock sequence
+     * @param radius the number of 100 nanosecond ticks around a known timestamp in which candidates are prioritized
+     * @return the visit order
+     */
+    public static CandidateOrder prioritized(V1CandidateGenerator candidates, long[] known, long radius) {
+        //index -> {number of known timestamps within radius, distance to the nearest}
+        Map<Long, long[]> scores = new HashMap<>();
+        long reach = radius / candidates.precision();
+        for (long timestamp : known) {
+            long center = candidates.indexNearest(timestamp);
+            if (center < 0) {
+                continue;
+            }
+            for (long index = Math.max(0, center - reach); index <= Math.min(candidates.count() - 1, center + reach); index++) {
+                long distance = Math.abs(candidates.timestampAt(index) - timestamp);
+                if (distance <= radius) {
+                    long[] score = scores.computeIfAbsent(index, key -> new long[]{0, Long.MAX_VALUE});
+                    score[0]++;
+                    score[1] = Math.min(score[1], distance);
+                }
+            }
+        }
+        List<Map.Entry<Long, long[]>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort((a, b) -> a.getValue()[0] != b.getValue()[0]
+                ? Long.compare(b.getValue()[0], a.getValue()[0])
+                : Long.compare(a.getValue()[1], b.getValue()[1]));
+        long[] priority = ranked.stream().limit(MAX_PRIORITY).mapToLong(Map.Entry::getKey).toArray();
+        return new CandidateOrder(candidates, priority, known);
+    }
+
+    /**
+     * Getter for the number of positions in this order, including positions that are skipped
+     * @return the number of positions to dispatch
+     */
+    public long size() {
+        return priority.length + candidates.count();
+    }
+
+    /**
+     * Find the candidate visited at a position in this order
+     * @param position a position between 0 and {@link #size()}
+     * @return the index of the candidate in the generator
+     */
+    public long at(long position) {
+        if (position < priority.length) {
+            return priority[(int) position];
+        }
+        return candidates.seedIndex() + spiralOffset(position - priority.length);
+    }
+
+    /**
+     * Map a position in the spiral to an offset from the seed: 0, +1, -1, +2, -2 and so on, continuing on the longer side once the
+     * shorter side of the window is exhausted
+     * @param position a position between 0 and the number of candidates
+     * @return the number of steps from the seed, negative before it
+     */
+    private long spiralOffset(long position) {
+        long stepsBefore = candidates.seedIndex();
+        long stepsAfter = candidates.count() - 1 - stepsBefore;
+        long shorter = Math.min(stepsBefore, stepsAfter);
+        if (position <= shorter * 2) {
+            long distance = (position + 1) / 2;
+            return (position & 1) == 1 ? distance : -distance;
+        }
+        long distance = position - shorter;
+        return stepsAfter > stepsBefore ? distance : -distance;
+    }
+
+    /**
+     * Check if the candidate at a position doesn't need to be sent, either because it was already visited or its timestamp is known
+     * @param position a position between 0 and {@link #size()}
+     * @return true if the candidate should be skipped
+     */
+    public boolean skip(long position) {
+        return revisits(position) || Arrays.binarySearch(known, candidates.timestampAt(at(position))) >= 0;
+    }
+
+    /**
+     * Check if the candidate at a position was already visited in the prioritized prefix
+     * @param position a position between 0 and {@link #size()}
+     * @return true if the position repeats a candidate from the prioritized prefix
+     */
+    public boolean revisits(long position) {
+        return position >= priority.length && Arrays.binarySearch(prioritySorted, at(position)) >= 0;
+    }
+}
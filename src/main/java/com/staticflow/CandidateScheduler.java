@@ -0,0 +1,261 @@
+package main.java.com.staticflow;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+
+/**
+ * Extension wide scheduler which owns every candidate request the active scan check sends.<br>
+ * Each audit submits its sweep as a job and waits for it. A fixed pool of {@link #WORKERS} worker threads picks work host by host in
+ * round robin order, so a wide window against one host can't starve audits of other hosts. A host is only offered more work while
+ * its requests in flight are below the limit of its {@link AdaptiveConcurrencyLimiter}. Among the jobs of a host, the job which
+ * has made the least progress goes next. Jobs list their candidates nearest to the seed first, so this shares a host evenly
+ * between audits and sends candidates near any seed before candidates far from every seed.<br>
+ * {@link #shutdown()} cancels every job, interrupts the requests in flight and waits briefly for the workers to exit, so unloading
+ * the extension doesn't leave threads sending traffic.
+ */
+public class CandidateScheduler {
+
+    // The number of worker threads, the most candidate requests in flight across all hosts
+    static final int WORKERS = 64;
+    // How long shutdown waits for the workers to exit
+    private static final long SHUTDOWN_WAIT_MILLIS = 5_000;
+
+    /**
+     * The jobs submitted for a single host
+     */
+    private static final class Host {
+        final AdaptiveConcurrencyLimiter limiter;
+        final List<Job> jobs = new ArrayList<>();
+        int inFlight;
+
+        Host(AdaptiveConcurrencyLimiter limiter) {
+            this.limiter = limiter;
+        }
+    }
+
+    /**
+     * A single audit's sweep
+     */
+    private static final class Job {
+        final Host host;
+        final long count;
+        final LongConsumer task;
+        final BooleanSupplier stopRequested;
+        final Set<Thread> running = new HashSet<>();
+        long next;
+        boolean cancelled;
+        boolean finished;
+
+        Job(Host host, long count, LongConsumer task, BooleanSupplier stopRequested) {
+            this.host = host;
+            this.count = count;
+            this.task = task;
+            this.stopRequested = stopRequested;
+        }
+
+        boolean hasMoreWork() {
+            return !cancelled && next < count && !stopRequested.getAsBoolean();
+        }
+    }
+
+    // Guards every field below, workers wait on it for work
+    private final Object lock = new Object();
+    // Hosts with submitted jobs, keyed by host and port, in round robin order
+    private final LinkedHashMap<String, Host> hosts = new LinkedHashMap<>();
+    // The worker threads, started on first use
+    private final List<Thread> workers = new ArrayList<>();
+    // The key of the host offered work most recently, the next host after it goes first
+    private String lastHost;
+    // Set once the extension is unloading
+    private boolean shutdown;
+
+    /**
+     * Run {@code task} for every position between 0 and {@code count}, sharing the workers fairly with every other job, and wait
+     * until the job is done. Results must be collected by {@code task} into a thread safe structure.
+     * @param hostKey the host and port the job's requests are sent to
+     * @param limiter the adaptive limiter of the job's host, bounding its requests in flight across all jobs
+     * @param count the number of positions to process
+     * @param task the work to perform for each position, positions are handed out in ascending order
+     * @param stopRequested checked before each position is claimed, once it returns true no further positions are started
+     * @return true if the job ran to completion or was stopped by {@code stopRequested}, false if it was cancelled by {@link #shutdown()}
+     * @throws InterruptedException if the calling thread is interrupted while waiting, in which case the job's requests in flight are
+     * interrupted and its remaining positions are dropped
+     */
+    public boolean run(String hostKey, AdaptiveConcurrencyLimiter limiter, long count, LongConsumer task, BooleanSupplier stopRequested)
+            throws InterruptedException {
+        Job job;
+        synchronized (lock) {
+            if (shutdown) {
+                return false;
+            }
+            startWorkers();
+            Host host = hosts.computeIfAbsent(hostKey, key -> new Host(limiter));
+            job = new Job(host, count, task, stopRequested);
+            host.jobs.add(job);
+            lock.notifyAll();
+            try {
+                while (!job.finished) {
+                    finishIfDone(job);
+                    if (!job.finished) {
+                        lock.wait();
+                    }
+                }
+            } catch (InterruptedException e) {
+                cancel(job);
+                throw e;
+            }
+            return !job.cancelled;
+        }
+    }
+
+    /**
+     * Cancel every job, interrupt requests in flight and wait briefly for the worker threads to exit
+     */
+    public void shutdown() {
+        List<Thread> stopping;
+        synchronized (lock) {
+            shutdown = true;
+            for (Host host : hosts.values()) {
+                for (Job job : new ArrayList<>(host.jobs)) {
+                    cancel(job);
+                }
+            }
+            stopping = new ArrayList<>(workers);
+            lock.notifyAll();
+        }
+        long deadline = System.currentTimeMillis() + SHUTDOWN_WAIT_MILLIS;
+        for (Thread worker : stopping) {
+            try {
+                worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Summarize the work queued, for display in the settings UI
+     * @return a single line with the number of hosts and jobs queued
+     */
+    public String describe() {
+        synchronized (lock) {
+            int jobs = 0;
+            int inFlight = 0;
+            for (Host host : hosts.values()) {
+                jobs += host.jobs.size();
+                inFlight += host.inFlight;
+            }
+            return String.format("scheduler  hosts=%d  audits=%d  in-flight=%d  workers=%d", hosts.size(), jobs, inFlight, workers.size());
+        }
+    }
+
+    private void startWorkers() {
+        while (workers.size() < WORKERS) {
+            Thread worker = new Thread(this::work, UuidHunter.EXTENSION_NAME + "-worker-" + (workers.size() + 1));
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Worker loop, claiming one position at a time until shutdown
+     */
+    private void work() {
+        Thread current = Thread.currentThread();
+        while (true) {
+            Job job;
+            long position;
+            synchronized (lock) {
+                while ((job = nextJob()) == null) {
+                    if (shutdown) {
+                        return;
+                    }
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        //Only shutdown interrupts an idle worker, the loop checks for it
+                    }
+                }
+                position = job.next++;
+                job.host.inFlight++;
+                job.running.add(current);
+            }
+            try {
+                job.task.accept(position);
+            } catch (RuntimeException e) {
+                //A single failed request shouldn't abort the remaining candidates
+                ExtensionState.getInstance().getCallbacks().logging().logToError(e.toString());
+            } finally {
+                synchronized (lock) {
+                    job.host.inFlight--;
+                    job.running.remove(current);
+                    //Don't let an interrupt meant for this job leak into the next one
+                    Thread.interrupted();
+                    finishIfDone(job);
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Pick the job to claim a position from: the next host in round robin order with room under its limit, then its job with the
+     * least progress
+     * @return the job, or null if no host has both work and room
+     */
+    private Job nextJob() {
+        if (shutdown || hosts.isEmpty()) {
+            return null;
+        }
+        List<String> keys = new ArrayList<>(hosts.keySet());
+        int start = lastHost == null ? 0 : keys.indexOf(lastHost) + 1;
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get((start + i) % keys.size());
+            Host host = hosts.get(key);
+            if (host.inFlight >= host.limiter.limit()) {
+                continue;
+            }
+            Job best = null;
+            for (Job job : host.jobs) {
+                if (job.hasMoreWork() && (best == null || job.next < best.next)) {
+                    best = job;
+                }
+            }
+            if (best != null) {
+                lastHost = key;
+                return best;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Mark a job finished once it has no more work to hand out and none of its positions are still running
+     */
+    private void finishIfDone(Job job) {
+        if (!job.finished && !job.hasMoreWork() && job.running.isEmpty()) {
+            job.finished = true;
+            job.host.jobs.remove(job);
+            if (job.host.jobs.isEmpty() && job.host.inFlight == 0) {
+                hosts.values().remove(job.host);
+            }
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Stop handing out a job's positions and interrupt the ones in flight
+     */
+    private void cancel(Job job) {
+        job.cancelled = true;
+        job.running.forEach(Thread::interrupt);
+        finishIfDone(job);
+    }
+}
@@ -0,0 +1,175 @@
+package main.java.com.staticflow;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+/**
+ * The full set of candidates an active scan sweep may send: every timestamp of a window around the seed, for every clock sequence and
+ * node combination (variant) likely to have issued identifiers around the same time. Candidates share the seed's format and every
+ * bit of the seed other than the timestamp and, for other variants, the least significant bits.<br>
+ * Nothing is materialized. A position is split into a timestamp position, which follows the {@link CandidateOrder} of the window,
+ * and a variant, which cycles fastest. So each timestamp is tried with every variant before moving on to a less likely timestamp, and
+ * the seed's own variant goes first at each timestamp. Memory use depends only on the number of variants and known timestamps, not on
+ * the width of the window.
+ */
+public final class CandidateSpace {
+
+    // The most variants, including the seed's own, a sweep covers
+    public static final int MAX_VARIANTS = 8;
+
+    // Mask of the 60 timestamp bits of an answered candidate key
+    private static final long TIMESTAMP_MASK = (1L << 60) - 1;
+
+    // The format of every candidate
+    private final TimeIdCodec codec;
+    // The most significant bits of the seed, the timestamp is replaced in each candidate
+    private final long seedMsb;
+    // The timestamps of the window
+    private final V1CandidateGenerator window;
+    // The order the window's timestamps are visited in
+    private final CandidateOrder order;
+    // The least significant bits of each variant, the seed's first
+    private final long[] variants;
+    // Sorted timestamps already known to be valid, per variant
+    private final long[][] known;
+    // The seed's timestamp
+    private final long seedTimestamp;
+
+    /**
+     * Build the candidate space of a sweep
+     * @param seed the seed identifier of the sweep
+     * @param plan the planned window of timestamps
+     * @param variants the least significant bits of each clock sequence and node combination to try, the seed's first
+     * @param index the timestamps already observed, candidates near them go first and candidates equal to them are skipped
+     * @param priorityRadius the number of 100 nanosecond ticks around a known timestamp in which candidates are prioritized
+     */
+    public CandidateSpace(TimeId seed, WindowPlanner.Plan plan, long[] variants, V1TimelineIndex index, long priorityRadius) {
+        this.codec = seed.codec();
+        this.seedMsb = seed.msb();
+        this.seedTimestamp = seed.timestamp();
+        //Only the timestamps of the window are used, which are laid out the same whatever the seed's format
+        this.window = new V1CandidateGenerator(new UUID(V1CandidateGenerator.msbFor(seedTimestamp), seed.lsb()),
+                plan.step(), plan.before(), plan.after());
+        this.variants = variants.clone();
+        this.known = new long[variants.length][];
+        long radius = Math.max(plan.before(), plan.after());
+        for (int v = 0; v < variants.length; v++) {
+            known[v] = index.near(new TimeId(codec, seedMsb, variants[v]), radius);
+        }
+        //Candidates near a timestamp known for any variant are likely for every variant
+        long[] merged = Arrays.stream(known).flatMapToLong(LongStream::of).sorted().distinct().toArray();
+        this.order = CandidateOrder.prioritized(window, merged, priorityRadius);
+    }
+
+    /**
+     * Getter for the number of positions, including positions that are skipped
+     * @return the number of timestamp positions times the number of variants
+     */
+    public long size() {
+        return order.size() * variants.length;
+    }
+
+    /**
+     * Getter for the number of variants covered
+     * @return the number of clock sequence and node combinations
+     */
+    public int variantCount() {
+        return variants.length;
+    }
+
+    /**
+     * Getter for the variants covered
+     * @return the least significant bits of each variant, the seed's first
+     */
+    public long[] variants() {
+        return variants.clone();
+    }
+
+    /**
+     * Find the variant of the candidate at a position
+     * @param position a position between 0 and {@link #size()}
+     * @return the index of the candidate's variant
+     */
+    public int variantAt(long position) {
+        return (int) (position % variants.length);
+    }
+
+    /**
+     * Find the timestamp of the candidate at a position
+     * @param position a position between 0 and {@link #size()}
+     * @return the candidate's 60 bit timestamp
+     */
+    public long timestampAt(long position) {
+        return window.timestampAt(order.at(position / variants.length));
+    }
+
+    /**
+     * Check if the candidate at a position doesn't need to be sent: it is the seed, its timestamp is already known for its variant, or
+     * its timestamp was already visited in the prioritized prefix
+     * @param position a position between 0 and {@link #size()}
+     * @return true if the candidate should be skipped
+     */
+    public boolean skip(long position) {
+        int variant = variantAt(position);
+        long timestamp = timestampAt(position);
+        return (variant == 0 && timestamp == seedTimestamp)
+                || order.revisits(position / variants.length)
+                || Arrays.binarySearch(known[variant], timestamp) >= 0;
+    }
+
+    /**
+     * Getter for the format of every candidate
+     * @return the seed's codec
+     */
+    public TimeIdCodec codec() {
+        return codec;
+    }
+
+    /**
+     * Write the text form of the candidate at a position into {@code dst}
+     * @param position a position between 0 and {@link #size()}
+     * @param dst the buffer to write into, must have room for the codec's text length after {@code offset}
+     * @param offset the position in {@code dst} to start writing
+     */
+    public void render(long position, byte[] dst, int offset) {
+        codec.render(codec.withTimestamp(seedMsb, timestampAt(position)), variants[variantAt(position)], dst, offset);
+    }
+
+    /**
+     * Build a {@link TimeId} for the candidate at a position, only intended for candidates that need to outlive the scan such as hits
+     * @param position a position between 0 and {@link #size()}
+     * @return the candidate
+     */
+    public TimeId toId(long position) {
+        return new TimeId(codec, codec.withTimestamp(seedMsb, timestampAt(position)), variants[variantAt(position)]);
+    }
+
+    /**
+     * Pack a variant and timestamp into a single value, used to record answered candidates of every variant in one bitmap
+     * @param variant the index of the variant
+     * @param timestamp the 60 bit timestamp
+     * @return the variant in the upper 4 bits and the timestamp in the lower 60
+     */
+    public static long answeredKey(int variant, long timestamp) {
+        return ((long) variant << 60) | (timestamp & TIMESTAMP_MASK);
+    }
+
+    /**
+     * Unpack the variant of a value built by {@link #answeredKey(int, long)}
+     * @param key the packed value
+     * @return the index of the variant
+     */
+    public static int variantOf(long key) {
+        return (int) (key >>> 60);
+    }
+
+    /**
+     * Unpack the timestamp of a value built by {@link #answeredKey(int, long)}
+     * @param key the packed value
+     * @return the 60 bit timestamp
+     */
+    public static long timestampOf(long key) {
+        return key & TIMESTAMP_MASK;
+    }
+}
@@ -1,52 +1,341 @@
 package main.java.com.staticflow;
 
 import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.http.HttpService;
+import burp.api.montoya.persistence.Preferences;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * This Singleton class holds all custom state for the extension and provides a central means of accessing it.
+ * This Singleton class holds all custom state for the extension and provides a central means of accessing it.<br>
+ * The state is read by the active scan worker threads while the settings UI writes it, so every field is {@code volatile}.
  */
 public class ExtensionState {
 
-    // Reference to this Singleton
-    private static ExtensionState state = null;
+    // Reference to this Singleton, created eagerly so it is safely published to every thread
+    private static final ExtensionState state = new ExtensionState();
 
     // Burp Suite callback and helper APIs
-    private MontoyaApi callbacks;
+    private volatile MontoyaApi callbacks;
 
     // Constructor which initializes any custom extension state
-    private ExtensionState(){}
+    private ExtensionState(){
+        this.uuidScanRange = 1;
+        this.requestConcurrency = 8;
+        this.streamIssues = true;
+        this.maxConfirmedHits = 0;
+        this.insertionPointBudget = 2000;
+        this.hostBudget = 20000;
+        this.backgroundPassive = false;
+        this.scheduler = new CandidateScheduler();
+    }
+
+    // The most seconds the active scan check should check before and after the provided UUID for other valid ones
+    private volatile int uuidScanRange;
+
+    // The maximum number of candidate requests the active scan check keeps in flight at once to a single host
+    private volatile int requestConcurrency;
+
+    // Whether active scan hits are added to the site map as soon as they are found instead of when the sweep completes
+    private volatile boolean streamIssues;
+
+    // The number of FIRM hits after which the active scan check stops sweeping, 0 means never stop early
+    private volatile int maxConfirmedHits;
+
+    // The most candidate requests the active scan check sends for a single insertion point
+    private volatile int insertionPointBudget;
+
+    // The most candidate requests the active scan check sends to a single host across all audits
+    private volatile int hostBudget;
+
+    // Whether the passive scan check queues requests/responses for its own worker threads instead of scanning them on Burp's thread
+    private volatile boolean backgroundPassive;
+
+    // Extension wide scheduler which sends every candidate request, shared fairly between audits and hosts
+    private final CandidateScheduler scheduler;
+
+    // Timestamps of every time based identifier seen, grouped by the bits that follow the timestamp
+    private final V1TimelineIndex timelineIndex = new V1TimelineIndex();
+
+    // Counters describing what the scan check is doing
+    private final ScanMetrics metrics = new ScanMetrics();
+
+    // Requests/responses waiting for the passive scan check's worker threads
+    private final PassiveAuditQueue passiveQueue = new PassiveAuditQueue(metrics);
+
+    // Candidate timestamps already sent, per target
+    private final TestedCandidateRegistry testedCandidates = new TestedCandidateRegistry();
+
+    // Hashes of the contents the passive scan check has already scanned
+    private final PassiveResultCache passiveResultCache = new PassiveResultCache();
+
+    // Progress of interrupted active scan sweeps, persisted in the project file
+    private final ScanCheckpointStore checkpoints = new ScanCheckpointStore(() -> callbacks.persistence().extensionData());
 
-    // The range, in seconds, the active scan check should check before and after the provided UUID for other valid ones
-    private int uuidScanRange;
+    // Adaptive limits on requests in flight, keyed by host and port
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    // Candidate requests sent so far, keyed by host and port
+    private final Map<String, AtomicLong> hostRequestCounts = new ConcurrentHashMap<>();
 
     /**
      * Getter for the Singleton State object
      * @return reference to the Singleton State object
      */
     static ExtensionState getInstance() {
-        if (state == null) {
-            state = new ExtensionState();
-            state.uuidScanRange = 1;
-        }
         return state;
     }
 
     /**
-     * Getter for the range, in seconds, used when generating potentially valid V1 UUIDs by the active scan check
-     * @return the number of seconds before and after the initial UUID to generate candidate for
+     * Getter for the most seconds used when generating potentially valid V1 UUIDs by the active scan check
+     * @return the most seconds before and after the initial UUID to generate candidate for
      */
     public int getUuidScanRange() {
         return uuidScanRange;
     }
 
     /**
-     * Setter for the range, in seconds, used when generating potentially valid V1 UUIDs by the active scan check
-     * @param uuidScanRange the number of seconds before and after the initial UUID to generate candidate for
+     * Setter for the most seconds used when generating potentially valid V1 UUIDs by the active scan check
+     * @param uuidScanRange the most seconds before and after the initial UUID to generate candidate for
      */
     public void setUuidScanRange(int uuidScanRange) {
         this.uuidScanRange = uuidScanRange;
     }
 
+    /**
+     * Getter for the maximum number of candidate requests kept in flight by the active scan check
+     * @return the number of concurrent candidate requests
+     */
+    public int getRequestConcurrency() {
+        return requestConcurrency;
+    }
+
+    /**
+     * Setter for the maximum number of candidate requests kept in flight by the active scan check
+     * @param requestConcurrency the number of concurrent candidate requests, values below 1 are treated as 1
+     */
+    public void setRequestConcurrency(int requestConcurrency) {
+        this.requestConcurrency = Math.max(1, requestConcurrency);
+    }
+
+    /**
+     * Getter for whether active scan hits are added to the site map as soon as they are found
+     * @return true if hits are reported immediately, false if they are reported when the sweep completes
+     */
+    public boolean isStreamIssues() {
+        return streamIssues;
+    }
+
+    /**
+     * Setter for whether active scan hits are added to the site map as soon as they are found
+     * @param streamIssues true to report hits immediately, false to report them when the sweep completes
+     */
+    public void setStreamIssues(boolean streamIssues) {
+        this.streamIssues = streamIssues;
+    }
+
+    /**
+     * Getter for the number of FIRM hits after which the active scan check stops sweeping
+     * @return the number of FIRM hits, 0 if the sweep never stops early
+     */
+    public int getMaxConfirmedHits() {
+        return maxConfirmedHits;
+    }
+
+    /**
+     * Setter for the number of FIRM hits after which the active scan check stops sweeping
+     * @param maxConfirmedHits the number of FIRM hits, 0 or less to never stop early
+     */
+    public void setMaxConfirmedHits(int maxConfirmedHits) {
+        this.maxConfirmedHits = Math.max(0, maxConfirmedHits);
+    }
+
+    /**
+     * Getter for the most candidate requests sent for a single insertion point
+     * @return the per insertion point request budget
+     */
+    public int getInsertionPointBudget() {
+        return insertionPointBudget;
+    }
+
+    /**
+     * Setter for the most candidate requests sent for a single insertion point
+     * @param insertionPointBudget the per insertion point request budget, values below 1 are treated as 1
+     */
+    public void setInsertionPointBudget(int insertionPointBudget) {
+        this.insertionPointBudget = Math.max(1, insertionPointBudget);
+    }
+
+    /**
+     * Getter for the most candidate requests sent to a single host across all audits, until {@link #resetHostRequestCounts()}
+     * @return the per host request budget
+     */
+    public int getHostBudget() {
+        return hostBudget;
+    }
+
+    /**
+     * Setter for the most candidate requests sent to a single host across all audits, until {@link #resetHostRequestCounts()}
+     * @param hostBudget the per host request budget, values below 1 are treated as 1
+     */
+    public void setHostBudget(int hostBudget) {
+        this.hostBudget = Math.max(1, hostBudget);
+    }
+
+    /**
+     * Getter for whether the passive scan check scans requests/responses on its own worker threads
+     * @return true if requests/responses are queued and their issues added to the site map once scanned, false if they are scanned inline
+     */
+    public boolean isBackgroundPassive() {
+        return backgroundPassive;
+    }
+
+    /**
+     * Setter for whether the passive scan check scans requests/responses on its own worker threads
+     * @param backgroundPassive true to queue requests/responses for the worker threads, false to scan them on Burp's thread
+     */
+    public void setBackgroundPassive(boolean backgroundPassive) {
+        this.backgroundPassive = backgroundPassive;
+    }
+
+    /**
+     * Getter for the number of candidate requests sent so far to a service's host and port
+     * @param service the service candidate requests are sent to
+     * @return the counter of candidate requests sent to the service
+     */
+    public AtomicLong getHostRequestCount(HttpService service) {
+        return hostRequestCounts.computeIfAbsent(service.host() + ":" + service.port(), key -> new AtomicLong());
+    }
+
+    /**
+     * Forget how many candidate requests have been sent to every host, giving each host its full budget again
+     */
+    public void resetHostRequestCounts() {
+        hostRequestCounts.clear();
+    }
+
+    /**
+     * Load the user's settings saved by {@link #saveSettings()}, keeping the defaults for any that were never saved
+     */
+    public void loadSettings() {
+        Preferences preferences = callbacks.persistence().preferences();
+        Integer value;
+        if ((value = preferences.getInteger("uuidScanRange")) != null) {
+            setUuidScanRange(value);
+        }
+        if ((value = preferences.getInteger("requestConcurrency")) != null) {
+            setRequestConcurrency(value);
+        }
+        if ((value = preferences.getInteger("maxConfirmedHits")) != null) {
+            setMaxConfirmedHits(value);
+        }
+        if ((value = preferences.getInteger("insertionPointBudget")) != null) {
+            setInsertionPointBudget(value);
+        }
+        if ((value = preferences.getInteger("hostBudget")) != null) {
+            setHostBudget(value);
+        }
+        Boolean stream = preferences.getBoolean("streamIssues");
+        if (stream != null) {
+            setStreamIssues(stream);
+        }
+        Boolean background = preferences.getBoolean("backgroundPassive");
+        if (background != null) {
+            setBackgroundPassive(background);
+        }
+    }
+
+    /**
+     * Save the user's settings so they survive the extension or Burp Suite being reloaded
+     */
+    public void saveSettings() {
+        Preferences preferences = callbacks.persistence().preferences();
+        preferences.setInteger("uuidScanRange", uuidScanRange);
+        preferences.setInteger("requestConcurrency", requestConcurrency);
+        preferences.setInteger("maxConfirmedHits", maxConfirmedHits);
+        preferences.setInteger("insertionPointBudget", insertionPointBudget);
+        preferences.setInteger("hostBudget", hostBudget);
+        preferences.setBoolean("streamIssues", streamIssues);
+        preferences.setBoolean("backgroundPassive", backgroundPassive);
+    }
+
+    /**
+     * Getter for the scheduler which sends every candidate request
+     * @return the shared {@link CandidateScheduler}
+     */
+    public CandidateScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Getter for the queue feeding the passive scan check's worker threads
+     * @return the shared {@link PassiveAuditQueue}
+     */
+    public PassiveAuditQueue getPassiveQueue() {
+        return passiveQueue;
+    }
+
+    /**
+     * Getter for the index of V1 UUID timestamps seen by the passive scan check and confirmed by the active scan check
+     * @return the shared {@link V1TimelineIndex}
+     */
+    public V1TimelineIndex getTimelineIndex() {
+        return timelineIndex;
+    }
+
+    /**
+     * Getter for the record of contents the passive scan check has already scanned
+     * @return the shared {@link PassiveResultCache}
+     */
+    public PassiveResultCache getPassiveResultCache() {
+        return passiveResultCache;
+    }
+
+    /**
+     * Getter for the persisted progress of interrupted active scan sweeps
+     * @return the shared {@link ScanCheckpointStore}
+     */
+    public ScanCheckpointStore getCheckpoints() {
+        return checkpoints;
+    }
+
+    /**
+     * Getter for the counters describing what the scan check is doing
+     * @return the shared {@link ScanMetrics}
+     */
+    public ScanMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Getter for the record of candidate timestamps already sent by the active scan check
+     * @return the shared {@link TestedCandidateRegistry}
+     */
+    public TestedCandidateRegistry getTestedCandidates() {
+        return testedCandidates;
+    }
+
+    /**
+     * Getter for the adaptive limit on requests in flight to a service, created on first use
+     * @param service the service candidate requests are sent to
+     * @return the {@link AdaptiveConcurrencyLimiter} shared by all requests to the service's host and port
+     */
+    public AdaptiveConcurrencyLimiter getLimiter(HttpService service) {
+        String host = service.host() + ":" + service.port();
+        return limiters.computeIfAbsent(host, key -> new AdaptiveConcurrencyLimiter(key, this::getRequestConcurrency));
+    }
+
+    /**
+     * Getter for every adaptive limiter created so far
+     * @return the adaptive limiters of every host scanned
+     */
+    public Collection<AdaptiveConcurrencyLimiter> getLimiters() {
+        return limiters.values();
+    }
+
     /**
      * Setter for the Burp Suite callback and helper APIs
      * @param callbacks the callback and helper API reference given to this extension by Burp Suite
@@ -63,4 +352,4 @@ public class ExtensionState {
     public MontoyaApi getCallbacks() {
         return callbacks;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,77 @@
+package main.java.com.staticflow;
+
+import burp.api.montoya.scanner.audit.issues.AuditIssue;
+import burp.api.montoya.scanner.audit.issues.AuditIssueConfidence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the issues of an active scan sweep bounded when the target accepts most candidates.<br>
+ * The first {@link #MAX_INDIVIDUAL_HITS} hits of each confidence are reported as issues of their own. Later hits are folded into a
+ * single issue per confidence, which keeps the first folded hit's request/response and a short list of the others, so the
+ * responses of the other folded hits can be garbage collected straight away.
+ */
+class HitFolder {
+
+    // The most hits of each confidence reported as issues of their own
+    static final int MAX_INDIVIDUAL_HITS = 20;
+
+    /**
+     * The hits of a single confidence
+     */
+    private static final class Group {
+        int reported;
+        UuidHunterAuditIssue representative;
+        // The most and least significant bits of the listed hits, in pairs
+        long[] listed = new long[UuidHunterAuditIssue.MAX_LISTED_HITS * 2];
+        int listedCount;
+        long otherCount;
+    }
+
+    // Hits seen so far, by confidence
+    private final Map<AuditIssueConfidence, Group> groups = new EnumMap<>(AuditIssueConfidence.class);
+
+    /**
+     * Offer a hit for reporting
+     * @param issue the issue describing the hit
+     * @return the issue to report now, or null if it was folded and will be reported by {@link #foldedIssues()}
+     */
+    synchronized UuidHunterAuditIssue offer(UuidHunterAuditIssue issue) {
+        Group group = groups.computeIfAbsent(issue.confidence(), key -> new Group());
+        if (group.reported < MAX_INDIVIDUAL_HITS) {
+            group.reported++;
+            return issue;
+        }
+        if (group.representative == null) {
+            group.representative = issue;
+        } else {
+            if (group.listedCount < UuidHunterAuditIssue.MAX_LISTED_HITS) {
+                //Hits of other clock sequence and node variants differ in their least significant bits too, so both are kept
+                TimeId id = issue.id();
+                group.listed[group.listedCount * 2] = id.msb();
+                group.listed[group.listedCount * 2 + 1] = id.lsb();
+                group.listedCount++;
+            }
+            group.otherCount++;
+        }
+        return null;
+    }
+
+    /**
+     * Build one issue per confidence standing for every folded hit
+     * @return the folded issues, empty if no hits were folded
+     */
+    synchronized List<AuditIssue> foldedIssues() {
+        List<AuditIssue> issues = new ArrayList<>();
+        for (Group group : groups.values()) {
+            if (group.representative != null) {
+                issues.add(UuidHunterAuditIssue.folded(group.representative, Arrays.copyOf(group.listed, group.listedCount * 2), group.otherCount));
+            }
+        }
+        return issues;
+    }
+}
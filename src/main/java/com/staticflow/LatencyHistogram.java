@@ -0,0 +1,78 @@
+package main.java.com.staticflow;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of request latencies with fixed, roughly logarithmic, millisecond buckets.<br>
+ * Recording a latency is a short bucket search and a {@link LongAdder} increment, so it can sit on the request hot path. Percentiles
+ * are estimated as the upper bound of the bucket in which they fall.
+ */
+public class LatencyHistogram {
+
+    // Inclusive upper bounds of each bucket in milliseconds, the last bucket holds everything slower
+    private static final long[] BOUNDS_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000, 10_000, 30_000};
+
+    // Number of latencies recorded in each bucket, with one extra bucket for latencies above the last bound
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_MILLIS.length + 1];
+
+    /**
+     * Constructor which creates an empty histogram
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record a single latency
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long millis = nanos / 1_000_000;
+        int bucket = 0;
+        while (bucket < BOUNDS_MILLIS.length && millis > BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+    }
+
+    /**
+     * Estimate a percentile of the recorded latencies
+     * @param percentile the percentile to estimate, between 0 and 100
+     * @return the upper bound in milliseconds of the bucket holding the percentile, -1 if there are no samples and the last bound
+     * if it falls beyond it, so slower requests read as the slowest bucket rather than an unbounded value
+     */
+    public long percentileMillis(double percentile) {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return -1;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS_MILLIS.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return BOUNDS_MILLIS[i];
+            }
+        }
+        return BOUNDS_MILLIS[BOUNDS_MILLIS.length - 1];
+    }
+
+    /**
+     * Getter for the number of latencies recorded
+     * @return the total sample count
+     */
+    public long count() {
+        long total = 0;
+        for (LongAdder bucket : buckets) {
+            total += bucket.sum();
+        }
+        return total;
+    }
+}
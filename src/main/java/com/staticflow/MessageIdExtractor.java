@@ -0,0 +1,186 @@
+package main.java.com.staticflow;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Finds time based identifiers anywhere in a raw HTTP request or response and reports where in the message each one was found.<br>
+ * The whole message is handed to {@link TimeIdScanner} once. Since identifiers are reported in the order they appear, their location
+ * is worked out by a cursor which only ever moves forward through the request line and header lines, so no header, parameter or
+ * cookie is parsed or copied into a {@link String}, and identifiers in the URL path, cookies and request bodies are found along with
+ * those in header values and response bodies.
+ */
+public final class MessageIdExtractor {
+
+    private MessageIdExtractor(){}
+
+    /**
+     * The part of a request or response an identifier was found in
+     */
+    public enum Location {
+        PATH("URL path"),
+        QUERY("query string"),
+        REQUEST_HEADER("request header"),
+        COOKIE("Cookie header"),
+        REQUEST_BODY("request body"),
+        RESPONSE_HEADER("response header"),
+        SET_COOKIE("Set-Cookie header"),
+        RESPONSE_BODY("response body");
+
+        private final String displayName;
+
+        Location(String displayName) {
+            this.displayName = displayName;
+        }
+
+        /**
+         * Getter for the name of this location shown in issue details
+         * @return the display name, e.g. "Cookie header"
+         */
+        public String displayName() {
+            return displayName;
+        }
+
+        /**
+         * Check if this location is part of a response
+         * @return true for response headers and bodies
+         */
+        public boolean inResponse() {
+            return ordinal() >= RESPONSE_HEADER.ordinal();
+        }
+    }
+
+    /**
+     * Callback which receives each identifier found in a message
+     */
+    @FunctionalInterface
+    public interface HitConsumer {
+        /**
+         * Accept a single identifier found in a message
+         * @param codec the format of the identifier
+         * @param msb the most significant bits of the identifier
+         * @param lsb the least significant bits of the identifier
+         * @param offset the position of the first character of the identifier in the message
+         * @param location the part of the message the identifier was found in
+         */
+        void accept(TimeIdCodec codec, long msb, long lsb, int offset, Location location);
+    }
+
+    /**
+     * Find every time based identifier in a raw request or response
+     * @param message the bytes of the whole message
+     * @param bodyOffset the position the body starts at, the length of the message if it has no body
+     * @param response true if the message is a response, false for a request
+     * @param consumer receives each identifier found, in the order they appear
+     */
+    public static void extract(byte[] message, int bodyOffset, boolean response, HitConsumer consumer) {
+        extract(message, bodyOffset, message.length, response, consumer);
+    }
+
+    /**
+     * Find every time based identifier in the first {@code end} bytes of a raw request or response
+     * @param message the bytes of the whole message
+     * @param bodyOffset the position the body starts at, the length of the message if it has no body
+     * @param end one past the last byte to scan, {@code bodyOffset} to scan only the request line and headers
+     * @param response true if the message is a response, false for a request
+     * @param consumer receives each identifier found, in the order they appear
+     */
+    public static void extract(byte[] message, int bodyOffset, int end, boolean response, HitConsumer consumer) {
+        Cursor cursor = new Cursor(message, Math.min(Math.max(bodyOffset, 0), message.length), response);
+        TimeIdScanner.scan(message, 0, Math.min(Math.max(end, 0), message.length), (codec, msb, lsb, offset) ->
+                consumer.accept(codec, msb, lsb, offset, cursor.locate(offset)));
+    }
+
+    /**
+     * Find the part of a raw request or response a single position falls in
+     * @param message the bytes of the whole message
+     * @param bodyOffset the position the body starts at, the length of the message if it has no body
+     * @param response true if the message is a response, false for a request
+     * @param offset the position to locate
+     * @return the part of the message holding the position
+     */
+    public static Location locate(byte[] message, int bodyOffset, boolean response, int offset) {
+        return new Cursor(message, Math.min(Math.max(bodyOffset, 0), message.length), response).locate(offset);
+    }
+
+    /**
+     * Tracks the line of the message header the last identifier was found on
+     */
+    private static final class Cursor {
+
+        private static final byte[] COOKIE = "cookie".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] SET_COOKIE = "set-cookie".getBytes(StandardCharsets.US_ASCII);
+
+        private final byte[] message;
+        private final int bodyOffset;
+        private final boolean response;
+        // The current line runs from lineStart up to and including the line feed at lineEnd
+        private int lineStart;
+        private int lineEnd = -1;
+        // Where the query string of the request line starts, the end of the line if it has none
+        private int queryStart;
+        // The location of the current header line
+        private Location lineLocation;
+
+        Cursor(byte[] message, int bodyOffset, boolean response) {
+            this.message = message;
+            this.bodyOffset = bodyOffset;
+            this.response = response;
+        }
+
+        /**
+         * Find the location of an identifier, offsets must not go backwards between calls
+         */
+        Location locate(int offset) {
+            if (offset >= bodyOffset) {
+                return response ? Location.RESPONSE_BODY : Location.REQUEST_BODY;
+            }
+            while (offset > lineEnd) {
+                nextLine();
+            }
+            if (lineStart == 0 && !response) {
+                return offset < queryStart ? Location.PATH : Location.QUERY;
+            }
+            return lineLocation;
+        }
+
+        /**
+         * Move to the next line of the header and classify it by its header name
+         */
+        private void nextLine() {
+            lineStart = lineEnd + 1;
+            lineEnd = lineStart;
+            while (lineEnd < bodyOffset - 1 && message[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            if (lineStart == 0) {
+                queryStart = lineEnd;
+                for (int i = 0; i < lineEnd; i++) {
+                    if (message[i] == '?') {
+                        queryStart = i;
+                        break;
+                    }
+                }
+                lineLocation = response ? Location.RESPONSE_HEADER : null;
+            } else if (response) {
+                lineLocation = isHeader(SET_COOKIE) ? Location.SET_COOKIE : Location.RESPONSE_HEADER;
+            } else {
+                lineLocation = isHeader(COOKIE) ? Location.COOKIE : Location.REQUEST_HEADER;
+            }
+        }
+
+        /**
+         * Check if the current line is a header with a given lower case name
+         */
+        private boolean isHeader(byte[] name) {
+            if (lineStart + name.length >= lineEnd || message[lineStart + name.length] != ':') {
+                return false;
+            }
+            for (int i = 0; i < name.length; i++) {
+                if ((message[lineStart + i] | 0x20) != name[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
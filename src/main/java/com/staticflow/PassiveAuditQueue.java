@@ -0,0 +1,172 @@
+package main.java.com.staticflow;
+
+import burp.api.montoya.http.message.HttpRequestResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded queue which lets the passive scan check return to Burp straight away and scan requests/responses on its own threads.<br>
+ * {@link #submit} never blocks the calling thread. A fixed pool of worker threads takes queued requests/responses in arrival order.
+ * When more traffic arrives than the workers keep up with, the queue degrades in two steps rather than slowing Burp down: once it is
+ * half full, responses with a body larger than {@link #LARGE_BODY_BYTES} are queued with their body skipped, and once it is full,
+ * new requests/responses are dropped. Queue depth, skipped bodies and drops are counted in {@link ScanMetrics}.<br>
+ * {@link #shutdown()} discards whatever is still queued and waits briefly for the workers to exit.
+ */
+public class PassiveAuditQueue {
+
+    // The most requests/responses waiting to be scanned
+    static final int CAPACITY = 1024;
+    // Response bodies larger than this are skipped once the queue is half full
+    static final int LARGE_BODY_BYTES = 1 << 20;
+    // How long shutdown waits for the workers to exit
+    private static final long SHUTDOWN_WAIT_MILLIS = 5_000;
+
+    /**
+     * The work done for each queued request/response
+     */
+    @FunctionalInterface
+    public interface Audit {
+        /**
+         * Scan a single request/response and report what it finds
+         * @param requestResponse the request/response to scan
+         * @param skipResponseBody true if the response body should not be scanned because the queue is backing up
+         */
+        void run(HttpRequestResponse requestResponse, boolean skipResponseBody);
+    }
+
+    /**
+     * A queued request/response along with the work to do for it
+     */
+    private record Entry(HttpRequestResponse requestResponse, boolean skipResponseBody, Audit audit) {}
+
+    private final BlockingQueue<Entry> queue;
+    private final int capacity;
+    private final int workerCount;
+    private final ScanMetrics metrics;
+    // Guards the fields below
+    private final Object lock = new Object();
+    // The worker threads, started on first use
+    private final List<Thread> workers = new ArrayList<>();
+    // Set once the extension is unloading
+    private boolean shutdown;
+
+    /**
+     * Create a queue with the default capacity and a worker for every other processor
+     * @param metrics the counters queue depth, skipped bodies and drops are recorded in
+     */
+    public PassiveAuditQueue(ScanMetrics metrics) {
+        this(CAPACITY, Math.max(1, Runtime.getRuntime().availableProcessors() / 2), metrics);
+    }
+
+    /**
+     * Create a queue
+     * @param capacity the most requests/responses waiting to be scanned
+     * @param workerCount the number of worker threads
+     * @param metrics the counters queue depth, skipped bodies and drops are recorded in
+     */
+    public PassiveAuditQueue(int capacity, int workerCount, ScanMetrics metrics) {
+        this.capacity = Math.max(1, capacity);
+        this.workerCount = Math.max(1, workerCount);
+        this.queue = new ArrayBlockingQueue<>(this.capacity);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Queue a request/response to be scanned by a worker thread, without blocking
+     * @param requestResponse the request/response to scan
+     * @param responseBodyLength the length of the response body, used to skip large bodies once the queue is backing up
+     * @param audit the work to do for the request/response
+     * @return true if it was queued, false if it was dropped because the queue is full or shutting down
+     */
+    public boolean submit(HttpRequestResponse requestResponse, long responseBodyLength, Audit audit) {
+        synchronized (lock) {
+            if (shutdown) {
+                return false;
+            }
+            startWorkers();
+        }
+        boolean skipResponseBody = responseBodyLength > LARGE_BODY_BYTES && queue.size() >= capacity / 2;
+        //Count before the entry is visible to the workers, so the depth never goes negative
+        metrics.passiveQueued();
+        if (!queue.offer(new Entry(requestResponse, skipResponseBody, audit))) {
+            metrics.passiveDequeued();
+            metrics.passiveDropped();
+            return false;
+        }
+        if (skipResponseBody) {
+            metrics.passiveBodySkipped();
+        }
+        return true;
+    }
+
+    /**
+     * Getter for the number of requests/responses waiting to be scanned
+     * @return the queue depth
+     */
+    public int depth() {
+        return queue.size();
+    }
+
+    /**
+     * Discard every queued request/response and wait briefly for the worker threads to exit
+     */
+    public void shutdown() {
+        List<Thread> stopping;
+        synchronized (lock) {
+            shutdown = true;
+            stopping = new ArrayList<>(workers);
+        }
+        List<Entry> discarded = new ArrayList<>();
+        queue.drainTo(discarded);
+        discarded.forEach(entry -> metrics.passiveDequeued());
+        stopping.forEach(Thread::interrupt);
+        long deadline = System.currentTimeMillis() + SHUTDOWN_WAIT_MILLIS;
+        for (Thread worker : stopping) {
+            try {
+                worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void startWorkers() {
+        while (workers.size() < workerCount) {
+            Thread worker = new Thread(this::work, UuidHunter.EXTENSION_NAME + "-passive-" + (workers.size() + 1));
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Worker loop, scanning one request/response at a time until shutdown
+     */
+    private void work() {
+        while (true) {
+            Entry entry;
+            try {
+                entry = queue.take();
+            } catch (InterruptedException e) {
+                //Only shutdown interrupts a worker
+                return;
+            }
+            metrics.passiveDequeued();
+            try {
+                entry.audit().run(entry.requestResponse(), entry.skipResponseBody());
+            } catch (RuntimeException e) {
+                //A single malformed message shouldn't stop the worker
+                ExtensionState.getInstance().getCallbacks().logging().logToError(e.toString());
+            }
+            synchronized (lock) {
+                if (shutdown) {
+                    return;
+                }
+            }
+        }
+    }
+}
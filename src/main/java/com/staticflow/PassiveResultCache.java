@@ -0,0 +1,166 @@
+package main.java.com.staticflow;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded record of the request/response contents the passive scan check has already scanned.<br>
+ * Burp passively audits every repeat of a polled endpoint, static bundle or API call. Before scanning, the contents the check depends
+ * on are hashed to 64 bits: the URL, every header line that could hold an identifier, and the request and response bodies. Header
+ * lines such as {@code Date} change between repeats but hold no run of letters, digits and hyphens long enough to be an identifier,
+ * so they are left out. A repeat with the same hash would produce exactly the issues already reported, so it is skipped without being
+ * scanned. The least recently seen hashes are evicted once there are more than {@link #MAX_ENTRIES} of them, so the cache costs a few
+ * megabytes at most.
+ */
+public class PassiveResultCache {
+
+    // The most content hashes remembered
+    static final int MAX_ENTRIES = 65536;
+
+    // Shortest run of letters, digits and hyphens an identifier can be written as, the length of a ULID
+    private static final int MIN_ID_RUN = UlidCodec.ULID_TEXT_LENGTH;
+    // Reads 8 bytes of a byte array at once as a little endian long
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final long MULTIPLIER = 0xC2B2AE3D27D4EB4FL;
+
+    // Hashes of the contents already scanned, in least recently seen order
+    private final LinkedHashMap<Long, Boolean> seen = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Record that contents have been scanned
+     * @param contentHash the hash of the contents, from {@link Hasher#hash()}
+     * @return true if the same contents were already scanned, in which case scanning them again can be skipped
+     */
+    public synchronized boolean markScanned(long contentHash) {
+        return seen.put(contentHash, Boolean.TRUE) != null;
+    }
+
+    /**
+     * Forget every hash, so every response is scanned again
+     */
+    public synchronized void clear() {
+        seen.clear();
+    }
+
+    /**
+     * Build a 64 bit hash of the contents of a request/response.<br>
+     * Not a cryptographic hash, but fast: byte ranges are consumed 8 bytes at a time.
+     */
+    public static final class Hasher {
+
+        private long hash = SEED;
+        private long length;
+
+        /**
+         * Add a text value to the hash, along with its length so adjacent values can't run into each other
+         * @param value the value to add
+         * @return this hasher
+         */
+        public Hasher add(CharSequence value) {
+            int length = value.length();
+            long word = 0;
+            for (int i = 0; i < length; i++) {
+                word = word << 16 | value.charAt(i);
+                if ((i & 3) == 3) {
+                    step(word);
+                    word = 0;
+                }
+            }
+            step(word);
+            step(length);
+            return this;
+        }
+
+        /**
+         * Add a number to the hash
+         * @param value the value to add
+         * @return this hasher
+         */
+        public Hasher add(long value) {
+            step(value);
+            return this;
+        }
+
+        /**
+         * Add a range of bytes to the hash, along with its length
+         * @param src the bytes to add
+         * @param from the first byte to add
+         * @param to one past the last byte to add
+         * @return this hasher
+         */
+        public Hasher add(byte[] src, int from, int to) {
+            int i = from;
+            for (; i + Long.BYTES <= to; i += Long.BYTES) {
+                step((long) LONGS.get(src, i));
+            }
+            long tail = 0;
+            for (; i < to; i++) {
+                tail = tail << 8 | (src[i] & 0xFF);
+            }
+            step(tail);
+            step(to - from);
+            return this;
+        }
+
+        /**
+         * Add every line of a range of header bytes that could hold an identifier, that is every line with a run of at least
+         * {@link #MIN_ID_RUN} letters, digits and hyphens. Other lines, such as {@code Date}, are left out so they don't change the hash.
+         * @param src the message bytes
+         * @param from the first byte of the headers
+         * @param to one past the last byte of the headers
+         * @return this hasher
+         */
+        public Hasher addIdBearingLines(byte[] src, int from, int to) {
+            int lineStart = from;
+            int run = 0;
+            boolean bearing = false;
+            for (int i = from; i < to; i++) {
+                byte b = src[i];
+                if (b == '\n') {
+                    if (bearing) {
+                        add(src, lineStart, i);
+                    }
+                    lineStart = i + 1;
+                    run = 0;
+                    bearing = false;
+                } else if (b == '-' || (b >= '0' && b <= '9') || ((b | 0x20) >= 'a' && (b | 0x20) <= 'z')) {
+                    bearing |= ++run >= MIN_ID_RUN;
+                } else {
+                    run = 0;
+                }
+            }
+            if (bearing) {
+                add(src, lineStart, to);
+            }
+            return this;
+        }
+
+        private void step(long word) {
+            hash = Long.rotateLeft(hash ^ (word * SEED), 31) * MULTIPLIER;
+            length++;
+        }
+
+        /**
+         * Finish the hash
+         * @return the 64 bit hash of everything added
+         */
+        public long hash() {
+            long h = hash ^ length;
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            h *= 0xC4CEB9FE1A85EC53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
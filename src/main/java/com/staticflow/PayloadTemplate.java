@@ -0,0 +1,141 @@
+package main.java.com.staticflow;
+
+import burp.api.montoya.core.ByteArray;
+import burp.api.montoya.http.HttpService;
+import burp.api.montoya.http.message.requests.HttpRequest;
+import burp.api.montoya.scanner.audit.insertionpoint.AuditInsertionPoint;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pre-rendered request used by the active scan check to build candidate requests without rebuilding the whole request each time.<br>
+ * The insertion point is rendered once with two probe payloads, the lowest and highest identifiers of the seed's format. If both renders
+ * are the same length and differ only inside a single window holding each probe verbatim, the offset of that window is recorded and each
+ * candidate request is a copy of the render with its payload written over the window. If the insertion point encodes the payload, or the
+ * payload affects any other part of the request, every candidate falls back to
+ * {@link AuditInsertionPoint#buildHttpRequestWithPayload(ByteArray)}.
+ */
+public final class PayloadTemplate {
+
+    // The insertion point used when the payload can't be spliced in place
+    private final AuditInsertionPoint insertionPoint;
+    // The service every candidate request is sent to
+    private final HttpService service;
+    // The request rendered with the first probe
+    private final ByteArray template;
+    // The position of the payload within the rendered request, or -1 when falling back to the insertion point
+    private final int payloadOffset;
+    // The part of the rendered request holding the payload, or null when falling back to the insertion point
+    private final MessageIdExtractor.Location location;
+    // Hash of the service and the request rendered with the first probe
+    private final long fingerprint;
+
+    private PayloadTemplate(AuditInsertionPoint insertionPoint, HttpService service, ByteArray template, int bodyOffset, int payloadOffset) {
+        this.insertionPoint = insertionPoint;
+        this.service = service;
+        this.template = template;
+        this.payloadOffset = payloadOffset;
+        this.location = payloadOffset < 0 ? null : MessageIdExtractor.locate(template.getBytes(), bodyOffset, false, payloadOffset);
+        this.fingerprint = fingerprint(service, template.getBytes());
+    }
+
+    /**
+     * Render the insertion point once and locate where payloads are written in the rendered request
+     * @param insertionPoint the insertion point candidate payloads are placed into
+     * @param service the service every candidate request is sent to
+     * @param codec the format of the payloads
+     * @return a template which splices payloads in place when possible, or falls back to the insertion point
+     */
+    public static PayloadTemplate compile(AuditInsertionPoint insertionPoint, HttpService service, TimeIdCodec codec) {
+        byte[] probeA = codec.probe(false);
+        byte[] probeB = codec.probe(true);
+        HttpRequest requestA = insertionPoint.buildHttpRequestWithPayload(ByteArray.byteArray(probeA)).withService(service);
+        ByteArray renderA = requestA.toByteArray();
+        ByteArray renderB = insertionPoint.buildHttpRequestWithPayload(ByteArray.byteArray(probeB)).withService(service).toByteArray();
+        return new PayloadTemplate(insertionPoint, service, renderA, requestA.bodyOffset(),
+                locatePayload(renderA.getBytes(), renderB.getBytes(), probeA, probeB));
+    }
+
+    /**
+     * Find the single window where two renders hold their probes verbatim and are otherwise identical
+     * @return the offset of the window or -1 if the payload isn't copied into the request unchanged
+     */
+    private static int locatePayload(byte[] renderA, byte[] renderB, byte[] probeA, byte[] probeB) {
+        if (renderA.length != renderB.length) {
+            return -1;
+        }
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < renderA.length; i++) {
+            if (renderA[i] != renderB[i]) {
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+            }
+        }
+        //The probes differ in their first and last characters, so the differences must span exactly one payload
+        if (first < 0 || last - first + 1 != probeA.length) {
+            return -1;
+        }
+        for (int i = 0; i < probeA.length; i++) {
+            if (renderA[first + i] != probeA[i] || renderB[first + i] != probeB[i]) {
+                return -1;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the service and rendered request, used to recognise the same insertion point across reloads
+     */
+    private static long fingerprint(HttpService service, byte[] render) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : (service.host() + ':' + service.port() + ':' + service.secure()).getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001b3L;
+        }
+        for (byte b : render) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Getter for the hash of this template, which is the same for every audit of the same request and insertion point
+     * @return a 64 bit hash of the service and the rendered request
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Getter for the part of the request the payload is written into, which tells insertion points of the same name apart, such as a
+     * query parameter and a body field
+     * @return the location of the payload, or null if payloads aren't spliced into the rendered request
+     */
+    public MessageIdExtractor.Location location() {
+        return location;
+    }
+
+    /**
+     * Getter for whether payloads are spliced into the pre-rendered request
+     * @return true if candidate requests are built by overwriting the payload in place
+     */
+    public boolean isSpliced() {
+        return payloadOffset >= 0;
+    }
+
+    /**
+     * Build the request for a single candidate payload
+     * @param payload the text form of the candidate identifier
+     * @return the request to send for the candidate
+     */
+    public HttpRequest build(byte[] payload) {
+        if (!isSpliced()) {
+            return insertionPoint.buildHttpRequestWithPayload(ByteArray.byteArray(payload)).withService(service);
+        }
+        ByteArray request = template.copy();
+        request.setBytes(payloadOffset, payload);
+        return HttpRequest.httpRequest(service, request);
+    }
+}
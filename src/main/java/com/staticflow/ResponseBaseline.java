@@ -0,0 +1,153 @@
+package main.java.com.staticflow;
+
+import burp.api.montoya.http.message.responses.HttpResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fingerprints of the responses a target gives for identifiers which can't be valid, used to tell real hits apart from soft 404s,
+ * login redirects and other targets that answer every identifier the same way.<br>
+ * Before a sweep the active scan check sends a few control identifiers in the seed's text layout: random ones, such as v4 UUIDs, and ones
+ * with the seed's other bits one and two years before the seed. A response is fingerprinted by its status, its body length and a hash of
+ * its body with every echo of the payload removed. A candidate response matching any control fingerprint is not a hit, whatever its status.
+ * Bodies are compared by hash, or by length within a small tolerance when the controls show the page changes between requests. If the
+ * controls were answered with a 2xx or 3xx the baseline is permissive, and a sweep whose first {@link #EARLY_SAMPLE} answers all match it
+ * is abandoned.
+ */
+public class ResponseBaseline {
+
+    // The number of candidate answers after which a sweep against a permissive target is abandoned if none stood out
+    public static final int EARLY_SAMPLE = 200;
+
+    // Body lengths within this fraction of a control's length are treated as the same page with a different dynamic value
+    private static final int LENGTH_TOLERANCE_DIVISOR = 50;
+    // Body lengths within this many bytes of a control's length are always treated as the same
+    private static final int MIN_LENGTH_TOLERANCE = 16;
+    // Ticks in a year, roughly, used to place the time based controls far from the seed
+    private static final long TICKS_PER_YEAR = 365L * 24 * 60 * 60 * V1CandidateGenerator.TICKS_PER_SECOND;
+
+    /**
+     * The parts of a response compared against the baseline
+     * @param status the status code
+     * @param length the body length
+     * @param bodyHash a hash of the body with every echo of the payload removed
+     */
+    public record Fingerprint(short status, int length, long bodyHash) {
+    }
+
+    // Fingerprints of the control responses
+    private final List<Fingerprint> controls;
+    // Whether two controls with the same status had different bodies, so bodies carry tokens or timestamps and can't be hashed
+    private final boolean dynamic;
+
+    /**
+     * Create a baseline from the fingerprints of control responses
+     * @param controls the fingerprints of the responses to the control identifiers, may be empty if none were answered
+     */
+    public ResponseBaseline(List<Fingerprint> controls) {
+        this.controls = List.copyOf(controls);
+        boolean dynamic = false;
+        for (Fingerprint a : this.controls) {
+            for (Fingerprint b : this.controls) {
+                dynamic |= a.status() == b.status() && a.bodyHash() != b.bodyHash();
+            }
+        }
+        this.dynamic = dynamic;
+    }
+
+    /**
+     * Build the text of the control identifiers for a sweep
+     * @param seed the seed identifier of the sweep
+     * @return two random identifiers in the seed's layout, such as v4 UUIDs, followed by the seed moved one and two years back
+     */
+    public static List<byte[]> controlPayloads(TimeId seed) {
+        TimeIdCodec codec = seed.codec();
+        List<byte[]> controls = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            byte[] random = new byte[codec.textLength()];
+            codec.renderRandom(random, 0);
+            controls.add(random);
+        }
+        for (int years = 1; years <= 2; years++) {
+            byte[] earlier = new byte[codec.textLength()];
+            seed.withTimestamp(seed.timestamp() - years * TICKS_PER_YEAR).render(earlier, 0);
+            controls.add(earlier);
+        }
+        return controls;
+    }
+
+    /**
+     * Fingerprint a response
+     * @param response the response to fingerprint
+     * @param payload the payload the request carried, echoes of which are left out of the body hash
+     * @return the fingerprint of the response
+     */
+    public static Fingerprint fingerprint(HttpResponse response, byte[] payload) {
+        byte[] bytes = response.toByteArray().getBytes();
+        int bodyOffset = Math.min(response.bodyOffset(), bytes.length);
+        PassiveResultCache.Hasher hasher = new PassiveResultCache.Hasher();
+        int segmentStart = bodyOffset;
+        int last = bytes.length - payload.length;
+        for (int i = bodyOffset; i <= last; i++) {
+            if (bytes[i] == payload[0] && matchesAt(bytes, i, payload)) {
+                hasher.add(bytes, segmentStart, i);
+                i += payload.length - 1;
+                segmentStart = i + 1;
+            }
+        }
+        hasher.add(bytes, segmentStart, bytes.length);
+        return new Fingerprint(response.statusCode(), bytes.length - bodyOffset, hasher.hash());
+    }
+
+    private static boolean matchesAt(byte[] bytes, int offset, byte[] payload) {
+        for (int i = 1; i < payload.length; i++) {
+            if (bytes[offset + i] != payload[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if a response looks the same as the responses to the controls
+     * @param fingerprint the fingerprint of a candidate response
+     * @return true if the status matches a control and either the body hash matches or, for a dynamic page, the body length is
+     * within tolerance
+     */
+    public boolean matches(Fingerprint fingerprint) {
+        for (Fingerprint control : controls) {
+            if (control.status() == fingerprint.status() && (control.bodyHash() == fingerprint.bodyHash()
+                    || dynamic && Math.abs(control.length() - fingerprint.length())
+                    <= Math.max(MIN_LENGTH_TOLERANCE, control.length() / LENGTH_TOLERANCE_DIVISOR))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if the target answered an invalid identifier the way the active scan check would otherwise report as a hit
+     * @return true if any control was answered with a 2xx or 3xx
+     */
+    public boolean isPermissive() {
+        for (Fingerprint control : controls) {
+            if (control.status() >= 200 && control.status() < 400) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Describe the baseline for the extension output
+     * @return the status and body length of each control
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        for (Fingerprint control : controls) {
+            sb.append(sb.length() == 0 ? "" : ", ").append(control.status()).append('/').append(control.length()).append("B");
+        }
+        return sb.length() == 0 ? "no control answered" : sb.toString();
+    }
+}
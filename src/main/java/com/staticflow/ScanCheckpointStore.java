@@ -0,0 +1,252 @@
+package main.java.com.staticflow;
+
+import burp.api.montoya.persistence.PersistedObject;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Persistent checkpoints of active scan sweeps, so an audit re-queued after Burp restarts or the extension reloads resumes where it
+ * stopped instead of sending the whole window again.<br>
+ * A checkpoint is keyed by the seed identifier and a hash of the rendered request. It holds the clock sequence and node variants the sweep
+ * covers, since the timeline they were chosen from doesn't survive a restart, the hits found so far and the candidates already answered, as
+ * {@link CandidateSpace#answeredKey(int, long) variant and timestamp} pairs. The answered candidates are stored as deflated variable length
+ * deltas, so a sweep of tens of thousands of evenly stepped candidates costs a few hundred bytes. Checkpoints older than
+ * {@link #EXPIRY_MILLIS} are dropped, as are the oldest ones once there are more than {@link #MAX_CHECKPOINTS}, and a checkpoint larger
+ * than {@link #MAX_CHECKPOINT_CHARS} isn't saved.
+ */
+public class ScanCheckpointStore {
+
+    // The most checkpoints kept
+    static final int MAX_CHECKPOINTS = 64;
+    // The largest encoded checkpoint saved
+    static final int MAX_CHECKPOINT_CHARS = 1 << 20;
+    // How long a checkpoint is kept after it was last saved
+    static final long EXPIRY_MILLIS = 7L * 24 * 60 * 60 * 1000;
+
+    // Prefix of every key this store writes into the persisted object
+    private static final String KEY_PREFIX = "checkpoint.";
+    // Version of the encoding, bumped when the format changes so old checkpoints are ignored
+    private static final String FORMAT_VERSION = "3";
+
+    /**
+     * The saved progress of a single sweep
+     * @param savedAt when the checkpoint was saved, in milliseconds since the epoch
+     * @param variants the least significant bits of each clock sequence and node variant the sweep covers
+     * @param hits candidates which were reported as hits
+     * @param answered variant and timestamp pairs of every candidate which was sent and answered, in ascending order
+     */
+    public record Checkpoint(long savedAt, long[] variants, List<TimeId> hits, long[] answered) {
+    }
+
+    // Where checkpoints are persisted, looked up on use since Burp's APIs aren't available when the store is created
+    private final Supplier<PersistedObject> storage;
+
+    /**
+     * Create a store backed by a persisted object
+     * @param storage supplies the persisted object checkpoints are written into
+     */
+    public ScanCheckpointStore(Supplier<PersistedObject> storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Look up the checkpoint of a sweep
+     * @param seed the seed identifier of the sweep
+     * @param templateHash the hash of the request the sweep sends candidates in
+     * @return the checkpoint, or null if there isn't one, it expired or it can't be read
+     */
+    public synchronized Checkpoint load(TimeId seed, long templateHash) {
+        String encoded = storage.get().getString(key(seed, templateHash));
+        Checkpoint checkpoint = encoded == null ? null : decode(encoded);
+        if (checkpoint == null || System.currentTimeMillis() - checkpoint.savedAt() > EXPIRY_MILLIS) {
+            return null;
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Save the progress of a sweep, replacing any earlier checkpoint of it, then drop expired and excess checkpoints
+     * @param seed the seed identifier of the sweep
+     * @param templateHash the hash of the request the sweep sends candidates in
+     * @param variants the least significant bits of each clock sequence and node variant the sweep covers
+     * @param hits candidates which were reported as hits
+     * @param answered variant and timestamp pairs of every candidate which was sent and answered
+     */
+    public synchronized void save(TimeId seed, long templateHash, long[] variants, Collection<TimeId> hits, TimestampBitmap answered) {
+        long now = System.currentTimeMillis();
+        String encoded = encode(now, variants, hits, answered.toArray());
+        PersistedObject persisted = storage.get();
+        if (encoded.length() > MAX_CHECKPOINT_CHARS) {
+            persisted.deleteString(key(seed, templateHash));
+            return;
+        }
+        persisted.setString(key(seed, templateHash), encoded);
+        prune(persisted, now);
+    }
+
+    /**
+     * Forget the checkpoint of a sweep, used once the sweep completes
+     * @param seed the seed identifier of the sweep
+     * @param templateHash the hash of the request the sweep sends candidates in
+     */
+    public synchronized void delete(TimeId seed, long templateHash) {
+        storage.get().deleteString(key(seed, templateHash));
+    }
+
+    /**
+     * Drop expired checkpoints, then the oldest ones until at most {@link #MAX_CHECKPOINTS} are left
+     */
+    private static void prune(PersistedObject persisted, long now) {
+        List<String> keys = new ArrayList<>();
+        List<Long> savedAt = new ArrayList<>();
+        for (String key : persisted.stringKeys()) {
+            if (!key.startsWith(KEY_PREFIX)) {
+                continue;
+            }
+            long saved = savedAt(persisted.getString(key));
+            if (now - saved > EXPIRY_MILLIS) {
+                persisted.deleteString(key);
+            } else {
+                keys.add(key);
+                savedAt.add(saved);
+            }
+        }
+        if (keys.size() > MAX_CHECKPOINTS) {
+            List<Integer> oldestFirst = new ArrayList<>();
+            for (int i = 0; i < keys.size(); i++) {
+                oldestFirst.add(i);
+            }
+            oldestFirst.sort(Comparator.comparingLong(savedAt::get));
+            for (int i = 0; i < keys.size() - MAX_CHECKPOINTS; i++) {
+                persisted.deleteString(keys.get(oldestFirst.get(i)));
+            }
+        }
+    }
+
+    private static String key(TimeId seed, long templateHash) {
+        return KEY_PREFIX + seed + '.' + Long.toHexString(templateHash);
+    }
+
+    /**
+     * Encode a checkpoint as {@code version;savedAt;variant,variant;hit,hit;base64(deflate(varint deltas))}
+     */
+    static String encode(long savedAt, long[] variants, Collection<TimeId> hits, long[] answered) {
+        StringBuilder sb = new StringBuilder(FORMAT_VERSION).append(';').append(savedAt).append(';');
+        for (int i = 0; i < variants.length; i++) {
+            sb.append(i == 0 ? "" : ",").append(Long.toHexString(variants[i]));
+        }
+        sb.append(';');
+        boolean first = true;
+        for (TimeId hit : hits) {
+            if (!first) {
+                sb.append(',');
+            }
+            sb.append(hit);
+            first = false;
+        }
+        ByteArrayOutputStream deltas = new ByteArrayOutputStream();
+        long previous = 0;
+        for (long timestamp : answered) {
+            long delta = timestamp - previous;
+            previous = timestamp;
+            while ((delta & ~0x7FL) != 0) {
+                deltas.write((int) (delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            deltas.write((int) delta);
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        deflater.setInput(deltas.toByteArray());
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            compressed.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        return sb.append(';').append(Base64.getEncoder().encodeToString(compressed.toByteArray())).toString();
+    }
+
+    /**
+     * Decode a checkpoint written by {@link #encode(long, long[], Collection, long[])}
+     * @return the checkpoint, or null if it was written by another version or is corrupt
+     */
+    static Checkpoint decode(String encoded) {
+        String[] fields = encoded.split(";", -1);
+        if (fields.length != 5 || !fields[0].equals(FORMAT_VERSION)) {
+            return null;
+        }
+        try {
+            long savedAt = Long.parseLong(fields[1]);
+            long[] variants = fields[2].isEmpty() ? new long[0]
+                    : Arrays.stream(fields[2].split(",")).mapToLong(variant -> Long.parseUnsignedLong(variant, 16)).toArray();
+            List<TimeId> hits = new ArrayList<>();
+            for (String hit : fields[3].split(",")) {
+                TimeId id = TimeId.parse(hit);
+                if (id != null) {
+                    hits.add(id);
+                }
+            }
+            Inflater inflater = new Inflater();
+            inflater.setInput(Base64.getDecoder().decode(fields[4]));
+            ByteArrayOutputStream deltas = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    inflater.end();
+                    return null;
+                }
+                deltas.write(buffer, 0, inflated);
+            }
+            inflater.end();
+            long[] answered = new long[16];
+            int count = 0;
+            long previous = 0;
+            long delta = 0;
+            int shift = 0;
+            for (byte b : deltas.toByteArray()) {
+                delta |= (long) (b & 0x7F) << shift;
+                shift += 7;
+                if ((b & 0x80) == 0) {
+                    previous += delta;
+                    if (count == answered.length) {
+                        answered = Arrays.copyOf(answered, count * 2);
+                    }
+                    answered[count++] = previous;
+                    delta = 0;
+                    shift = 0;
+                }
+            }
+            return new Checkpoint(savedAt, variants, hits, Arrays.copyOf(answered, count));
+        } catch (IllegalArgumentException | DataFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Read the save time of an encoded checkpoint without decoding the rest of it
+     * @return the save time, or 0 so unreadable checkpoints are treated as expired
+     */
+    private static long savedAt(String encoded) {
+        if (encoded == null) {
+            return 0;
+        }
+        String[] fields = encoded.split(";", 3);
+        try {
+            return fields.length == 3 && fields[0].equals(FORMAT_VERSION) ? Long.parseLong(fields[1]) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package main.java.com.staticflow;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low overhead counters describing what the scan check is doing, shown live in the settings UI and exportable for capacity
+ * planning.<br>
+ * Every counter is a striped {@link LongAdder}, so the passive and active hot paths only pay for an uncontended increment. A snapshot
+ * reads every counter once and may be very slightly inconsistent while scans are running.
+ */
+public class ScanMetrics {
+
+    // Bytes of requests and responses scanned for time based identifiers by the passive scan check
+    private final LongAdder passiveBytesScanned = new LongAdder();
+    // Responses the passive scan check skipped because the same contents were already scanned
+    private final LongAdder passiveCacheHits = new LongAdder();
+    // Requests/responses waiting in the background passive scan queue
+    private final LongAdder passiveQueueDepth = new LongAdder();
+    // Requests/responses the background passive scan queue dropped because it was full
+    private final LongAdder passiveDropped = new LongAdder();
+    // Response bodies the background passive scan queue skipped because it was backing up
+    private final LongAdder passiveBodiesSkipped = new LongAdder();
+    // Time based identifiers of every format found by the passive scan check
+    private final LongAdder timeIdsFound = new LongAdder();
+    // Candidate UUIDs rendered by the active scan check
+    private final LongAdder candidatesGenerated = new LongAdder();
+    // Candidate requests currently waiting for a response
+    private final LongAdder requestsInFlight = new LongAdder();
+    // Candidate responses by status class, index 0 counts requests that got no response
+    private final LongAdder[] responsesByClass = new LongAdder[6];
+    // Latency of candidate requests
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * Constructor which creates zeroed counters
+     */
+    public ScanMetrics() {
+        for (int i = 0; i < responsesByClass.length; i++) {
+            responsesByClass[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Count bytes of requests and responses scanned by the passive scan check
+     * @param count the number of bytes scanned
+     */
+    public void passiveBytesScanned(long count) {
+        passiveBytesScanned.add(count);
+    }
+
+    /**
+     * Count a response the passive scan check skipped because the same contents were already scanned
+     */
+    public void passiveCacheHit() {
+        passiveCacheHits.increment();
+    }
+
+    /**
+     * Record that a request/response has been added to the background passive scan queue
+     */
+    public void passiveQueued() {
+        passiveQueueDepth.increment();
+    }
+
+    /**
+     * Record that a request/response added with {@link #passiveQueued()} has left the queue
+     */
+    public void passiveDequeued() {
+        passiveQueueDepth.decrement();
+    }
+
+    /**
+     * Count a request/response the background passive scan queue dropped because it was full
+     */
+    public void passiveDropped() {
+        passiveDropped.increment();
+    }
+
+    /**
+     * Count a response body the background passive scan queue skipped because it was backing up
+     */
+    public void passiveBodySkipped() {
+        passiveBodiesSkipped.increment();
+    }
+
+    /**
+     * Count time based identifiers found by the passive scan check
+     * @param count the number of identifiers found, of every format
+     */
+    public void timeIdsFound(long count) {
+        timeIdsFound.add(count);
+    }
+
+    /**
+     * Count a single candidate UUID rendered by the active scan check
+     */
+    public void candidateGenerated() {
+        candidatesGenerated.increment();
+    }
+
+    /**
+     * Record that a candidate request has been sent and is waiting for a response
+     */
+    public void requestStarted() {
+        requestsInFlight.increment();
+    }
+
+    /**
+     * Record the outcome of a candidate request started with {@link #requestStarted()}
+     * @param status the response status code, or 0 if there was no response
+     * @param latencyNanos how long the request took
+     */
+    public void requestCompleted(int status, long latencyNanos) {
+        requestsInFlight.decrement();
+        int statusClass = status / 100;
+        responsesByClass[statusClass >= 1 && statusClass <= 5 ? statusClass : 0].increment();
+        latency.record(latencyNanos);
+    }
+
+    /**
+     * Read every metric once
+     * @return metric names mapped to their current values, in a stable order
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("passive_bytes_scanned", passiveBytesScanned.sum());
+        values.put("passive_cache_hits", passiveCacheHits.sum());
+        values.put("passive_queue_depth", passiveQueueDepth.sum());
+        values.put("passive_dropped", passiveDropped.sum());
+        values.put("passive_bodies_skipped", passiveBodiesSkipped.sum());
+        values.put("time_ids_found", timeIdsFound.sum());
+        values.put("candidates_generated", candidatesGenerated.sum());
+        values.put("requests_in_flight", requestsInFlight.sum());
+        values.put("responses_none", responsesByClass[0].sum());
+        for (int i = 1; i < responsesByClass.length; i++) {
+            values.put("responses_" + i + "xx", responsesByClass[i].sum());
+        }
+        values.put("latency_p50_ms", latency.percentileMillis(50));
+        values.put("latency_p95_ms", latency.percentileMillis(95));
+        values.put("latency_p99_ms", latency.percentileMillis(99));
+        return values;
+    }
+
+    /**
+     * Render a snapshot as a two line CSV, a header row followed by the values
+     * @return the CSV text
+     */
+    public String toCsv() {
+        Map<String, Long> values = snapshot();
+        return "timestamp_ms," + String.join(",", values.keySet()) + "\n"
+                + System.currentTimeMillis() + "," + String.join(",", values.values().stream().map(String::valueOf).toList()) + "\n";
+    }
+
+    /**
+     * Render a snapshot as a single JSON object
+     * @return the JSON text
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\"timestamp_ms\":").append(System.currentTimeMillis());
+        snapshot().forEach((name, value) -> sb.append(",\"").append(name).append("\":").append(value));
+        return sb.append("}\n").toString();
+    }
+
+    /**
+     * Render a snapshot for display, one metric per line
+     * @return the text to show in the settings UI
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        snapshot().forEach((name, value) -> sb.append(String.format("%-26s %d%n", name, value)));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,95 @@
+package main.java.com.staticflow;
+
+import burp.api.montoya.http.HttpService;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Extension wide record of every candidate timestamp the active scan check has already sent.<br>
+ * Records are kept per target, where a target is the host, the method, the path with identifier segments replaced by a placeholder, the
+ * insertion point, and the format and least significant bits (the node and clock sequence of a V1 UUID) of the seed. Two insertion
+ * points of the same path, such as {@code /orders/{id}} and {@code ?parent=}, are different targets even when their seeds come from the
+ * same node. Audits of overlapping windows against the same target
+ * share one {@link TimestampBitmap}, so the overlap is only requested once. The least recently used targets are evicted once there are more
+ * than {@link #MAX_TARGETS} of them or their bitmaps use more than {@link #MAX_BYTES}.
+ */
+public class TestedCandidateRegistry {
+
+    // The most targets remembered
+    static final int MAX_TARGETS = 512;
+    // The most memory, in bytes, the bitmaps of all targets may use
+    static final long MAX_BYTES = 64L * 1024 * 1024;
+
+    // Tested timestamps keyed by target, in least recently used order
+    private final LinkedHashMap<String, TimestampBitmap> targets = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Getter for the tested timestamps of a target, created on first use
+     * @param service the service candidate requests are sent to
+     * @param method the method of the base request
+     * @param path the path of the base request, including any query string
+     * @param insertionPoint identifies the insertion point within the request, such as its name and the part of the request it is in
+     * @param seed the seed identifier of the audit, or of one of its variants
+     * @return the {@link TimestampBitmap} shared by every audit of the same target
+     */
+    public synchronized TimestampBitmap forTarget(HttpService service, String method, String path, String insertionPoint, TimeId seed) {
+        String key = service.host() + ':' + service.port() + ' ' + method + ' ' + pathTemplate(path) + ' ' + insertionPoint + ' '
+                + seed.codec().displayName() + ' ' + Long.toHexString(seed.lsb());
+        TimestampBitmap tested = targets.computeIfAbsent(key, k -> new TimestampBitmap());
+        evict(tested);
+        return tested;
+    }
+
+    /**
+     * Drop least recently used targets, other than {@code current}, until the registry is within its limits
+     */
+    private void evict(TimestampBitmap current) {
+        long bytes = 0;
+        for (TimestampBitmap bitmap : targets.values()) {
+            bytes += bitmap.sizeInBytes();
+        }
+        Iterator<Map.Entry<String, TimestampBitmap>> eldest = targets.entrySet().iterator();
+        while ((targets.size() > MAX_TARGETS || bytes > MAX_BYTES) && eldest.hasNext()) {
+            TimestampBitmap bitmap = eldest.next().getValue();
+            if (bitmap != current) {
+                bytes -= bitmap.sizeInBytes();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Reduce a request path to a template by dropping the query string and replacing identifier like segments with {@code {id}}.
+     * A segment is treated as an identifier if it is made only of hex digits and hyphens and contains at least one digit, or if it is
+     * a time based identifier of any format.
+     * @param path the path of a request
+     * @return the path template
+     */
+    static String pathTemplate(String path) {
+        int query = path.indexOf('?');
+        String[] segments = (query < 0 ? path : path.substring(0, query)).split("/", -1);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < segments.length; i++) {
+            if (i > 0) {
+                sb.append('/');
+            }
+            sb.append(isIdentifier(segments[i]) || TimeId.parse(segments[i]) != null ? "{id}" : segments[i]);
+        }
+        return sb.toString();
+    }
+
+    private static boolean isIdentifier(String segment) {
+        boolean digit = false;
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digit = true;
+            } else if (c != '-' && (c > 0xFF || !V1UuidParser.isHex((byte) c))) {
+                return false;
+            }
+        }
+        return digit;
+    }
+}
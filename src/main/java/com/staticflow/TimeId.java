@@ -0,0 +1,107 @@
+package main.java.com.staticflow;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A time based identifier of any supported format, held as its codec and 128 bits.<br>
+ * Only identifiers that outlive a single candidate, such as seeds, hits and reported issues, are held this way. Hot paths work on the
+ * codec and the two longs directly.
+ * @param codec the format of the identifier
+ * @param msb the most significant bits, which hold the timestamp
+ * @param lsb the least significant bits
+ */
+public record TimeId(TimeIdCodec codec, long msb, long lsb) {
+
+    // Every supported format
+    public static final List<TimeIdCodec> CODECS = List.of(UuidCodec.V1, UuidCodec.V6, UuidCodec.V7, UlidCodec.ULID);
+
+    /**
+     * Return a {@link TimeId} if the supplied {@code value} is exactly an identifier of any supported format
+     * @param value the text form of an identifier
+     * @return the identifier, or null if {@code value} isn't a time based identifier
+     */
+    public static TimeId parse(CharSequence value) {
+        if (value == null) {
+            return null;
+        }
+        int length = value.length();
+        if (length != V1UuidParser.UUID_TEXT_LENGTH && length != UlidCodec.ULID_TEXT_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c > 0x7F) {
+                return null;
+            }
+            bytes[i] = (byte) c;
+        }
+        return parse(bytes, 0, length);
+    }
+
+    /**
+     * Return a {@link TimeId} if the bytes of {@code src} between {@code offset} and {@code offset + length} are exactly an
+     * identifier of any supported format
+     * @param src the buffer containing the text form of an identifier
+     * @param offset the position in {@code src} where the identifier starts
+     * @param length the length of the text form
+     * @return the identifier, or null if the bytes aren't a time based identifier
+     */
+    public static TimeId parse(byte[] src, int offset, int length) {
+        for (TimeIdCodec codec : CODECS) {
+            if (codec.textLength() == length && codec.matches(src, offset)) {
+                return new TimeId(codec, codec.msb(src, offset), codec.lsb(src, offset));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Wrap a time based {@link UUID}
+     * @param uuid a UUID
+     * @return the identifier, or null if {@code uuid} isn't a V1, V6 or V7 UUID
+     */
+    public static TimeId of(UUID uuid) {
+        UuidCodec codec = UuidCodec.forVersion((byte) ('0' + uuid.version()));
+        return codec == null ? null : new TimeId(codec, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Getter for the timestamp of this identifier
+     * @return the timestamp in 100 nanosecond ticks since the Gregorian epoch
+     */
+    public long timestamp() {
+        return codec.timestamp(msb);
+    }
+
+    /**
+     * Build the identifier with the same format and other bits as this one but a different timestamp
+     * @param timestamp the timestamp in 100 nanosecond ticks since the Gregorian epoch
+     * @return the identifier with the new timestamp
+     */
+    public TimeId withTimestamp(long timestamp) {
+        return new TimeId(codec, codec.withTimestamp(msb, timestamp), lsb);
+    }
+
+    /**
+     * Write the text form of this identifier into {@code dst}
+     * @param dst the buffer to write into, must have room for the codec's text length after {@code offset}
+     * @param offset the position in {@code dst} to start writing
+     */
+    public void render(byte[] dst, int offset) {
+        codec.render(msb, lsb, dst, offset);
+    }
+
+    /**
+     * Render the text form of this identifier
+     * @return the text form, as found in traffic
+     */
+    @Override
+    public String toString() {
+        byte[] text = new byte[codec.textLength()];
+        render(text, 0);
+        return new String(text, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,107 @@
+package main.java.com.staticflow;
+
+/**
+ * A text format of time based identifier, such as V1 UUIDs or ULIDs, which the scan checks can detect and enumerate.<br>
+ * Every supported format fits in 128 bits and keeps its timestamp in the most significant 64, so an identifier is handled as a pair
+ * of longs plus its codec and candidates are made by replacing the timestamp bits of a seed. Timestamps are always exchanged as 100
+ * nanosecond ticks since the Gregorian epoch, the unit of V1 UUIDs, whatever the format's own unit is, so window planning, timelines
+ * and tested candidate bitmaps work the same for every format. Parsing and rendering work on byte buffers and never allocate.
+ */
+public interface TimeIdCodec {
+
+    /**
+     * Getter for the name of the format as shown to users, used in issue names
+     * @return the name, such as {@code V1 UUID}
+     */
+    String displayName();
+
+    /**
+     * Getter for the length of the text form of an identifier of this format
+     * @return the number of characters of the text form
+     */
+    int textLength();
+
+    /**
+     * Check, without allocating, if the {@link #textLength()} bytes of {@code src} starting at {@code offset} are an identifier of
+     * this format
+     * @param src the buffer containing the text form of an identifier
+     * @param offset the position in {@code src} where the identifier starts
+     * @return true if the bytes are an identifier of this format
+     */
+    boolean matches(byte[] src, int offset);
+
+    /**
+     * Decode the most significant bits of an identifier already validated by {@link #matches(byte[], int)}
+     * @param src the buffer containing the text form of an identifier
+     * @param offset the position in {@code src} where the identifier starts
+     * @return the most significant bits of the identifier
+     */
+    long msb(byte[] src, int offset);
+
+    /**
+     * Decode the least significant bits of an identifier already validated by {@link #matches(byte[], int)}
+     * @param src the buffer containing the text form of an identifier
+     * @param offset the position in {@code src} where the identifier starts
+     * @return the least significant bits of the identifier
+     */
+    long lsb(byte[] src, int offset);
+
+    /**
+     * Extract the timestamp of an identifier
+     * @param msb the most significant bits of the identifier
+     * @return the timestamp in 100 nanosecond ticks since the Gregorian epoch
+     */
+    long timestamp(long msb);
+
+    /**
+     * Replace the timestamp of an identifier, keeping every other bit
+     * @param msb the most significant bits of the identifier
+     * @param timestamp the new timestamp in 100 nanosecond ticks since the Gregorian epoch, rounded down to {@link #resolution()}
+     * @return the most significant bits of the identifier with the new timestamp
+     */
+    long withTimestamp(long msb, long timestamp);
+
+    /**
+     * Getter for the finest difference between two timestamps of this format
+     * @return the resolution in 100 nanosecond ticks
+     */
+    long resolution();
+
+    /**
+     * Check if the least significant bits of this format identify the issuer, as the clock sequence and node of V1 UUIDs do, rather
+     * than being random
+     * @return true if identifiers with the same least significant bits come from the same issuer
+     */
+    boolean hasNode();
+
+    /**
+     * Write the text form of an identifier into {@code dst}
+     * @param msb the most significant bits of the identifier
+     * @param lsb the least significant bits of the identifier
+     * @param dst the buffer to write into, must have room for {@link #textLength()} bytes after {@code offset}
+     * @param offset the position in {@code dst} to start writing
+     */
+    void render(long msb, long lsb, byte[] dst, int offset);
+
+    /**
+     * Write the text form of an identifier laid out like this format but which the target can't have issued, used as a control
+     * @param dst the buffer to write into, must have room for {@link #textLength()} bytes after {@code offset}
+     * @param offset the position in {@code dst} to start writing
+     */
+    void renderRandom(byte[] dst, int offset);
+
+    /**
+     * Build the text of the lowest or highest identifier of this format, two probes that differ in their first and last characters
+     * @param highest true for the highest identifier, false for the lowest
+     * @return the text of the probe
+     */
+    byte[] probe(boolean highest);
+
+    /**
+     * Append the fields of an identifier to an issue detail, one per line
+     * @param msb the most significant bits of the identifier
+     * @param lsb the least significant bits of the identifier
+     * @param sb where the detail is written, as HTML
+     */
+    void describe(long msb, long lsb, StringBuilder sb);
+}
@@ -0,0 +1,173 @@
+package main.java.com.staticflow;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single pass scanner which locates time based identifiers of every supported format inside arbitrary bytes such as a response body.
+ * <br>
+ * Two small state machines run over the same pass. One tracks how far into the 8-4-4-4-12 UUID layout the current run of bytes has
+ * reached and hands complete UUIDs to the codec of their version. The other tracks the current run of letters and digits, and offers
+ * runs of exactly 26 characters to the ULID codec. Every byte is looked at once and no regex engine or intermediate {@link String}
+ * is involved. A UUID must not be directly preceded or followed by another hex digit, and a ULID by another letter or digit, which
+ * stops longer runs from producing partial matches. A hyphen is a boundary, so UUIDs inside slugs such as {@code order-<uuid>-v2} are
+ * found.
+ */
+public final class TimeIdScanner {
+
+    private TimeIdScanner(){}
+
+    /**
+     * Callback which receives each identifier found by the scanner
+     */
+    @FunctionalInterface
+    public interface MatchConsumer {
+        /**
+         * Accept a single identifier found by the scanner
+         * @param codec the format of the identifier
+         * @param msb the most significant bits of the identifier
+         * @param lsb the least significant bits of the identifier
+         * @param offset the position of the first character of the identifier in the scanned buffer
+         */
+        void accept(TimeIdCodec codec, long msb, long lsb, int offset);
+    }
+
+    /**
+     * An identifier found by the scanner along with where it was found
+     * @param codec the format of the identifier
+     * @param msb the most significant bits of the identifier
+     * @param lsb the least significant bits of the identifier
+     * @param offset the position of the first character of the identifier in the scanned buffer
+     */
+    public record Match(TimeIdCodec codec, long msb, long lsb, int offset) {
+
+        /**
+         * Build a {@link TimeId} from this match
+         * @return the matched identifier
+         */
+        public TimeId id() {
+            return new TimeId(codec, msb, lsb);
+        }
+
+        /**
+         * Getter for the position just past the last character of this match
+         * @return the exclusive end position of the identifier in the scanned buffer
+         */
+        public int endOffset() {
+            return offset + codec.textLength();
+        }
+    }
+
+    /**
+     * Find every time based identifier in {@code src}
+     * @param src the bytes to scan
+     * @return the identifiers found, in the order they appear
+     */
+    public static List<Match> scan(byte[] src) {
+        List<Match> matches = new ArrayList<>();
+        scan(src, 0, src.length, (codec, msb, lsb, offset) -> matches.add(new Match(codec, msb, lsb, offset)));
+        return matches;
+    }
+
+    /**
+     * Find every time based identifier in {@code src} between {@code from} and {@code to}
+     * @param src the bytes to scan
+     * @param from the first position to scan, inclusive
+     * @param to the last position to scan, exclusive
+     * @param consumer receives each identifier found, in the order they appear
+     */
+    public static void scan(byte[] src, int from, int to, MatchConsumer consumer) {
+        scan(ByteBuffer.wrap(src), from, to, consumer);
+    }
+
+    /**
+     * Find every time based identifier in {@code src} between {@code from} and {@code to}, reading the buffer in place so a memory
+     * mapped file doesn't have to be copied onto the heap first. Identifiers are decoded straight from the backing array of a heap
+     * buffer, and otherwise from a copy of just their characters.
+     * @param src the bytes to scan, read by absolute position
+     * @param from the first position to scan, inclusive
+     * @param to the last position to scan, exclusive
+     * @param consumer receives each identifier found, in the order they appear
+     */
+    public static void scan(ByteBuffer src, int from, int to, MatchConsumer consumer) {
+        // Where likely identifiers are decoded from, the backing array if there is one, otherwise a copy of their characters
+        byte[] text = src.hasArray() ? src.array() : new byte[V1UuidParser.UUID_TEXT_LENGTH];
+        // How many characters of the 8-4-4-4-12 layout the current run has matched
+        int position = 0;
+        // Where the current run of hex digits started, a UUID can only start there, and whether the run began before the range
+        int hexStart = from;
+        boolean hexBlocked = from > 0 && V1UuidParser.isHex(src.get(from - 1));
+        // Where the current run of letters and digits started, and whether it carries on from before the scanned range
+        int wordStart = from;
+        boolean wordBlocked = from > 0 && isWordByte(src.get(from - 1));
+        for (int i = from; i < to; i++) {
+            byte b = src.get(i);
+            boolean hex = V1UuidParser.isHex(b);
+            if (!hex) {
+                hexStart = i + 1;
+                hexBlocked = false;
+            }
+            boolean expected = (position == 8 || position == 13 || position == 18 || position == 23) ? b == '-' : hex;
+            if (!expected) {
+                //The current run of hex digits may still be the first group of a UUID, e.g. after "order-1234-"
+                int run = i + 1 - hexStart;
+                position = hex && !hexBlocked && run <= 8 ? run : 0;
+            } else if (position == 0 && (i != hexStart || hexBlocked)) {
+                //still inside a longer run of hex digits
+            } else if (++position == V1UuidParser.UUID_TEXT_LENGTH) {
+                position = 0;
+                int start = i - (V1UuidParser.UUID_TEXT_LENGTH - 1);
+                //Only report UUIDs that end on a boundary and are of a time based version
+                UuidCodec codec = UuidCodec.forVersion(src.get(start + 14));
+                if ((i + 1 == to || !V1UuidParser.isHex(src.get(i + 1))) && codec != null) {
+                    int at = textOffset(src, start, V1UuidParser.UUID_TEXT_LENGTH, text);
+                    if (codec.matches(text, at)) {
+                        consumer.accept(codec, codec.msb(text, at), codec.lsb(text, at), start);
+                    }
+                }
+            }
+            if (!isWordByte(b)) {
+                offerUlid(src, wordStart, i, wordBlocked, text, consumer);
+                wordStart = i + 1;
+                wordBlocked = false;
+            }
+        }
+        //A ULID may end the range, unless its run of letters and digits carries on past it
+        if (to == src.limit() || !isWordByte(src.get(to))) {
+            offerUlid(src, wordStart, to, wordBlocked, text, consumer);
+        }
+    }
+
+    /**
+     * Report a run of letters and digits if it is exactly a ULID
+     */
+    private static void offerUlid(ByteBuffer src, int start, int end, boolean blocked, byte[] text, MatchConsumer consumer) {
+        if (!blocked && end - start == UlidCodec.ULID_TEXT_LENGTH) {
+            int at = textOffset(src, start, UlidCodec.ULID_TEXT_LENGTH, text);
+            if (UlidCodec.ULID.matches(text, at)) {
+                consumer.accept(UlidCodec.ULID, UlidCodec.ULID.msb(text, at), UlidCodec.ULID.lsb(text, at), start);
+            }
+        }
+    }
+
+    /**
+     * Getter for where the characters of a likely identifier start in {@code text}, copying them there first unless {@code text} is
+     * the buffer's backing array
+     */
+    private static int textOffset(ByteBuffer src, int start, int length, byte[] text) {
+        if (src.hasArray()) {
+            return src.arrayOffset() + start;
+        }
+        src.get(start, text, 0, length);
+        return 0;
+    }
+
+    /**
+     * Check if a byte is an ASCII letter or digit, which can't directly surround a ULID
+     */
+    private static boolean isWordByte(byte b) {
+        int lower = b | 0x20;
+        return (b >= '0' && b <= '9') || (lower >= 'a' && lower <= 'z');
+    }
+}
@@ -0,0 +1,169 @@
+package main.java.com.staticflow;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compressed set of 60 bit timestamps, laid out like a roaring bitmap.<br>
+ * Timestamps are grouped by their upper bits into chunks of 65536 values. A sparse chunk stores its lower 16 bits in a sorted
+ * {@code char[]}, and once it holds more than {@link #ARRAY_LIMIT} values it switches to a fixed 8KB bitmap. Candidate sweeps step by
+ * thousands of ticks, so most chunks stay sparse and cost a few bytes per tested timestamp.
+ */
+public class TimestampBitmap {
+
+    // The most values held by a sparse chunk before it becomes a bitmap
+    private static final int ARRAY_LIMIT = 4096;
+    // Size of a bitmap chunk in bytes
+    private static final int BITMAP_BYTES = 8192;
+
+    // Chunks keyed by the upper bits of the timestamps they hold
+    private final Map<Long, Chunk> chunks = new HashMap<>();
+    // The number of timestamps held
+    private long cardinality;
+
+    /**
+     * The values of a single chunk, either a sorted array or a bitmap
+     */
+    private static final class Chunk {
+        char[] values = new char[4];
+        int size;
+        long[] bits;
+
+        boolean contains(char value) {
+            if (bits != null) {
+                return (bits[value >>> 6] & (1L << value)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        boolean add(char value) {
+            if (bits != null) {
+                long before = bits[value >>> 6];
+                bits[value >>> 6] = before | (1L << value);
+                return bits[value >>> 6] != before;
+            }
+            int position = Arrays.binarySearch(values, 0, size, value);
+            if (position >= 0) {
+                return false;
+            }
+            if (size == ARRAY_LIMIT) {
+                //Too dense for an array, switch to a bitmap
+                bits = new long[BITMAP_BYTES / 8];
+                for (int i = 0; i < size; i++) {
+                    bits[values[i] >>> 6] |= 1L << values[i];
+                }
+                values = null;
+                bits[value >>> 6] |= 1L << value;
+                return true;
+            }
+            position = -position - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, position, values, position + 1, size - position);
+            values[position] = value;
+            size++;
+            return true;
+        }
+
+        boolean remove(char value) {
+            if (bits != null) {
+                long before = bits[value >>> 6];
+                bits[value >>> 6] = before & ~(1L << value);
+                return bits[value >>> 6] != before;
+            }
+            int position = Arrays.binarySearch(values, 0, size, value);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        long sizeInBytes() {
+            return bits != null ? BITMAP_BYTES : values.length * 2L;
+        }
+    }
+
+    /**
+     * Check if a timestamp is in the set
+     * @param timestamp the timestamp to look for
+     * @return true if the timestamp was added and not removed since
+     */
+    public synchronized boolean contains(long timestamp) {
+        Chunk chunk = chunks.get(timestamp >>> 16);
+        return chunk != null && chunk.contains((char) timestamp);
+    }
+
+    /**
+     * Add a timestamp to the set
+     * @param timestamp the timestamp to add
+     * @return true if the timestamp wasn't already in the set
+     */
+    public synchronized boolean add(long timestamp) {
+        boolean added = chunks.computeIfAbsent(timestamp >>> 16, key -> new Chunk()).add((char) timestamp);
+        if (added) {
+            cardinality++;
+        }
+        return added;
+    }
+
+    /**
+     * Remove a timestamp from the set
+     * @param timestamp the timestamp to remove
+     */
+    public synchronized void remove(long timestamp) {
+        Chunk chunk = chunks.get(timestamp >>> 16);
+        if (chunk != null && chunk.remove((char) timestamp)) {
+            cardinality--;
+        }
+    }
+
+    /**
+     * Getter for the number of timestamps in the set
+     * @return the number of timestamps held
+     */
+    public synchronized long cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Copy every timestamp in the set
+     * @return the timestamps held, in ascending order
+     */
+    public synchronized long[] toArray() {
+        long[] timestamps = new long[(int) cardinality];
+        int count = 0;
+        for (long key : chunks.keySet().stream().mapToLong(Long::longValue).sorted().toArray()) {
+            Chunk chunk = chunks.get(key);
+            if (chunk.bits != null) {
+                for (int word = 0; word < chunk.bits.length; word++) {
+                    long bits = chunk.bits[word];
+                    while (bits != 0) {
+                        timestamps[count++] = key << 16 | (long) word << 6 | Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                    }
+                }
+            } else {
+                for (int i = 0; i < chunk.size; i++) {
+                    timestamps[count++] = key << 16 | chunk.values[i];
+                }
+            }
+        }
+        return timestamps;
+    }
+
+    /**
+     * Estimate the memory used by the set, ignoring fixed object overheads
+     * @return the approximate number of bytes held by the set's chunks
+     */
+    public synchronized long sizeInBytes() {
+        long bytes = 0;
+        for (Chunk chunk : chunks.values()) {
+            bytes += chunk.sizeInBytes() + 48;
+        }
+        return bytes;
+    }
+}
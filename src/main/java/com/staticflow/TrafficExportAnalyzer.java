@@ -0,0 +1,807 @@
+package main.java.com.staticflow;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Standalone entry point which finds time based identifiers in exported traffic without replaying it through Burp Suite.<br>
+ * The export, either a Burp Suite XML export of items or a HAR file, is memory mapped and split into chunks of roughly {@code --chunk-mb}
+ * that start on a record boundary. A Burp Suite item starts at an {@code <item>} tag that directly follows the {@code <items>} tag or the
+ * previous {@code </item>}, so RSS items inside a response don't count. A HAR entry is an object of {@code log.entries}, found by a quick
+ * pass over the file that follows the nesting of braces outside of strings, so {@code log.pages} and objects nested inside an entry don't
+ * count. That pass reads the whole file on one thread before scanning starts, as whether a position is inside a string depends on
+ * everything before it. The chunks are scanned in parallel on a fork/join pool with the same single pass scanner as the passive check, and
+ * every identifier found is grouped by the host of its record and the node that issued it. Workers read their chunk straight from the
+ * mapping, so memory use depends on the number of workers rather than the size of the export.
+ * <pre>
+ * java -cp UUIDHunter.jar main.java.com.staticflow.TrafficExportAnalyzer --input export.xml [--out report.jsonl] [--chunk-mb 8]
+ *      [--threads 8]
+ * </pre>
+ * The report holds one JSON object per host and issuer, busiest first, with how often its identifiers appeared, how many distinct
+ * timestamps they held, the first and last of them and the median gap between consecutive timestamps.
+ */
+public class TrafficExportAnalyzer {
+
+    // The default size of the chunks the export is split into
+    static final int DEFAULT_CHUNK_BYTES = 8 << 20;
+    // How much of the export is mapped at once while looking for the next record boundary
+    private static final int PROBE_BYTES = 1 << 20;
+    // How far back from an <item> tag the tag before it is looked for
+    private static final int LOOKBEHIND_BYTES = 4096;
+    // How much of a HAR file is mapped at once while following its structure
+    private static final int WALK_BYTES = 64 << 20;
+    // The most bytes a single chunk can hold, a record larger than this can't be scanned
+    private static final int MAX_CHUNK_BYTES = Integer.MAX_VALUE - 8;
+    // The node reported for formats whose least significant bits are random
+    private static final long NO_NODE = -1;
+    // The host reported for identifiers outside of any record, such as in the header of a HAR file
+    private static final String UNKNOWN_HOST = "";
+
+    private static final byte[] ITEM = "<item>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ITEM_END = "</item>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ITEMS = "<items".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] REQUEST_KEY = "request".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] URL_KEY = "url".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The supported export formats
+     */
+    public enum Format {
+        BURP_XML,
+        HAR
+    }
+
+    /**
+     * The issuer of a group of identifiers
+     * @param host the host of the records the identifiers were found in
+     * @param codec the format of the identifiers
+     * @param node the 48 bit node of V1 and V6 UUIDs, or -1 for formats without one
+     */
+    public record Issuer(String host, TimeIdCodec codec, long node) {
+    }
+
+    /**
+     * Every timestamp seen from a single issuer
+     */
+    public static final class IssuerTimeline {
+        private final TimestampBitmap timestamps = new TimestampBitmap();
+        private long occurrences;
+
+        private synchronized void add(long timestamp) {
+            timestamps.add(timestamp);
+            occurrences++;
+        }
+
+        private synchronized IssuerTimeline merge(IssuerTimeline other) {
+            for (long timestamp : other.timestamps.toArray()) {
+                timestamps.add(timestamp);
+            }
+            occurrences += other.occurrences;
+            return this;
+        }
+
+        /**
+         * Getter for how many times identifiers of this issuer appeared, counting repeats
+         * @return the number of appearances
+         */
+        public synchronized long occurrences() {
+            return occurrences;
+        }
+
+        /**
+         * Copy the distinct timestamps of this issuer's identifiers
+         * @return the timestamps, in ascending order
+         */
+        public long[] timestamps() {
+            return timestamps.toArray();
+        }
+    }
+
+    /**
+     * The result of analysing an export
+     * @param format the format of the export
+     * @param bytes the size of the export
+     * @param records the number of records scanned
+     * @param identifiers the number of identifiers found, counting repeats
+     * @param issuers the timeline of every issuer found
+     */
+    public record Report(Format format, long bytes, long records, long identifiers, Map<Issuer, IssuerTimeline> issuers) {
+
+        /**
+         * Write the report as one JSON object per issuer, by host and then busiest first
+         * @param out where the report is written
+         * @throws IOException if the report can't be written
+         */
+        public void write(Writer out) throws IOException {
+            List<Map.Entry<Issuer, IssuerTimeline>> entries = new ArrayList<>(issuers.entrySet());
+            entries.sort(Comparator.<Map.Entry<Issuer, IssuerTimeline>, String>comparing(entry -> entry.getKey().host())
+                    .thenComparing(entry -> -entry.getValue().occurrences()));
+            for (Map.Entry<Issuer, IssuerTimeline> entry : entries) {
+                Issuer issuer = entry.getKey();
+                long[] timestamps = entry.getValue().timestamps();
+                out.write(String.format(Locale.ROOT, "{\"host\":\"%s\",\"format\":\"%s\",\"node\":%s,\"occurrences\":%d,\"distinct\":%d,"
+                                + "\"first\":\"%s\",\"last\":\"%s\",\"median_gap_us\":%.1f}%n",
+                        escape(issuer.host()), issuer.codec().displayName(),
+                        issuer.node() == NO_NODE ? "null" : "\"" + Utils.getUuidMac(issuer.node()) + "\"",
+                        entry.getValue().occurrences(), timestamps.length,
+                        Utils.getUuidTime(timestamps[0]), Utils.getUuidTime(timestamps[timestamps.length - 1]),
+                        medianGap(timestamps) / 10.0));
+            }
+            out.flush();
+        }
+    }
+
+    private final Path input;
+    private final int chunkBytes;
+    private final int parallelism;
+
+    /**
+     * Constructor for an analysis of a single export
+     * @param input the export to analyse
+     * @param chunkBytes the rough size of the chunks the export is split into
+     * @param parallelism the number of chunks scanned at once
+     */
+    public TrafficExportAnalyzer(Path input, int chunkBytes, int parallelism) {
+        this.input = input;
+        this.chunkBytes = Math.max(1, chunkBytes);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String input = argValue(args, "--input", null);
+        if (input == null) {
+            throw new IllegalArgumentException("--input is required");
+        }
+        TrafficExportAnalyzer analyzer = new TrafficExportAnalyzer(Path.of(input),
+                Integer.parseInt(argValue(args, "--chunk-mb", String.valueOf(DEFAULT_CHUNK_BYTES >> 20))) << 20,
+                Integer.parseInt(argValue(args, "--threads", String.valueOf(Runtime.getRuntime().availableProcessors()))));
+        long start = System.nanoTime();
+        Report report = analyzer.analyze();
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        String out = argValue(args, "--out", null);
+        try (Writer writer = out == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(Path.of(out), StandardCharsets.UTF_8)) {
+            report.write(writer);
+        }
+        System.err.printf(Locale.ROOT, "%d records, %d identifiers from %d issuers in %dms (%.1f MB/s)%n", report.records(), report.identifiers(),
+                report.issuers().size(), millis, report.bytes() / 1048.576 / millis);
+    }
+
+    private static String argValue(String[] args, String name, String defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Scan the whole export
+     * @return the timeline of every issuer found
+     * @throws IOException if the export can't be read or isn't a supported format
+     */
+    public Report analyze() throws IOException {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Format format = detect(channel);
+            long[] boundaries = chunkBoundaries(channel, size, format, chunkBytes);
+            Map<Issuer, IssuerTimeline> issuers = new ConcurrentHashMap<>();
+            AtomicLong records = new AtomicLong();
+            AtomicLong identifiers = new AtomicLong();
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new ChunkScan(channel, format, boundaries, 0, boundaries.length - 1, issuers, records, identifiers));
+            } catch (UncheckedChunkException e) {
+                throw e.getCause();
+            } finally {
+                pool.shutdown();
+            }
+            return new Report(format, size, records.get(), identifiers.get(), issuers);
+        }
+    }
+
+    /**
+     * Work out the format of an export from its first character
+     */
+    private static Format detect(FileChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(4096);
+        channel.read(head, 0);
+        for (int i = 0; i < head.position(); i++) {
+            byte b = head.get(i);
+            if (b == '<') {
+                return Format.BURP_XML;
+            } else if (b == '{') {
+                return Format.HAR;
+            } else if (!Character.isWhitespace(b) && (b & 0xFF) < 0x80) {
+                break;
+            }
+            //whitespace and a byte order mark are skipped
+        }
+        throw new IOException("Not a Burp Suite XML export or HAR file");
+    }
+
+    /**
+     * Split an export into chunks of roughly {@code chunkBytes}, each starting at a record
+     * @return the start of each chunk followed by the size of the export
+     */
+    static long[] chunkBoundaries(FileChannel channel, long size, Format format, int chunkBytes) throws IOException {
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        if (format == Format.HAR) {
+            harBoundaries(channel, size, chunkBytes, boundaries);
+        } else {
+            long next = chunkBytes;
+            while (next < size) {
+                long boundary = nextItem(channel, next, size);
+                if (boundary >= size) {
+                    break;
+                }
+                if (boundary > boundaries.get(boundaries.size() - 1)) {
+                    boundaries.add(boundary);
+                }
+                next = boundary + chunkBytes;
+            }
+        }
+        boundaries.add(size);
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Follow the structure of a whole HAR file, adding the start of the first entry at least {@code chunkBytes} past the previous
+     * boundary as the next boundary. This runs on the calling thread, as the string and nesting state at any position depends on every
+     * byte before it
+     */
+    private static void harBoundaries(FileChannel channel, long size, int chunkBytes, List<Long> boundaries) throws IOException {
+        HarWalker walker = new HarWalker(false);
+        long last = 0;
+        for (long position = 0; position < size; position += WALK_BYTES) {
+            int length = (int) Math.min(WALK_BYTES, size - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = 0; i < length; i++) {
+                if (walker.next(window.get(i)) == HarWalker.ENTRY_START && position + i >= last + chunkBytes) {
+                    last = position + i;
+                    boundaries.add(last);
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the first Burp Suite item that starts at or after {@code from}, mapping a window of the export at a time
+     * @return the position of the item, or {@code size} if there are no more items
+     */
+    private static long nextItem(FileChannel channel, long from, long size) throws IOException {
+        for (long position = from; position < size; position += PROBE_BYTES) {
+            //The window reaches back far enough to see the tag before an item
+            long mapStart = Math.max(0, position - LOOKBEHIND_BYTES);
+            int length = (int) Math.min(position - mapStart + PROBE_BYTES + ITEM.length - 1, size - mapStart);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, length);
+            int found = nextItem(window, (int) (position - mapStart), length);
+            if (found >= 0) {
+                return mapStart + found;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Find the first Burp Suite item that starts between {@code from} and {@code to}
+     * @return the position of the item's {@code <item>} tag, or -1 if there is none
+     */
+    private static int nextItem(ByteBuffer src, int from, int to) {
+        int found = indexOf(src, from, to, ITEM);
+        while (found >= 0 && !isItemStart(src, found)) {
+            found = indexOf(src, found + 1, to, ITEM);
+        }
+        return found;
+    }
+
+    /**
+     * Check if an {@code <item>} tag starts a Burp Suite item, rather than being part of a response such as an RSS feed. Items follow
+     * the {@code <items>} tag or the previous {@code </item>}, with nothing but whitespace in between.
+     */
+    private static boolean isItemStart(ByteBuffer src, int item) {
+        int i = item - 1;
+        while (i >= 0 && isXmlSpace(src.get(i))) {
+            i--;
+        }
+        if (i < 0 || src.get(i) != '>') {
+            return false;
+        }
+        int tagEnd = i + 1;
+        if (tagEnd >= ITEM_END.length && indexOf(src, tagEnd - ITEM_END.length, tagEnd, ITEM_END) >= 0) {
+            return true;
+        }
+        int floor = Math.max(0, i - LOOKBEHIND_BYTES);
+        while (i >= floor && src.get(i) != '<') {
+            i--;
+        }
+        if (i < floor || i + ITEMS.length >= tagEnd || indexOf(src, i, i + ITEMS.length, ITEMS) != i) {
+            return false;
+        }
+        byte after = src.get(i + ITEMS.length);
+        return after == '>' || isXmlSpace(after);
+    }
+
+    private static boolean isXmlSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    /**
+     * Follows the structure of a HAR file a byte at a time to find where each object of {@code log.entries} starts and ends.<br>
+     * Braces and brackets inside strings are skipped, so URLs and bodies can't change the nesting, and objects anywhere else, such as
+     * {@code log.pages} or the call frames of an entry's initiator, are never taken for entries.
+     */
+    static final class HarWalker {
+        static final int NONE = 0;
+        static final int ENTRY_START = 1;
+        static final int ENTRY_END = 2;
+
+        // Nesting of the log object, whose entries member holds the entries
+        private static final int LOG_DEPTH = 2;
+        private static final byte[] ENTRIES = "entries".getBytes(StandardCharsets.US_ASCII);
+
+        // Number of objects and arrays currently open
+        private int depth;
+        // Nesting inside the entries array, or -1 outside of it
+        private int entriesDepth;
+        private boolean inString;
+        private boolean escaped;
+        // Characters of "entries" matched by the current string, or -1 once it can't be that key
+        private int keyMatched = -1;
+        // 1 just after the "entries" key, 2 just after its colon
+        private int entriesKey;
+
+        /**
+         * Constructor for a walk from the start of a file, or from the start of an entry
+         * @param atEntry true if the walk starts at an entry, inside the entries array
+         */
+        HarWalker(boolean atEntry) {
+            entriesDepth = atEntry ? 0 : -1;
+        }
+
+        /**
+         * Follow the next byte of the file
+         * @param b the byte
+         * @return {@link #ENTRY_START} if it opens an entry, {@link #ENTRY_END} if it closes one, otherwise {@link #NONE}
+         */
+        int next(byte b) {
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                    keyMatched = -1;
+                } else if (b == '"') {
+                    inString = false;
+                    entriesKey = keyMatched == ENTRIES.length ? 1 : 0;
+                } else if (keyMatched >= 0) {
+                    keyMatched = keyMatched < ENTRIES.length && ENTRIES[keyMatched] == b ? keyMatched + 1 : -1;
+                }
+                return NONE;
+            }
+            switch (b) {
+                case '"' -> {
+                    inString = true;
+                    keyMatched = depth == LOG_DEPTH && entriesDepth < 0 ? 0 : -1;
+                }
+                case ':' -> entriesKey = entriesKey == 1 ? 2 : 0;
+                case '{', '[' -> {
+                    boolean entry = b == '{' && entriesDepth >= 0 && depth == entriesDepth;
+                    depth++;
+                    if (b == '[' && entriesKey == 2) {
+                        entriesDepth = depth;
+                    }
+                    entriesKey = 0;
+                    if (entry) {
+                        return ENTRY_START;
+                    }
+                }
+                case '}', ']' -> {
+                    entriesKey = 0;
+                    depth--;
+                    if (entriesDepth >= 0 && b == '}' && depth == entriesDepth) {
+                        return ENTRY_END;
+                    } else if (depth < entriesDepth) {
+                        entriesDepth = -1;
+                    }
+                }
+                case ' ', '\t', '\r', '\n' -> {
+                    //whitespace doesn't separate a key from its colon
+                }
+                default -> entriesKey = 0;
+            }
+            return NONE;
+        }
+    }
+
+    /**
+     * Scans a range of chunks, splitting it in half until a single chunk is left
+     */
+    private static final class ChunkScan extends RecursiveAction {
+        private final FileChannel channel;
+        private final Format format;
+        private final long[] boundaries;
+        private final int from;
+        private final int to;
+        private final Map<Issuer, IssuerTimeline> issuers;
+        private final AtomicLong records;
+        private final AtomicLong identifiers;
+
+        ChunkScan(FileChannel channel, Format format, long[] boundaries, int from, int to, Map<Issuer, IssuerTimeline> issuers,
+                  AtomicLong records, AtomicLong identifiers) {
+            this.channel = channel;
+            this.format = format;
+            this.boundaries = boundaries;
+            this.from = from;
+            this.to = to;
+            this.issuers = issuers;
+            this.records = records;
+            this.identifiers = identifiers;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkScan(channel, format, boundaries, from, middle, issuers, records, identifiers),
+                        new ChunkScan(channel, format, boundaries, middle, to, issuers, records, identifiers));
+                return;
+            }
+            try {
+                scanChunk(boundaries[from], boundaries[to]);
+            } catch (IOException e) {
+                throw new UncheckedChunkException(e);
+            }
+        }
+
+        /**
+         * Map a single chunk and scan every record in it
+         */
+        private void scanChunk(long start, long end) throws IOException {
+            if (end - start > MAX_CHUNK_BYTES) {
+                throw new IOException("Record at " + start + " is larger than 2GB");
+            }
+            int length = (int) (end - start);
+            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            //Identifiers are grouped locally first so the shared map is only touched once per issuer per chunk
+            Map<Issuer, IssuerTimeline> local = new HashMap<>();
+            long[] counts = format == Format.BURP_XML
+                    ? scanBurpChunk(chunk, length, start > 0, local)
+                    : scanHarChunk(chunk, length, start > 0, local);
+            records.addAndGet(counts[0]);
+            identifiers.addAndGet(counts[1]);
+            local.forEach((issuer, timeline) -> issuers.merge(issuer, timeline, IssuerTimeline::merge));
+        }
+    }
+
+    /**
+     * Scan every item of a chunk of a Burp Suite XML export
+     * @param atItem true if the chunk starts at an item rather than at the start of the file
+     * @return the number of records scanned followed by the number of identifiers found
+     */
+    private static long[] scanBurpChunk(ByteBuffer chunk, int length, boolean atItem, Map<Issuer, IssuerTimeline> local) {
+        long found = 0;
+        long recordCount = 0;
+        int recordStart = atItem ? 0 : nextItem(chunk, 0, length);
+        if (recordStart != 0) {
+            //Anything before the first item, such as the XML declaration
+            found += scan(chunk, 0, recordStart < 0 ? length : recordStart, UNKNOWN_HOST, local);
+        }
+        while (recordStart >= 0) {
+            int next = nextItem(chunk, recordStart + ITEM.length, length);
+            found += scanBurpItem(chunk, recordStart, next < 0 ? length : next, local);
+            recordCount++;
+            recordStart = next;
+        }
+        return new long[]{recordCount, found};
+    }
+
+    /**
+     * Scan every entry of a chunk of a HAR file, and anything between them under no host
+     * @param atEntry true if the chunk starts at an entry rather than at the start of the file
+     * @return the number of records scanned followed by the number of identifiers found
+     */
+    private static long[] scanHarChunk(ByteBuffer chunk, int length, boolean atEntry, Map<Issuer, IssuerTimeline> local) {
+        HarWalker walker = new HarWalker(atEntry);
+        long found = 0;
+        long recordCount = 0;
+        int segmentStart = 0;
+        int recordStart = -1;
+        for (int i = 0; i < length; i++) {
+            int event = walker.next(chunk.get(i));
+            if (event == HarWalker.ENTRY_START) {
+                found += scan(chunk, segmentStart, i, UNKNOWN_HOST, local);
+                recordStart = i;
+            } else if (event == HarWalker.ENTRY_END && recordStart >= 0) {
+                found += scan(chunk, recordStart, i + 1, harHost(chunk, recordStart, i + 1), local);
+                recordCount++;
+                recordStart = -1;
+                segmentStart = i + 1;
+            }
+        }
+        if (recordStart >= 0) {
+            //An entry cut short by the end of the file
+            found += scan(chunk, recordStart, length, harHost(chunk, recordStart, length), local);
+            recordCount++;
+        } else {
+            found += scan(chunk, segmentStart, length, UNKNOWN_HOST, local);
+        }
+        return new long[]{recordCount, found};
+    }
+
+    /**
+     * Carries an {@link IOException} out of a fork/join task
+     */
+    private static final class UncheckedChunkException extends RuntimeException {
+        UncheckedChunkException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+
+    /**
+     * Scan the request and response of a Burp Suite XML item, decoding them if they are base64 encoded
+     * @return the number of identifiers found
+     */
+    private static long scanBurpItem(ByteBuffer src, int from, int to, Map<Issuer, IssuerTimeline> local) {
+        String host = UNKNOWN_HOST;
+        int hostTag = findTag(src, from, to, "host");
+        if (hostTag >= 0) {
+            int hostStart = indexOf(src, hostTag, to, ">".getBytes(StandardCharsets.US_ASCII)) + 1;
+            int hostEnd = indexOf(src, hostStart, to, "<".getBytes(StandardCharsets.US_ASCII));
+            if (hostStart > 0 && hostEnd > hostStart) {
+                host = text(src, hostStart, hostEnd).trim();
+            }
+        }
+        return scanBurpMessage(src, from, to, "request", host, local) + scanBurpMessage(src, from, to, "response", host, local);
+    }
+
+    /**
+     * Scan a single request or response element of a Burp Suite XML item
+     * @return the number of identifiers found
+     */
+    private static long scanBurpMessage(ByteBuffer src, int from, int to, String tag, String host, Map<Issuer, IssuerTimeline> local) {
+        int tagStart = findTag(src, from, to, tag);
+        if (tagStart < 0) {
+            return 0;
+        }
+        int contentStart = indexOf(src, tagStart, to, ">".getBytes(StandardCharsets.US_ASCII)) + 1;
+        if (contentStart <= 0) {
+            return 0;
+        }
+        boolean base64 = indexOf(src, tagStart, contentStart, "base64=\"true\"".getBytes(StandardCharsets.US_ASCII)) >= 0;
+        byte[] cdata = "<![CDATA[".getBytes(StandardCharsets.US_ASCII);
+        int contentEnd;
+        if (indexOf(src, contentStart, Math.min(to, contentStart + cdata.length), cdata) == contentStart) {
+            contentStart += cdata.length;
+            contentEnd = indexOf(src, contentStart, to, "]]>".getBytes(StandardCharsets.US_ASCII));
+        } else {
+            contentEnd = indexOf(src, contentStart, to, ("</" + tag + ">").getBytes(StandardCharsets.US_ASCII));
+        }
+        if (contentEnd < 0) {
+            contentEnd = to;
+        }
+        if (!base64) {
+            return scan(src, contentStart, contentEnd, host, local);
+        }
+        //The MIME decoder skips the line breaks some exporters wrap base64 with
+        ByteBuffer decoded;
+        try {
+            decoded = Base64.getMimeDecoder().decode(src.slice(contentStart, contentEnd - contentStart));
+        } catch (IllegalArgumentException e) {
+            return scan(src, contentStart, contentEnd, host, local);
+        }
+        return scan(decoded.array(), decoded.arrayOffset(), decoded.arrayOffset() + decoded.limit(), host, local);
+    }
+
+    /**
+     * Find the host of a HAR entry's request URL, ignoring any other URL in the entry such as those of its initiator's call frames
+     * @param from the position of the entry's opening brace
+     */
+    private static String harHost(ByteBuffer src, int from, int to) {
+        int request = memberValue(src, from, to, REQUEST_KEY);
+        if (request < 0 || src.get(request) != '{') {
+            return UNKNOWN_HOST;
+        }
+        int url = memberValue(src, request, to, URL_KEY);
+        if (url < 0 || src.get(url) != '"') {
+            return UNKNOWN_HOST;
+        }
+        int urlEnd = stringEnd(src, url, to);
+        int scheme = indexOf(src, url, urlEnd < 0 ? to : urlEnd, "://".getBytes(StandardCharsets.US_ASCII));
+        if (scheme < 0) {
+            return UNKNOWN_HOST;
+        }
+        int start = scheme + 3;
+        int end = start;
+        while (end < to && "/:\"?#".indexOf(src.get(end)) < 0) {
+            end++;
+        }
+        return text(src, start, end);
+    }
+
+    /**
+     * Find the value of a member of a JSON object, skipping the members of objects nested inside it
+     * @param object the position of the object's opening brace
+     * @param key the name of the member
+     * @return the position of the first character of the member's value, or -1 if the object has no such member
+     */
+    private static int memberValue(ByteBuffer src, int object, int to, byte[] key) {
+        int depth = 0;
+        for (int i = object; i < to; i++) {
+            byte b = src.get(i);
+            if (b == '"') {
+                int end = stringEnd(src, i, to);
+                if (end < 0) {
+                    return -1;
+                }
+                if (depth == 1 && end - i - 1 == key.length && indexOf(src, i + 1, end, key) == i + 1) {
+                    int colon = skipJsonSpace(src, end + 1, to);
+                    if (colon < to && src.get(colon) == ':') {
+                        int value = skipJsonSpace(src, colon + 1, to);
+                        return value < to ? value : -1;
+                    }
+                }
+                i = end;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if ((b == '}' || b == ']') && --depth == 0) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the closing quote of a JSON string, skipping escaped characters
+     * @param quote the position of the opening quote
+     * @return the position of the closing quote, or -1 if the string doesn't end before {@code to}
+     */
+    private static int stringEnd(ByteBuffer src, int quote, int to) {
+        for (int i = quote + 1; i < to; i++) {
+            byte b = src.get(i);
+            if (b == '\\') {
+                i++;
+            } else if (b == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipJsonSpace(ByteBuffer src, int from, int to) {
+        int i = from;
+        while (i < to && isXmlSpace(src.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Decode part of a buffer as ASCII text
+     */
+    private static String text(ByteBuffer src, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        src.get(from, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Scan part of a buffer and add every identifier found to the issuers of {@code host}
+     * @return the number of identifiers found
+     */
+    private static long scan(ByteBuffer src, int from, int to, String host, Map<Issuer, IssuerTimeline> local) {
+        long[] found = new long[1];
+        TimeIdScanner.scan(src, from, to, (codec, msb, lsb, offset) -> found[0] += record(host, codec, msb, lsb, local));
+        return found[0];
+    }
+
+    /**
+     * Scan part of a decoded message and add every identifier found to the issuers of {@code host}
+     * @return the number of identifiers found
+     */
+    private static long scan(byte[] src, int from, int to, String host, Map<Issuer, IssuerTimeline> local) {
+        long[] found = new long[1];
+        TimeIdScanner.scan(src, from, to, (codec, msb, lsb, offset) -> found[0] += record(host, codec, msb, lsb, local));
+        return found[0];
+    }
+
+    /**
+     * Add a single identifier to the issuers of {@code host}
+     * @return 1, the number of identifiers added
+     */
+    private static long record(String host, TimeIdCodec codec, long msb, long lsb, Map<Issuer, IssuerTimeline> local) {
+        Issuer issuer = new Issuer(host, codec, codec.hasNode() ? lsb & 0xFFFFFFFFFFFFL : NO_NODE);
+        local.computeIfAbsent(issuer, key -> new IssuerTimeline()).add(codec.timestamp(msb));
+        return 1;
+    }
+
+    /**
+     * Find the opening tag of an XML element, not matching longer element names that start the same way
+     * @return the position of the tag's {@code <}, or -1 if there is none
+     */
+    private static int findTag(ByteBuffer src, int from, int to, String name) {
+        byte[] open = ("<" + name).getBytes(StandardCharsets.US_ASCII);
+        int position = indexOf(src, from, to, open);
+        while (position >= 0) {
+            int after = position + open.length;
+            if (after < to && (src.get(after) == '>' || src.get(after) == ' ')) {
+                return position;
+            }
+            position = indexOf(src, after, to, open);
+        }
+        return -1;
+    }
+
+    /**
+     * Find the first occurrence of {@code needle} in {@code src} between {@code from} and {@code to}
+     * @return the position of the occurrence, or -1 if there is none
+     */
+    private static int indexOf(ByteBuffer src, int from, int to, byte[] needle) {
+        byte first = needle[0];
+        int last = to - needle.length;
+        outer:
+        for (int i = Math.max(0, from); i <= last; i++) {
+            if (src.get(i) != first) {
+                continue;
+            }
+            for (int j = 1; j < needle.length; j++) {
+                if (src.get(i + j) != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Median gap between consecutive timestamps, in 100 nanosecond ticks
+     */
+    private static long medianGap(long[] timestamps) {
+        if (timestamps.length < 2) {
+            return 0;
+        }
+        long[] gaps = new long[timestamps.length - 1];
+        for (int i = 1; i < timestamps.length; i++) {
+            gaps[i - 1] = timestamps[i] - timestamps[i - 1];
+        }
+        Arrays.sort(gaps);
+        return gaps[gaps.length / 2];
+    }
+
+    /**
+     * Escape a value for a JSON string
+     */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
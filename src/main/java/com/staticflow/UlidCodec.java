@@ -0,0 +1,157 @@
+package main.java.com.staticflow;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link TimeIdCodec} for ULIDs: 26 Crockford base32 characters holding a 48 bit Unix time in milliseconds followed by 80 random
+ * bits.<br>
+ * Letters are accepted in either case and rendered in upper case. A run of 26 base32 characters is common in other tokens, such as
+ * random session ids, so a ULID is only accepted if its time falls between {@link #MIN_PLAUSIBLE_MILLIS}, when ULIDs were specified,
+ * and {@link #MAX_FUTURE_MILLIS} past the current time. Only about 1 in 800 random tokens falls in that window.
+ */
+public final class UlidCodec implements TimeIdCodec {
+
+    public static final UlidCodec ULID = new UlidCodec();
+
+    // Length of the text form of a ULID
+    public static final int ULID_TEXT_LENGTH = 26;
+    // The earliest time accepted, 2016-01-01
+    static final long MIN_PLAUSIBLE_MILLIS = 1_451_606_400_000L;
+    // How far past the current time is accepted, to allow for clock skew between the target and this machine
+    static final long MAX_FUTURE_MILLIS = 86_400_000L;
+
+    // The Crockford base32 alphabet, which leaves out I, L, O and U
+    private static final byte[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".getBytes(StandardCharsets.US_ASCII);
+    // Lookup table from a byte to its base32 value, or -1 if the byte is not in the alphabet
+    private static final byte[] VALUES = new byte[256];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = (byte) i;
+            VALUES[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+    }
+
+    private UlidCodec(){}
+
+    /**
+     * Check if a byte is a Crockford base32 digit
+     * @param b the byte to check
+     * @return true if {@code b} is in the ULID alphabet, in either case
+     */
+    public static boolean isBase32(byte b) {
+        return VALUES[b & 0xFF] >= 0;
+    }
+
+    @Override
+    public String displayName() {
+        return "ULID";
+    }
+
+    @Override
+    public int textLength() {
+        return ULID_TEXT_LENGTH;
+    }
+
+    @Override
+    public boolean matches(byte[] src, int offset) {
+        if (offset < 0 || src.length - offset < ULID_TEXT_LENGTH || VALUES[src[offset] & 0xFF] < 0 || VALUES[src[offset] & 0xFF] > 7) {
+            return false;
+        }
+        //The first 10 characters hold the time
+        long millis = 0;
+        for (int i = 0; i < ULID_TEXT_LENGTH; i++) {
+            int value = VALUES[src[offset + i] & 0xFF];
+            if (value < 0) {
+                return false;
+            }
+            if (i < 10) {
+                millis = millis << 5 | value;
+            }
+        }
+        return millis >= MIN_PLAUSIBLE_MILLIS && millis <= System.currentTimeMillis() + MAX_FUTURE_MILLIS;
+    }
+
+    @Override
+    public long msb(byte[] src, int offset) {
+        //The first character only holds 3 bits, so the top 2 bits of the 130 decoded fall off the end
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < ULID_TEXT_LENGTH; i++) {
+            msb = msb << 5 | lsb >>> 59;
+            lsb = lsb << 5 | VALUES[src[offset + i] & 0xFF];
+        }
+        return msb;
+    }
+
+    @Override
+    public long lsb(byte[] src, int offset) {
+        long lsb = 0;
+        for (int i = 0; i < ULID_TEXT_LENGTH; i++) {
+            lsb = lsb << 5 | VALUES[src[offset + i] & 0xFF];
+        }
+        return lsb;
+    }
+
+    @Override
+    public long timestamp(long msb) {
+        return Utils.uuidTimestampOfMillis(msb >>> 16);
+    }
+
+    @Override
+    public long withTimestamp(long msb, long timestamp) {
+        return Utils.millisOfUuidTimestamp(timestamp) << 16 | (msb & 0xFFFFL);
+    }
+
+    @Override
+    public long resolution() {
+        return V1CandidateGenerator.TICKS_PER_SECOND / 1000;
+    }
+
+    @Override
+    public boolean hasNode() {
+        return false;
+    }
+
+    @Override
+    public void render(long msb, long lsb, byte[] dst, int offset) {
+        //Write 5 bits at a time from the lowest, shifting the 128 bit value right as we go
+        for (int i = ULID_TEXT_LENGTH - 1; i >= 0; i--) {
+            dst[offset + i] = ALPHABET[(int) (lsb & 0x1F)];
+            lsb = lsb >>> 5 | msb << 59;
+            msb >>>= 5;
+        }
+    }
+
+    @Override
+    public void renderRandom(byte[] dst, int offset) {
+        //A ULID issued now with random bits of our own choosing, which the target can't have issued
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        render(System.currentTimeMillis() << 16 | (random.nextLong() & 0xFFFFL), random.nextLong(), dst, offset);
+    }
+
+    @Override
+    public byte[] probe(boolean highest) {
+        byte[] text = new byte[ULID_TEXT_LENGTH];
+        render(highest ? -1L : 0L, highest ? -1L : 0L, text, 0);
+        return text;
+    }
+
+    @Override
+    public void describe(long msb, long lsb, StringBuilder sb) {
+        long timestamp = timestamp(msb);
+        sb.append("ULID Time: ").append(Utils.getUuidTime(timestamp))
+                .append("<br>")
+                .append("ULID Unix time: ").append(Utils.millisOfUuidTimestamp(timestamp))
+                .append("<br>")
+                .append("ULID random bits: ").append(Long.toHexString(msb & 0xFFFFL)).append(' ').append(Long.toHexString(lsb));
+    }
+
+    @Override
+    public String toString() {
+        return displayName();
+    }
+}
@@ -1,8 +1,7 @@
 package main.java.com.staticflow;
 
-import com.eatthepath.uuid.FastUUID;
-
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
@@ -15,24 +14,60 @@ import java.util.UUID;
  */
 public final class Utils {
 
+    // Lookup table holding the two lowercase hex characters for every byte value
+    private static final byte[] HEX_PAIRS = new byte[512];
+
+    static {
+        byte[] digits = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < 256; i++) {
+            HEX_PAIRS[i * 2] = digits[i >>> 4];
+            HEX_PAIRS[i * 2 + 1] = digits[i & 0xF];
+        }
+    }
+
+    // Number of 100 nanosecond ticks between the Gregorian epoch used by V1 UUIDs and the Unix epoch
+    private static final long GREGORIAN_OFFSET_TICKS = 0x01B21DD213814000L;
+
+    // The Gregorian epoch V1 UUID timestamps count from
+    private static final LocalDateTime GREGORIAN_EPOCH = LocalDateTime.of(1582, 10, 15, 0, 0);
+    // Formatter for UUID times, immutable and thread safe so it is shared
+    private static final DateTimeFormatter UUID_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
     private Utils(){}
 
+    /**
+     * Get the current time as a V1 UUID timestamp
+     * @return the number of 100 nanosecond ticks since the Gregorian epoch
+     */
+    public static long currentUuidTimestamp() {
+        return uuidTimestampOfMillis(System.currentTimeMillis());
+    }
+
+    /**
+     * Convert a Unix time, as used by UUIDv7 and ULID, to a V1 UUID timestamp
+     * @param millis the number of milliseconds since the Unix epoch
+     * @return the number of 100 nanosecond ticks since the Gregorian epoch
+     */
+    public static long uuidTimestampOfMillis(long millis) {
+        return millis * 10_000L + GREGORIAN_OFFSET_TICKS;
+    }
+
+    /**
+     * Convert a V1 UUID timestamp to a Unix time, rounding down to the millisecond
+     * @param timestamp the number of 100 nanosecond ticks since the Gregorian epoch
+     * @return the number of milliseconds since the Unix epoch
+     */
+    public static long millisOfUuidTimestamp(long timestamp) {
+        return Math.floorDiv(timestamp - GREGORIAN_OFFSET_TICKS, 10_000L);
+    }
+
     /**
      * Return a {@link UUID} if the supplied {@code value} is a valid V1 UUID
      * @param value A String representation of a UUID
      * @return A V1 {@link UUID} or null if {@code value} is not a V1 UUID
      */
     public static UUID parseUuidString(String value) {
-        try {
-            UUID uuid = FastUUID.parseUUID(value);
-            if( uuid.version() == 1) {
-                return uuid;
-            } else {
-                return null;
-            }
-        }catch (IllegalArgumentException ignored){
-            return null;
-        }
+        return V1UuidParser.parse(value);
     }
 
     /**
@@ -41,9 +76,16 @@ public final class Utils {
      * @return The timestamp of the UUID in yyyy-MM-dd HH:mm:ss.SSSSSS format
      */
     public static String getUuidTime(UUID uuid) {
-        LocalDateTime dtZero = LocalDateTime.of(1582, 10, 15, 0, 0);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
-        return formatter.format(dtZero.plus(uuid.timestamp()/10L, ChronoUnit.MICROS));
+        return getUuidTime(uuid.timestamp());
+    }
+
+    /**
+     * Convert a V1 UUID timestamp to yyyy-MM-dd HH:mm:ss.SSSSSS format
+     * @param timestamp the number of 100 nanosecond ticks since the Gregorian epoch
+     * @return The timestamp in yyyy-MM-dd HH:mm:ss.SSSSSS format
+     */
+    public static String getUuidTime(long timestamp) {
+        return UUID_TIME_FORMATTER.format(GREGORIAN_EPOCH.plus(timestamp / 10L, ChronoUnit.MICROS));
     }
 
     /**
@@ -52,16 +94,25 @@ public final class Utils {
      * @return the MAC address from the UUID
      */
     public static String getUuidMac(UUID uuid) {
-        StringBuilder sb = new StringBuilder();
+        return getUuidMac(uuid.node());
+    }
+
+    /**
+     * Render the 48 bit node of a V1 UUID as a colon separated MAC address
+     * @param node the node of the UUID
+     * @return the MAC address, in lowercase hex
+     */
+    public static String getUuidMac(long node) {
+        byte[] mac = new byte[17];
         for (int i = 0; i < 6; i++) {
-            int shift = (5 - i) * 8;
-            int octet = (int) ((uuid.node() >> shift) & 0xff);
-            sb.append(String.format("%02x", octet));
+            int octet = (int) ((node >>> ((5 - i) * 8)) & 0xff);
+            mac[i * 3] = HEX_PAIRS[octet * 2];
+            mac[i * 3 + 1] = HEX_PAIRS[octet * 2 + 1];
             if (i < 5) {
-                sb.append(":");
+                mac[i * 3 + 2] = ':';
             }
         }
-        return sb.toString();
+        return new String(mac, StandardCharsets.US_ASCII);
     }
 
     /**
@@ -89,7 +140,9 @@ public final class Utils {
     }
 
     /**
-     * Generates an iterable sequence of UUIDs starting from {@code seconds} before the {@code providedUuid} to {@code seconds} after.
+     * Generates an iterable sequence of UUIDs starting from {@code seconds} before the {@code providedUuid} to {@code seconds} after.<br>
+     * This is a convenience view over {@link V1CandidateGenerator}, hot paths should use the generator directly to avoid creating a
+     * {@link UUID} per candidate.
      * @param providedUuid the UUID from which to generate the sequence
      * @param precision the increment value to use when generating the sequence
      * @param seconds the number of seconds before and after the timestamp of {@code providedUuid} to start and stop the sequence
@@ -97,25 +150,13 @@ public final class Utils {
      *
      */
     public static Iterable<UUID> genUUIDs(UUID providedUuid, long precision, int seconds) {
-
-
+        V1CandidateGenerator candidates = new V1CandidateGenerator(providedUuid, precision, seconds);
         return () -> new Iterator<>() {
-            //Convert the initial UUID into a byte array
-            final byte[] pastUuidBytes = Utils.toByteArray(providedUuid);
-            //Extract the lower 32 bits of the timestamp
-            final long timestamp = (((long) pastUuidBytes[0] << 56) |
-                    ((long) (pastUuidBytes[1] & 0xFF) << 48) |
-                    ((long) (pastUuidBytes[2] & 0xFF) << 40) |
-                    ((long) (pastUuidBytes[3] & 0xFF) << 32));
-            //Shift the bits to make it easily manageable
-            final long lowerTimestamp = (timestamp >> 32) & 0xFFFFFFFFL;
-            //create the boundaries of the sequence
-            final long end =  lowerTimestamp + 10000000L*seconds;
-            long start = lowerTimestamp - 10000000L*seconds;
+            long index = 0;
 
             @Override
             public boolean hasNext() {
-                return start <= end;
+                return index < candidates.count();
             }
 
             @Override
@@ -123,16 +164,42 @@ public final class Utils {
                 if (!hasNext()) {
                     throw new NoSuchElementException();
                 }
-                //update the lower 32 bits of the timestamp with the next sequence value
-                pastUuidBytes[0] = (byte) (start >> 24);
-                pastUuidBytes[1] = (byte) (start >> 16);
-                pastUuidBytes[2] = (byte) (start >> 8);
-                pastUuidBytes[3] = (byte) (start);
-                //convert the byte array back to a UUID
-                UUID uuid = Utils.fromByteArray(pastUuidBytes);
-                start += precision;
-                return uuid;
+                return candidates.toUuid(candidates.msbAt(index++));
             }
         };
     }
+
+    /**
+     * Write the 36 character lowercase text form of a UUID into {@code dst} without creating a {@link UUID} or {@link String}
+     * @param msb the most significant bits of the UUID
+     * @param lsb the least significant bits of the UUID
+     * @param dst the buffer to write into, must have room for 36 bytes after {@code offset}
+     * @param offset the position in {@code dst} to start writing
+     */
+    public static void writeUuid(long msb, long lsb, byte[] dst, int offset) {
+        writeHex(msb >>> 32, 4, dst, offset);
+        dst[offset + 8] = '-';
+        writeHex(msb >>> 16, 2, dst, offset + 9);
+        dst[offset + 13] = '-';
+        writeHex(msb, 2, dst, offset + 14);
+        dst[offset + 18] = '-';
+        writeHex(lsb >>> 48, 2, dst, offset + 19);
+        dst[offset + 23] = '-';
+        writeHex(lsb, 6, dst, offset + 24);
+    }
+
+    /**
+     * Write the lowest {@code byteCount} bytes of {@code value} as lowercase hex into {@code dst}, two characters per byte
+     * @param value the value to render
+     * @param byteCount the number of low order bytes of {@code value} to render
+     * @param dst the buffer to write into
+     * @param offset the position in {@code dst} to start writing
+     */
+    public static void writeHex(long value, int byteCount, byte[] dst, int offset) {
+        for (int i = 0; i < byteCount; i++) {
+            int octet = (int) (value >>> ((byteCount - 1 - i) * 8)) & 0xFF;
+            dst[offset + i * 2] = HEX_PAIRS[octet * 2];
+            dst[offset + i * 2 + 1] = HEX_PAIRS[octet * 2 + 1];
+        }
+    }
 }
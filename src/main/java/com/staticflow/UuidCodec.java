@@ -0,0 +1,163 @@
+package main.java.com.staticflow;
+
+import java.util.UUID;
+
+/**
+ * {@link TimeIdCodec} for the time based UUID versions, which share the 8-4-4-4-12 hex text layout and differ in where the timestamp
+ * bits go.<br>
+ * <ul>
+ *     <li>V1 splits a 60 bit Gregorian timestamp into time_low, time_mid and time_hi, lowest bits first</li>
+ *     <li>V6 holds the same 60 bit timestamp highest bits first, so it sorts by time</li>
+ *     <li>V7 holds a 48 bit Unix time in milliseconds, followed by 12 bits which are random or a counter</li>
+ * </ul>
+ * V1 and V6 keep the issuer's clock sequence and node in their least significant bits, V7 fills them with random bits. V6 and V7
+ * must carry the RFC 9562 variant, V1 is accepted with any variant as it always has been.
+ */
+public final class UuidCodec implements TimeIdCodec {
+
+    public static final UuidCodec V1 = new UuidCodec(1);
+    public static final UuidCodec V6 = new UuidCodec(6);
+    public static final UuidCodec V7 = new UuidCodec(7);
+
+    // Position of the variant character within the text form of a UUID
+    private static final int VARIANT_INDEX = 19;
+
+    // The UUID version
+    private final int version;
+    // The version as it appears in the text form
+    private final byte versionChar;
+
+    private UuidCodec(int version) {
+        this.version = version;
+        this.versionChar = (byte) ('0' + version);
+    }
+
+    /**
+     * Look up the codec of a UUID version
+     * @param versionChar the version character of the text form of a UUID
+     * @return the codec, or null if the version isn't time based
+     */
+    public static UuidCodec forVersion(byte versionChar) {
+        return switch (versionChar) {
+            case '1' -> V1;
+            case '6' -> V6;
+            case '7' -> V7;
+            default -> null;
+        };
+    }
+
+    /**
+     * Getter for the UUID version of this codec
+     * @return 1, 6 or 7
+     */
+    public int version() {
+        return version;
+    }
+
+    @Override
+    public String displayName() {
+        return "V" + version + " UUID";
+    }
+
+    @Override
+    public int textLength() {
+        return V1UuidParser.UUID_TEXT_LENGTH;
+    }
+
+    @Override
+    public boolean matches(byte[] src, int offset) {
+        if (!V1UuidParser.matches(src, offset, versionChar)) {
+            return false;
+        }
+        if (version == 1) {
+            return true;
+        }
+        byte variant = src[offset + VARIANT_INDEX];
+        return (variant >= '8' && variant <= '9') || variant == 'a' || variant == 'b' || variant == 'A' || variant == 'B';
+    }
+
+    @Override
+    public long msb(byte[] src, int offset) {
+        return V1UuidParser.msb(src, offset);
+    }
+
+    @Override
+    public long lsb(byte[] src, int offset) {
+        return V1UuidParser.lsb(src, offset);
+    }
+
+    @Override
+    public long timestamp(long msb) {
+        return switch (version) {
+            case 1 -> (msb & 0x0FFFL) << 48 | ((msb >>> 16) & 0xFFFFL) << 32 | msb >>> 32;
+            case 6 -> (msb >>> 16) << 12 | (msb & 0x0FFFL);
+            default -> Utils.uuidTimestampOfMillis(msb >>> 16);
+        };
+    }
+
+    @Override
+    public long withTimestamp(long msb, long timestamp) {
+        return switch (version) {
+            case 1 -> V1CandidateGenerator.msbFor(timestamp);
+            case 6 -> (timestamp >>> 12) << 16 | 0x6000L | (timestamp & 0x0FFFL);
+            default -> Utils.millisOfUuidTimestamp(timestamp) << 16 | (msb & 0xFFFFL);
+        };
+    }
+
+    @Override
+    public long resolution() {
+        return version == 7 ? V1CandidateGenerator.TICKS_PER_SECOND / 1000 : 1;
+    }
+
+    @Override
+    public boolean hasNode() {
+        return version != 7;
+    }
+
+    @Override
+    public void render(long msb, long lsb, byte[] dst, int offset) {
+        Utils.writeUuid(msb, lsb, dst, offset);
+    }
+
+    @Override
+    public void renderRandom(byte[] dst, int offset) {
+        //A random v4 UUID has the same layout and can't be confused with a time based one
+        UUID random = UUID.randomUUID();
+        Utils.writeUuid(random.getMostSignificantBits(), random.getLeastSignificantBits(), dst, offset);
+    }
+
+    @Override
+    public byte[] probe(boolean highest) {
+        byte[] text = new byte[textLength()];
+        long versionBits = (long) version << 12;
+        if (highest) {
+            Utils.writeUuid(~0xF000L | versionBits, ~0x4000000000000000L, text, 0);
+        } else {
+            Utils.writeUuid(versionBits, Long.MIN_VALUE, text, 0);
+        }
+        return text;
+    }
+
+    @Override
+    public void describe(long msb, long lsb, StringBuilder sb) {
+        long timestamp = timestamp(msb);
+        sb.append("UUID Time: ").append(Utils.getUuidTime(timestamp)).append("<br>");
+        if (version == 7) {
+            sb.append("UUID Unix time: ").append(Utils.millisOfUuidTimestamp(timestamp))
+                    .append("<br>")
+                    .append("UUID random bits: ").append(Long.toHexString(msb & 0x0FFFL)).append(' ')
+                    .append(Long.toHexString(lsb & 0x3FFFFFFFFFFFFFFFL));
+        } else {
+            sb.append("UUID timestamp: ").append(timestamp)
+                    .append("<br>")
+                    .append("UUID MAC: ").append(Utils.getUuidMac(lsb & 0xFFFFFFFFFFFFL))
+                    .append("<br>")
+                    .append("UUID Clock Sequence: ").append((lsb >>> 48) & 0x3FFF);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return displayName();
+    }
+}
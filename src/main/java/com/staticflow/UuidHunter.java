@@ -7,19 +7,21 @@ import burp.api.montoya.scanner.audit.issues.AuditIssueConfidence;
 
 /**
  * This extension builds off of the great tool by intruder-io <a href="URL#https://github.com/intruder-io/guidtool ">guidtool</a> to provide a passive and
- * active scan check for V1 UUIDs which are time based. <br> The passive scanner check monitors the following points within Requests/Responses for potential
- * V1 UUIDs: <br>
+ * active scan check for time based identifiers: V1, V6 and V7 UUIDs and ULIDs. <br> The passive scanner check monitors the following points within
+ * Requests/Responses for potential time based identifiers: <br>
  * <ul>
- * <li>Request Headers</li>
- * <li>Response Headers</li>
- * <li>Request Parameters</li>
+ * <li>Request URL path and query string</li>
+ * <li>Request Headers, including Cookies</li>
+ * <li>Request Body</li>
+ * <li>Response Headers, including Set-Cookie</li>
  * <li>Response Body</li>
- * </ul><br>
+ * </ul>
+ * It can optionally scan on its own worker threads, see {@link PassiveAuditQueue}.<br>
  * The Active scanner check first performs the following actions:<br>
  * <ul>
- *     <li>determine if insertion point is a valid V1 UUID</li>
- *     <li>Build a list of similar UUIDs 1 second before and after the initial UUID in 100 nanosecond increments</li>
- *     <li>send a request for each UUID in the list</li>
+ *     <li>determine if insertion point is a time based identifier of a supported format</li>
+ *     <li>Plan a window of similar identifiers around the initial one that fits the user's request budget</li>
+ *     <li>send a request for each identifier in the window, nearest to the initial one first</li>
  *     <li>If the response code is 200-299 create a {@link AuditIssueConfidence#FIRM} AuditIssue</li>
  *     <li>If the response code is 300-399 create a {@link AuditIssueConfidence#TENTATIVE} AuditIssue</li>
  * </ul>
@@ -34,6 +36,8 @@ public class UuidHunter implements BurpExtension, ExtensionUnloadingHandler {
         montoyaApi.extension().setName(EXTENSION_NAME);
         //Save a reference to the Burp Suite supplied callbacks and helper methods to the internal singleton state object
         ExtensionState.getInstance().setCallbacks(montoyaApi);
+        //Restore the user's settings from any previous session
+        ExtensionState.getInstance().loadSettings();
         //Register this class to handle Extension unloading
         montoyaApi.extension().registerUnloadingHandler(this);
         //Register the custom Scanner Check
@@ -47,10 +51,13 @@ public class UuidHunter implements BurpExtension, ExtensionUnloadingHandler {
     }
 
     /**
-     * Remove this Extension's custom menu from the global menu window
+     * Remove this Extension's custom menu from the global menu window, stop any candidate requests still in flight and discard
+     * requests/responses still waiting for a passive scan
      */
     @Override
     public void extensionUnloaded() {
         BurpGuiControl.removeCustomSettingsTree(EXTENSION_NAME);
+        ExtensionState.getInstance().getScheduler().shutdown();
+        ExtensionState.getInstance().getPassiveQueue().shutdown();
     }
 }
@@ -6,60 +6,175 @@ import burp.api.montoya.scanner.audit.issues.AuditIssue;
 import burp.api.montoya.scanner.audit.issues.AuditIssueConfidence;
 import burp.api.montoya.scanner.audit.issues.AuditIssueDefinition;
 import burp.api.montoya.scanner.audit.issues.AuditIssueSeverity;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
 
 /**
- * Custom AuditIssue that represents when this Extension discovers a V1 UUID in use
+ * Custom AuditIssue that represents when this Extension discovers a time based identifier, such as a V1 UUID, in use.<br>
+ * The identifier is held as its codec and two longs and the detail is only rendered the first time Burp asks for it. When a target
+ * accepts many candidates, the hits beyond the first few are folded into a single issue which keeps one representative
+ * request/response, the number of other hits and the first {@link #MAX_LISTED_HITS} of them, so memory use doesn't grow with the
+ * number of hits.
  */
 public class UuidHunterAuditIssue implements AuditIssue {
-    //The Request/Response which contains a V1 UUID
-    HttpRequestResponse issueRequestResponse;
-    //The V1 UUID found in the Request/Response
-    UUID uuid;
+
+    // The most folded hits listed in the detail of an issue
+    static final int MAX_LISTED_HITS = 32;
+
+    //The Request/Response which contains a time based identifier
+    private final HttpRequestResponse issueRequestResponse;
+    //The format of the identifier
+    private final TimeIdCodec codec;
+    //The most significant bits of the identifier found in the Request/Response
+    private final long msb;
+    //The least significant bits of the identifier found in the Request/Response
+    private final long lsb;
     //Confidence of this issue
-    AuditIssueConfidence confidence;
+    private final AuditIssueConfidence confidence;
     //The Severity of this issue
-    AuditIssueSeverity severity;
+    private final AuditIssueSeverity severity;
+    //The most and least significant bits of the first few other hits folded into this issue, in pairs
+    private final long[] otherHits;
+    //The number of other hits folded into this issue, which may be more than are listed
+    private final long otherHitCount;
+    //Where in the Request/Response the identifier was found, empty when not known
+    private final Set<MessageIdExtractor.Location> locations;
+    //The detail, rendered on first use
+    private volatile String detail;
 
-    private static final String NAME = "Potential V1 UUID In Use";
-    private static final String REMEDIATION = "V1 UUID's can be guessed by attackers bruteforcing the creation time of other UUIDs." +
+    private static final String REMEDIATION = "Time based identifiers such as V1 UUID's can be guessed by attackers bruteforcing the creation time of other identifiers." +
             "<br>Modern UUID version such as v4 use a psuedo random generator should be used instead to ensure attackers cannot easily bruteforce valid UUIDs.";
     private static final String BACKGROUND = "UUID v1 is generated by using a combination the host computers MAC address and the current date and time.<br>" +
-            "With the information obtained from analyzing a known UUID, it is often possible to forge future v1 UUIDs created by the system, if you know the approximate time they were created.";
+            "With the information obtained from analyzing a known UUID, it is often possible to forge future v1 UUIDs created by the system, if you know the approximate time they were created.<br>" +
+            "UUID v6 holds the same fields in a different order. UUID v7 and ULIDs hold the creation time followed by random bits, which leaks when the identifier was created and, " +
+            "if the generator reuses or counts up its random bits, allows other identifiers to be forged the same way.";
+    private static final long[] NO_OTHER_HITS = new long[0];
 
     /**
      * Constructor for this Extension's Custom {@link AuditIssue}
-     * @param uuid The V1 UUID found within the Request/Response
-     * @param issueRequestResponse The {@link HttpRequestResponse} that contains a V1 UUID
+     * @param id The time based identifier found within the Request/Response
+     * @param issueRequestResponse The {@link HttpRequestResponse} that contains the identifier
+     * @param confidence The {@link AuditIssueConfidence Confidence} that this issue is valid
+     * @param severity The {@link AuditIssueSeverity Severity} of this issue
+     */
+    public UuidHunterAuditIssue(TimeId id, HttpRequestResponse issueRequestResponse, AuditIssueConfidence confidence, AuditIssueSeverity severity) {
+        this(id, issueRequestResponse, Collections.emptySet(), confidence, severity);
+    }
+
+    /**
+     * Constructor for an issue which also lists where in the Request/Response the identifier was found
+     * @param id The time based identifier found within the Request/Response
+     * @param issueRequestResponse The {@link HttpRequestResponse} that contains the identifier
+     * @param locations The parts of the Request/Response the identifier was found in
      * @param confidence The {@link AuditIssueConfidence Confidence} that this issue is valid
      * @param severity The {@link AuditIssueSeverity Severity} of this issue
      */
-    public UuidHunterAuditIssue(UUID uuid, HttpRequestResponse issueRequestResponse, AuditIssueConfidence confidence, AuditIssueSeverity severity) {
+    public UuidHunterAuditIssue(TimeId id, HttpRequestResponse issueRequestResponse, Set<MessageIdExtractor.Location> locations,
+                                AuditIssueConfidence confidence, AuditIssueSeverity severity) {
+        this(id.codec(), id.msb(), id.lsb(), issueRequestResponse, locations, confidence, severity, NO_OTHER_HITS, 0);
+    }
+
+    private UuidHunterAuditIssue(TimeIdCodec codec, long msb, long lsb, HttpRequestResponse issueRequestResponse, Set<MessageIdExtractor.Location> locations,
+                                 AuditIssueConfidence confidence, AuditIssueSeverity severity, long[] otherHits, long otherHitCount) {
         this.issueRequestResponse = issueRequestResponse;
-        this.uuid = uuid;
+        this.codec = codec;
+        this.msb = msb;
+        this.lsb = lsb;
         this.confidence = confidence;
         this.severity = severity;
+        this.otherHits = otherHits;
+        this.otherHitCount = otherHitCount;
+        this.locations = locations;
+    }
+
+    /**
+     * Create an issue standing for many hits of the same format
+     * @param representative the first of the hits, whose request/response is kept
+     * @param otherHits the most and least significant bits of some of the other hits in pairs, at most {@link #MAX_LISTED_HITS}
+     *                  hits are kept
+     * @param otherHitCount the number of other hits
+     * @return an issue with the representative's UUID, request/response, confidence and severity
+     */
+    static UuidHunterAuditIssue folded(UuidHunterAuditIssue representative, long[] otherHits, long otherHitCount) {
+        int length = Math.min(otherHits.length & ~1, MAX_LISTED_HITS * 2);
+        long[] listed = Arrays.copyOf(otherHits, length);
+        return new UuidHunterAuditIssue(representative.codec, representative.msb, representative.lsb, representative.issueRequestResponse,
+                representative.locations, representative.confidence, representative.severity, listed, otherHitCount);
+    }
+
+    /**
+     * Getter for the identifier this issue reports
+     * @return the identifier
+     */
+    public TimeId id() {
+        return new TimeId(codec, msb, lsb);
+    }
+
+    /**
+     * Check if this issue reports a given identifier
+     * @param other the issue to compare with
+     * @return true if both issues report the same identifier
+     */
+    boolean sameId(UuidHunterAuditIssue other) {
+        return codec == other.codec && msb == other.msb && lsb == other.lsb;
+    }
+
+    /**
+     * Getter for the number of other hits folded into this issue
+     * @return the number of other hits, 0 for an issue reporting a single UUID
+     */
+    public long otherHitCount() {
+        return otherHitCount;
     }
 
     @Override
     public String name() {
-        return NAME;
+        return "Potential " + codec.displayName() + " In Use";
     }
 
     @Override
     public String detail() {
-        return "It appears this request or response contains a V1 UUID with the following info:" +
-                "<br>" +
-                "UUID Time: " + Utils.getUuidTime(this.uuid) +
-                "<br>" +
-                "UUID timestamp: " + this.uuid.timestamp() +
-                "<br>" +
-                "UUID MAC: " + Utils.getUuidMac(this.uuid) +
-                "<br>" +
-                "UUID Clock Sequence: " + this.uuid.clockSequence();
+        String rendered = detail;
+        if (rendered == null) {
+            rendered = renderDetail();
+            detail = rendered;
+        }
+        return rendered;
+    }
 
+    /**
+     * Render the detail of this issue, including any folded hits
+     */
+    private String renderDetail() {
+        StringBuilder sb = new StringBuilder(256 + otherHits.length / 2 * 48)
+                .append("It appears this request or response contains a ").append(codec.displayName()).append(" with the following info:")
+                .append("<br>");
+        codec.describe(msb, lsb, sb);
+        if (!locations.isEmpty()) {
+            sb.append("<br>Found in: ");
+            String separator = "";
+            for (MessageIdExtractor.Location location : locations) {
+                sb.append(separator).append(location.displayName());
+                separator = ", ";
+            }
+        }
+        if (otherHitCount > 0) {
+            int listed = otherHits.length / 2;
+            sb.append("<br><br>").append(otherHitCount).append(" other candidates were also accepted");
+            if (otherHitCount > listed) {
+                sb.append(", the first ").append(listed).append(" are");
+            }
+            sb.append(":<br>");
+            byte[] text = new byte[codec.textLength()];
+            for (int i = 0; i < otherHits.length; i += 2) {
+                codec.render(otherHits[i], otherHits[i + 1], text, 0);
+                sb.append(new String(text, StandardCharsets.US_ASCII)).append("<br>");
+            }
+        }
+        return sb.toString();
     }
 
     @Override
@@ -94,7 +209,7 @@ public class UuidHunterAuditIssue implements AuditIssue {
 
     @Override
     public AuditIssueDefinition definition() {
-        return AuditIssueDefinition.auditIssueDefinition(NAME,BACKGROUND, REMEDIATION,AuditIssueSeverity.MEDIUM);
+        return AuditIssueDefinition.auditIssueDefinition(name(),BACKGROUND, REMEDIATION,AuditIssueSeverity.MEDIUM);
     }
 
 }
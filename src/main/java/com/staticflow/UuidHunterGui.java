@@ -3,68 +3,215 @@ package main.java.com.staticflow;
 import javax.swing.*;
 import javax.swing.text.NumberFormatter;
 import java.awt.*;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.NumberFormat;
 import java.text.ParseException;
 
 /**
- * Custom Settings UI for this Extension. It consists of a textfield for entering the preferred number of seconds before and after the target UUID to bruteforce
- * values for.
+ * Custom Settings UI for this Extension. It consists of textfields for entering the most seconds before and after the target UUID to
+ * bruteforce values for, the request budgets per insertion point and per host, the maximum number of candidate requests to keep in flight
+ * per host and how hits are reported and whether the passive check scans in the background, followed by a live view of each host's adaptive
+ * rate control state and of the scanner metrics, which can be exported as CSV or JSON. Saved settings persist across reloads.
  */
 public class UuidHunterGui extends JPanel {
 
+    // How often the live status section is refreshed
+    private static final int REFRESH_MILLIS = 1000;
+
+    // Refreshes the live status section while this panel is showing
+    private final Timer refreshTimer;
+
     public UuidHunterGui() {
         this.setLayout(new BorderLayout());
 
         //Textfield Setup
-        NumberFormatter formatter = new NumberFormatter(NumberFormat.getIntegerInstance()) {
-            @Override
-            public Object stringToValue(String text) throws ParseException {
-                if (text == null || text.trim().isEmpty()) { // allow empty strings
-                    return null;
-                }
-                return super.stringToValue(text);
-            }
-        };
-        formatter.setValueClass(Integer.class);
-        formatter.setAllowsInvalid(false);
-        formatter.setMinimum(0);
-        JFormattedTextField timeRangeField = new JFormattedTextField(formatter);
-        timeRangeField.setColumns(2);
-        timeRangeField.setText("1");
-        timeRangeField.setPreferredSize(new Dimension(100,20));
-        JPanel textFieldPanel = new JPanel(new FlowLayout(FlowLayout.LEFT,0,0));
-        textFieldPanel.add(timeRangeField);
+        JFormattedTextField timeRangeField = buildNumberField(ExtensionState.getInstance().getUuidScanRange());
+        JFormattedTextField insertionPointBudgetField = buildNumberField(ExtensionState.getInstance().getInsertionPointBudget());
+        JFormattedTextField hostBudgetField = buildNumberField(ExtensionState.getInstance().getHostBudget());
+        JFormattedTextField concurrencyField = buildNumberField(ExtensionState.getInstance().getRequestConcurrency());
+        JFormattedTextField maxHitsField = buildNumberField(ExtensionState.getInstance().getMaxConfirmedHits());
         //End Textfield Setup
 
-        //TextField Label Setup
-        JLabel rangeLabel = new JLabel("Range for UUID Scan: ");
-        rangeLabel.setPreferredSize(new Dimension(200,20));
-        JPanel rangeLabelPanel = new JPanel(new FlowLayout(FlowLayout.LEFT,0,0));
-        rangeLabelPanel.add(rangeLabel);
-        //End TextField Label Setup
+        //Checkbox Setup
+        JCheckBox streamIssuesBox = new JCheckBox();
+        streamIssuesBox.setSelected(ExtensionState.getInstance().isStreamIssues());
+        JCheckBox backgroundPassiveBox = new JCheckBox();
+        backgroundPassiveBox.setSelected(ExtensionState.getInstance().isBackgroundPassive());
+        //End Checkbox Setup
 
         //Save Button Setup
         JButton saveButton = new JButton("Save");
-        saveButton.addActionListener(e -> ExtensionState.getInstance().setUuidScanRange(Integer.parseInt(timeRangeField.getText())));
+        saveButton.addActionListener(e -> {
+            ExtensionState.getInstance().setUuidScanRange(Integer.parseInt(timeRangeField.getText()));
+            ExtensionState.getInstance().setRequestConcurrency(Integer.parseInt(concurrencyField.getText()));
+            ExtensionState.getInstance().setMaxConfirmedHits(Integer.parseInt(maxHitsField.getText()));
+            ExtensionState.getInstance().setStreamIssues(streamIssuesBox.isSelected());
+            ExtensionState.getInstance().setBackgroundPassive(backgroundPassiveBox.isSelected());
+            ExtensionState.getInstance().setInsertionPointBudget(Integer.parseInt(insertionPointBudgetField.getText()));
+            ExtensionState.getInstance().setHostBudget(Integer.parseInt(hostBudgetField.getText()));
+            ExtensionState.getInstance().saveSettings();
+        });
         saveButton.setPreferredSize(new Dimension(100,20));
         JPanel saveButtonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT,0,0));
+        saveButtonPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
         saveButtonPanel.add(saveButton);
         //End Save Button Setup
 
+        //Reset Host Budgets Button Setup
+        JButton resetBudgetsButton = new JButton("Reset Host Budgets");
+        resetBudgetsButton.addActionListener(e -> ExtensionState.getInstance().resetHostRequestCounts());
+        resetBudgetsButton.setPreferredSize(new Dimension(160,20));
+        saveButtonPanel.add(Box.createRigidArea(new Dimension(10, 0)));
+        saveButtonPanel.add(resetBudgetsButton);
+        //End Reset Host Budgets Button Setup
+
+        //Export Metrics Button Setup
+        JButton exportMetricsButton = new JButton("Export Metrics");
+        exportMetricsButton.addActionListener(e -> exportMetrics());
+        exportMetricsButton.setPreferredSize(new Dimension(140,20));
+        saveButtonPanel.add(Box.createRigidArea(new Dimension(10, 0)));
+        saveButtonPanel.add(exportMetricsButton);
+        //End Export Metrics Button Setup
+
+        //Adaptive Rate Control Status Setup
+        JTextArea limiterStatus = new JTextArea(4, 40);
+        limiterStatus.setEditable(false);
+        limiterStatus.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JScrollPane limiterScroll = new JScrollPane(limiterStatus);
+        limiterScroll.setBorder(BorderFactory.createTitledBorder("Adaptive Rate Control"));
+        limiterScroll.setAlignmentX(Component.LEFT_ALIGNMENT);
+        //End Adaptive Rate Control Status Setup
+
+        //Scanner Metrics Status Setup
+        JTextArea metricsStatus = new JTextArea(8, 40);
+        metricsStatus.setEditable(false);
+        metricsStatus.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JScrollPane metricsScroll = new JScrollPane(metricsStatus);
+        metricsScroll.setBorder(BorderFactory.createTitledBorder("Scanner Metrics"));
+        metricsScroll.setAlignmentX(Component.LEFT_ALIGNMENT);
+        //End Scanner Metrics Status Setup
+
+        this.refreshTimer = new Timer(REFRESH_MILLIS, e -> {
+            limiterStatus.setText(describeLimiters());
+            metricsStatus.setText(ExtensionState.getInstance().getMetrics().describe());
+        });
+
         //Main Panel Setup
         JPanel allPanel = new JPanel();
-        allPanel.setLayout(new BoxLayout(allPanel, BoxLayout.X_AXIS));
-        allPanel.add(Box.createVerticalGlue());
-        allPanel.add(rangeLabelPanel);
-        allPanel.add(Box.createRigidArea(new Dimension(1, 0))); // add some vertical spacing
-        allPanel.add(textFieldPanel);
-        allPanel.add(Box.createRigidArea(new Dimension(1, 0))); // add some vertical spacing
+        allPanel.setLayout(new BoxLayout(allPanel, BoxLayout.Y_AXIS));
+        allPanel.add(buildRow("Max Seconds Around UUID: ", timeRangeField));
+        allPanel.add(Box.createRigidArea(new Dimension(0, 5))); // add some vertical spacing
+        allPanel.add(buildRow("Requests per Insertion Point: ", insertionPointBudgetField));
+        allPanel.add(Box.createRigidArea(new Dimension(0, 5))); // add some vertical spacing
+        allPanel.add(buildRow("Requests per Host: ", hostBudgetField));
+        allPanel.add(Box.createRigidArea(new Dimension(0, 5))); // add some vertical spacing
+        allPanel.add(buildRow("Max Concurrent Requests: ", concurrencyField));
+        allPanel.add(Box.createRigidArea(new Dimension(0, 5))); // add some vertical spacing
+        allPanel.add(buildRow("Stop After FIRM Hits (0 = never): ", maxHitsField));
+        allPanel.add(Box.createRigidArea(new Dimension(0, 5))); // add some vertical spacing
+        allPanel.add(buildRow("Report Hits Immediately: ", streamIssuesBox));
+        allPanel.add(Box.createRigidArea(new Dimension(0, 5))); // add some vertical spacing
+        allPanel.add(buildRow("Passive Scan in Background: ", backgroundPassiveBox));
+        allPanel.add(Box.createRigidArea(new Dimension(0, 5))); // add some vertical spacing
         allPanel.add(saveButtonPanel);
-        allPanel.add(Box.createVerticalGlue());
+        allPanel.add(Box.createRigidArea(new Dimension(0, 5))); // add some vertical spacing
+        allPanel.add(limiterScroll);
+        allPanel.add(Box.createRigidArea(new Dimension(0, 5))); // add some vertical spacing
+        allPanel.add(metricsScroll);
 
         this.add(allPanel,BorderLayout.CENTER);
         this.setBorder(BorderFactory.createEmptyBorder(10, 50, 10, 50)); // add padding
-        this.setPreferredSize(new Dimension(500,40));
+        this.setPreferredSize(new Dimension(600,480));
         //End Main Panel Setup
     }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        refreshTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
+    }
+
+    /**
+     * Ask for a destination file and write the current scanner metrics to it, as JSON when the file name ends in .json and as CSV otherwise
+     */
+    private void exportMetrics() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new java.io.File("uuidhunter-metrics.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path destination = chooser.getSelectedFile().toPath();
+        ScanMetrics metrics = ExtensionState.getInstance().getMetrics();
+        String content = destination.getFileName().toString().toLowerCase().endsWith(".json") ? metrics.toJson() : metrics.toCsv();
+        try (Writer writer = Files.newBufferedWriter(destination, StandardCharsets.UTF_8)) {
+            writer.write(content);
+        } catch (IOException ex) {
+            ExtensionState.getInstance().getCallbacks().logging().logToError("Failed to export metrics: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Summarize the candidate scheduler, then the adaptive limiter of every host scanned so far, one host per line
+     * @return the text to show in the adaptive rate control section
+     */
+    private static String describeLimiters() {
+        StringBuilder sb = new StringBuilder(ExtensionState.getInstance().getScheduler().describe()).append('\n');
+        for (AdaptiveConcurrencyLimiter limiter : ExtensionState.getInstance().getLimiters()) {
+            sb.append(limiter.describe()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Build a textfield which only accepts non-negative integers
+     * @param initialValue the value to display in the textfield
+     * @return the configured textfield
+     */
+    private static JFormattedTextField buildNumberField(int initialValue) {
+        NumberFormat format = NumberFormat.getIntegerInstance();
+        format.setGroupingUsed(false);
+        NumberFormatter formatter = new NumberFormatter(format) {
+            @Override
+            public Object stringToValue(String text) throws ParseException {
+                if (text == null || text.trim().isEmpty()) { // allow empty strings
+                    return null;
+                }
+                return super.stringToValue(text);
+            }
+        };
+        formatter.setValueClass(Integer.class);
+        formatter.setAllowsInvalid(false);
+        formatter.setMinimum(0);
+        JFormattedTextField field = new JFormattedTextField(formatter);
+        field.setColumns(6);
+        field.setText(String.valueOf(initialValue));
+        field.setPreferredSize(new Dimension(100,20));
+        return field;
+    }
+
+    /**
+     * Build a single settings row made of a label followed by its textfield
+     * @param labelText the text of the label
+     * @param field the textfield the label describes
+     * @return a panel containing the label and textfield
+     */
+    private static JPanel buildRow(String labelText, JComponent field) {
+        JLabel label = new JLabel(labelText);
+        label.setPreferredSize(new Dimension(220,20));
+        JPanel row = new JPanel(new FlowLayout(FlowLayout.LEFT,0,0));
+        row.setAlignmentX(Component.LEFT_ALIGNMENT);
+        row.add(label);
+        row.add(field);
+        return row;
+    }
 }
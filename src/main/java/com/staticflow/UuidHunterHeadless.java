@@ -0,0 +1,292 @@
+package main.java.com.staticflow;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Standalone entry point which runs the active sweep of time based identifiers outside of Burp Suite.<br>
+ * A campaign of tens of millions of candidates is split into shards, each shard being a contiguous slice of the candidate window, so
+ * several JVMs or machines can share one timestamp range. Requests are built from a raw HTTP request template in which every
+ * {@value #PLACEHOLDER} is replaced by the candidate identifier, in the same format as the seed, sent asynchronously over HTTP/2 where the
+ * target supports it, and each hit is written as one JSON object per line.
+ * <pre>
+ * java -cp UUIDHunter.jar main.java.com.staticflow.UuidHunterHeadless --seed &lt;id&gt; --template request.txt
+ *      --target https://host:443 [--shard 0/4] [--seconds 1] [--step 10000] [--concurrency 64] [--out hits.jsonl]
+ * </pre>
+ */
+public class UuidHunterHeadless {
+
+    // The text in the request template replaced by each candidate identifier
+    public static final String PLACEHOLDER = "{{UUID}}";
+
+    // Headers the JDK HTTP client sets itself and refuses to accept from a template
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("host", "content-length", "connection", "expect", "upgrade",
+            "keep-alive", "transfer-encoding", "te", "http2-settings");
+    // How many times a throttled candidate is retried before it is given up on
+    private static final int MAX_RETRIES = 5;
+
+    /**
+     * Settings of a single headless run
+     * @param seed the time based identifier from which candidates are generated
+     * @param template the raw HTTP request, containing {@value #PLACEHOLDER} wherever the candidate goes
+     * @param target the scheme, host and port requests are sent to, e.g. {@code https://example.com:443}
+     * @param shardIndex the zero based index of the slice of the window this run covers
+     * @param shardCount the number of slices the window is split into
+     * @param seconds the number of seconds before and after the seed to cover
+     * @param step the number of 100 nanosecond ticks between candidates
+     * @param concurrency the most requests in flight at once
+     */
+    public record Options(TimeId seed, String template, URI target, int shardIndex, int shardCount, int seconds, long step,
+                          int concurrency) {
+    }
+
+    private final Options options;
+    private final HttpClient client;
+    private final RequestTemplate requestTemplate;
+
+    /**
+     * Constructor which parses the request template and creates the HTTP client
+     * @param options the settings of this run
+     */
+    public UuidHunterHeadless(Options options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(10))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        this.requestTemplate = new RequestTemplate(options.template(), options.target());
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Options options = parseArgs(args);
+        String out = argValue(args, "--out", null);
+        try (Writer writer = out == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(Path.of(out), StandardCharsets.UTF_8)) {
+            long hits = new UuidHunterHeadless(options).run(writer);
+            System.err.println(hits + " hits");
+        }
+    }
+
+    /**
+     * Build the options of a run from command line arguments
+     * @param args the command line arguments
+     * @return the parsed options
+     * @throws IOException if the template file can't be read
+     */
+    static Options parseArgs(String[] args) throws IOException {
+        String seed = argValue(args, "--seed", null);
+        String template = argValue(args, "--template", null);
+        String target = argValue(args, "--target", null);
+        if (seed == null || template == null || target == null) {
+            throw new IllegalArgumentException("--seed, --template and --target are required");
+        }
+        TimeId id = TimeId.parse(seed);
+        if (id == null) {
+            throw new IllegalArgumentException("--seed must be a time based identifier");
+        }
+        int[] shard = parseShard(argValue(args, "--shard", "0/1"));
+        return new Options(id, Files.readString(Path.of(template), StandardCharsets.ISO_8859_1), URI.create(target),
+                shard[0], shard[1],
+                Integer.parseInt(argValue(args, "--seconds", "1")),
+                Long.parseLong(argValue(args, "--step", "10000")),
+                Integer.parseInt(argValue(args, "--concurrency", "64")));
+    }
+
+    /**
+     * Parse a shard given as {@code i/n}, the index of this run's shard out of {@code n}
+     * @param value the value of --shard
+     * @return the shard index and the shard count
+     */
+    static int[] parseShard(String value) {
+        String[] parts = value.split("/", -1);
+        try {
+            if (parts.length == 2) {
+                int index = Integer.parseInt(parts[0].trim());
+                int count = Integer.parseInt(parts[1].trim());
+                if (count > 0 && index >= 0 && index < count) {
+                    return new int[]{index, count};
+                }
+            }
+        } catch (NumberFormatException e) {
+            //reported below
+        }
+        throw new IllegalArgumentException("--shard must be i/n with n > 0 and 0 <= i < n, got " + value);
+    }
+
+    private static String argValue(String[] args, String name, String defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Send every candidate of this run's shard and write each hit to {@code out} as a line of JSON
+     * @param out where hits are written, one JSON object per line
+     * @return the number of hits found
+     * @throws InterruptedException if the thread is interrupted while waiting for requests to complete
+     * @throws IOException if a hit can't be written
+     */
+    public long run(Writer out) throws InterruptedException, IOException {
+        //The generator walks Gregorian timestamps, which the seed's codec places into its own layout
+        TimeIdCodec codec = options.seed().codec();
+        long seedTimestamp = options.seed().timestamp();
+        V1CandidateGenerator candidates = new V1CandidateGenerator(
+                new UUID(V1CandidateGenerator.msbFor(seedTimestamp), options.seed().lsb()),
+                Math.max(options.step(), codec.resolution()), options.seconds());
+        long from = candidates.count() * options.shardIndex() / options.shardCount();
+        long to = candidates.count() * (options.shardIndex() + 1) / options.shardCount();
+        Semaphore inFlight = new Semaphore(options.concurrency());
+        AtomicLong hits = new AtomicLong();
+        List<IOException> writeFailures = new ArrayList<>();
+        for (long index = from; index < to; index++) {
+            long timestamp = candidates.timestampAt(index);
+            long msb = codec.withTimestamp(options.seed().msb(), timestamp);
+            if (msb == options.seed().msb()) {
+                continue;
+            }
+            byte[] payload = new byte[codec.textLength()];
+            codec.render(msb, options.seed().lsb(), payload, 0);
+            inFlight.acquire();
+            send(requestTemplate.build(new String(payload, StandardCharsets.US_ASCII)), 0).whenComplete((response, error) -> {
+                //Only release the permit once the hit is recorded, the final acquire waits on it
+                try {
+                    String confidence = response == null ? null : confidence(response.statusCode());
+                    if (confidence != null) {
+                        hits.incrementAndGet();
+                        synchronized (out) {
+                            try {
+                                out.write(String.format("{\"uuid\":\"%s\",\"format\":\"%s\",\"timestamp\":%d,\"status\":%d,\"length\":%d,\"confidence\":\"%s\"}%n",
+                                        new String(payload, StandardCharsets.US_ASCII), codec.displayName(), timestamp, response.statusCode(),
+                                        response.body().length, confidence));
+                            } catch (IOException e) {
+                                writeFailures.add(e);
+                            }
+                        }
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        //Wait for the last requests to complete
+        inFlight.acquire(options.concurrency());
+        synchronized (out) {
+            out.flush();
+            if (!writeFailures.isEmpty()) {
+                throw writeFailures.get(0);
+            }
+        }
+        return hits.get();
+    }
+
+    /**
+     * Send a candidate request, retrying with a back off while the target throttles
+     * @return a future holding the response, or null if the request failed or stayed throttled
+     */
+    private CompletableFuture<HttpResponse<byte[]>> send(HttpRequest request, int attempt) {
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> response)
+                .thenCompose(response -> {
+                    if (response != null && response.statusCode() != 429 && response.statusCode() != 503) {
+                        return CompletableFuture.completedFuture(response);
+                    }
+                    if (attempt == MAX_RETRIES) {
+                        System.err.println("Candidate dropped after " + MAX_RETRIES + " failed retries: " + request.uri());
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    long delay = Math.min(30_000, 250L << attempt);
+                    return CompletableFuture.supplyAsync(() -> null,
+                                    CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                            .thenCompose(ignored -> send(request, attempt + 1));
+                });
+    }
+
+    /**
+     * Classify a response status the same way as the Burp Suite active scan check
+     * @return FIRM for 2XX, TENTATIVE for 3XX, otherwise null
+     */
+    private static String confidence(int status) {
+        if (status > 199 && status < 300) {
+            return "FIRM";
+        } else if (status > 299 && status < 400) {
+            return "TENTATIVE";
+        }
+        return null;
+    }
+
+    /**
+     * A raw HTTP request parsed once into its method, path, headers and body, each of which may contain {@value #PLACEHOLDER}
+     */
+    static final class RequestTemplate {
+        private final URI target;
+        private final String method;
+        private final String path;
+        private final List<String[]> headers = new ArrayList<>();
+        private final String body;
+
+        RequestTemplate(String raw, URI target) {
+            this.target = target;
+            //Only the head has its line endings normalised, the body is sent byte for byte so multipart and binary bodies survive
+            int crlfEnd = raw.indexOf("\r\n\r\n");
+            int lfEnd = raw.indexOf("\n\n");
+            int headerEnd;
+            int bodyStart;
+            if (crlfEnd >= 0 && (lfEnd < 0 || crlfEnd < lfEnd)) {
+                headerEnd = crlfEnd;
+                bodyStart = crlfEnd + 4;
+            } else if (lfEnd >= 0) {
+                headerEnd = lfEnd;
+                bodyStart = lfEnd + 2;
+            } else {
+                headerEnd = raw.length();
+                bodyStart = raw.length();
+            }
+            this.body = raw.substring(bodyStart);
+            String[] lines = raw.substring(0, headerEnd).replace("\r\n", "\n").split("\n");
+            String[] requestLine = lines[0].split(" ");
+            this.method = requestLine[0];
+            this.path = requestLine[1];
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                if (colon > 0 && !RESTRICTED_HEADERS.contains(lines[i].substring(0, colon).trim().toLowerCase())) {
+                    headers.add(new String[]{lines[i].substring(0, colon).trim(), lines[i].substring(colon + 1).trim()});
+                }
+            }
+        }
+
+        HttpRequest build(String uuid) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(target.resolve(path.replace(PLACEHOLDER, uuid)))
+                    .timeout(Duration.ofSeconds(30))
+                    .method(method, body.isEmpty()
+                            ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofString(body.replace(PLACEHOLDER, uuid), StandardCharsets.ISO_8859_1));
+            for (String[] header : headers) {
+                builder.header(header[0], header[1].replace(PLACEHOLDER, uuid));
+            }
+            return builder.build();
+        }
+    }
+}
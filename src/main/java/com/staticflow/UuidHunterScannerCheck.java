@@ -1,10 +1,10 @@
 package main.java.com.staticflow;
 
-import burp.api.montoya.core.ByteArray;
+import burp.api.montoya.core.Marker;
 import burp.api.montoya.http.message.HttpHeader;
 import burp.api.montoya.http.message.HttpRequestResponse;
-import burp.api.montoya.http.message.params.ParsedHttpParameter;
 import burp.api.montoya.http.message.requests.HttpRequest;
+import burp.api.montoya.http.message.responses.HttpResponse;
 import burp.api.montoya.scanner.AuditResult;
 import burp.api.montoya.scanner.ConsolidationAction;
 import burp.api.montoya.scanner.ScanCheck;
@@ -14,111 +14,510 @@ import burp.api.montoya.scanner.audit.issues.AuditIssueConfidence;
 import burp.api.montoya.scanner.audit.issues.AuditIssueSeverity;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import static burp.api.montoya.scanner.ConsolidationAction.KEEP_BOTH;
+import static burp.api.montoya.scanner.ConsolidationAction.KEEP_EXISTING;
 import static java.util.Collections.emptyList;
-import static main.java.com.staticflow.Utils.parseUuidString;
 
 /**
  * Custom {@link ScanCheck} for this Extension.<br>
- * The passive scanner check monitors the following points within Requests/Responses for potential V1 UUIDs: <br>
+ * The passive scanner check monitors the following points within Requests/Responses for potential time based identifiers, V1, V6
+ * and V7 UUIDs and ULIDs, finding every format in the same pass: <br>
  *  * <ul>
- *  * <li>Request Headers</li>
- *  * <li>Response Headers</li>
- *  * <li>Request Parameters</li>
+ *  * <li>Request URL path and query string</li>
+ *  * <li>Request Headers, including Cookies</li>
+ *  * <li>Request Body</li>
+ *  * <li>Response Headers, including Set-Cookie</li>
  *  * <li>Response Body</li>
  *  * </ul>
+ *  * Each message is scanned once as raw bytes, and each issue lists where its identifier was found. Repeats of contents already
+ *  * scanned are skipped before they are scanned, and issues for the same UUID at the same URL are merged.<br>
  *  <br>
  *  * The Active scanner check first performs the following actions:<br>
  *  * <ul>
- *  *     <li>determine if insertion point is a valid V1 UUID</li>
- *  *     <li>Build a list of similar UUIDs 1 second before and after the initial UUID in 100 nanosecond increments</li>
- *  *     <li>send a request for each UUID in the list</li>
+ *  *     <li>determine if insertion point is a time based identifier of any supported format</li>
+ *  *     <li>Plan a window of similar identifiers around the initial one that fits the insertion point and host request budgets, for
+ *  *     the initial identifier's clock sequence and node and for others seen around the same time</li>
+ *  *     <li>send a request for each UUID in the window, starting with those near UUIDs already seen from the same node and then
+ *  *     spiralling outward from the initial UUID, adapting the number of requests in flight to each host's latency and throttling</li>
+ *  *     <li>Send a few control UUIDs which can't be valid and fingerprint their responses, candidate responses matching them are not hits</li>
  *  *     <li>If the response code is 200-299 create a {@link AuditIssueConfidence#FIRM} AuditIssue</li>
  *  *     <li>If the response code is 300-399 create a {@link AuditIssueConfidence#TENTATIVE} AuditIssue</li>
+ *  *     <li>Hits are optionally added to the site map as soon as they are found and the sweep can stop after a number of FIRM hits</li>
+ *  *     <li>A sweep against a target which answers controls with a 2xx or 3xx is abandoned if its first answers all match the controls</li>
+ *  *     <li>Progress is checkpointed to the project file, so a sweep cut short resumes where it stopped and re-checks its earlier hits</li>
  *  * </ul>
  */
 
 public class UuidHunterScannerCheck implements ScanCheck {
+
+    // Reusable per worker thread buffers the candidate payload is rendered into, indexed by the text length of the payload's format
+    private static final ThreadLocal<byte[][]> PAYLOAD_BUFFERS = ThreadLocal.withInitial(() -> new byte[V1UuidParser.UUID_TEXT_LENGTH + 1][]);
+
+    // Candidates within this many 100 nanosecond ticks (10ms) of a known UUID from the same node are sent first
+    private static final long PRIORITY_RADIUS_TICKS = 100_000;
+
+    // How many times a throttled candidate is retried before it is given up on
+    private static final int MAX_RETRIES = 5;
+    // The first back off after a throttled response, doubled on every retry
+    private static final long BASE_RETRY_DELAY_MILLIS = 250;
+    // The longest back off after a throttled response
+    private static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+
+    // How often an active sweep saves its progress so it can resume after a restart
+    private static final long CHECKPOINT_INTERVAL_MILLIS = 15_000;
+
     @Override
     public AuditResult activeAudit(HttpRequestResponse httpRequestResponse, AuditInsertionPoint auditInsertionPoint) {
-        List<AuditIssue> auditIssueList = new ArrayList<>();
-        //ensure the base insertion point is a V1 UUID
-        UUID uuid = parseUuidString(auditInsertionPoint.baseValue());
-        if(uuid != null) {
-            //generate a list of candidate V1 UUIDs in 100 nanosecond increments between the user defined range
-           Iterable<UUID> possibleUuids = Utils.genUUIDs(uuid, 10000, ExtensionState.getInstance().getUuidScanRange());
-           possibleUuids.forEach(possibleUuid -> {
-               //Don't scan the original UUID
-               if(!possibleUuid.toString().equals(uuid.toString())) {
-                   //Update insertion point and send request
-                   HttpRequest request = auditInsertionPoint.buildHttpRequestWithPayload(
-                           ByteArray.byteArray(possibleUuid.toString())).withService(httpRequestResponse.httpService());
-                   HttpRequestResponse response = ExtensionState.getInstance().getCallbacks().http().sendRequest(request);
-                   short status = response.statusCode();
-                   //if the status code is a 2XX it's a FIRM HIGH Issue
-                   if (status > 199 && status < 300) {
-                       auditIssueList.add(new UuidHunterAuditIssue(possibleUuid, response, AuditIssueConfidence.FIRM, AuditIssueSeverity.HIGH));
-                   } else if (status >299 && status < 400) {
-                       //If the status code is a 3XX it's a TENTATIVE MEDIUM Issue
-                       auditIssueList.add(new UuidHunterAuditIssue(possibleUuid, response, AuditIssueConfidence.TENTATIVE,AuditIssueSeverity.MEDIUM));
-                   }
-               }
-           });
-           return AuditResult.auditResult(auditIssueList);
+        //ensure the base insertion point is a time based identifier
+        TimeId seed = TimeId.parse(auditInsertionPoint.baseValue());
+        if(seed != null) {
+            //Issues are added from several worker threads at once
+            List<AuditIssue> auditIssueList = Collections.synchronizedList(new ArrayList<>());
+            ExtensionState state = ExtensionState.getInstance();
+            //Snapshot the reporting settings so they can't change part way through the sweep
+            boolean streamIssues = state.isStreamIssues();
+            int maxConfirmedHits = state.getMaxConfirmedHits();
+            AtomicInteger confirmedHits = new AtomicInteger();
+            //Plan a window of candidate identifiers that fits what is left of this insertion point's and this host's request budgets
+            AtomicLong hostRequests = state.getHostRequestCount(httpRequestResponse.httpService());
+            int hostBudget = state.getHostBudget();
+            long budget = Math.min(state.getInsertionPointBudget(), hostBudget - hostRequests.get());
+            if (budget <= 0) {
+                //The host budget lasts the whole session, so say why nothing is sent until it is reset
+                state.getCallbacks().logging().logToOutput("Skipped sweep of " + httpRequestResponse.request().url() + ": the " + hostBudget
+                        + " requests per host to " + hostKey(httpRequestResponse) + " are spent,"
+                        + " click \"Reset Host Budgets\" to allow more");
+                return AuditResult.auditResult(emptyList());
+            }
+            //Render the request once so each candidate only overwrites the payload bytes
+            TimeIdCodec codec = seed.codec();
+            PayloadTemplate template = PayloadTemplate.compile(auditInsertionPoint, httpRequestResponse.httpService(), codec);
+            //Resume from an earlier run of this sweep if one was cut short
+            ScanCheckpointStore checkpoints = state.getCheckpoints();
+            long templateHash = template.fingerprint();
+            ScanCheckpointStore.Checkpoint checkpoint = checkpoints.load(seed, templateHash);
+            //Try the clock sequences and nodes seen around the seed's time as well as the seed's own, keeping a resumed sweep's choice
+            long[] variants = checkpoint != null && checkpoint.variants().length > 0 ? checkpoint.variants()
+                    : state.getTimelineIndex().variantsNear(seed, state.getUuidScanRange() * V1CandidateGenerator.TICKS_PER_SECOND, CandidateSpace.MAX_VARIANTS);
+            //The window is shared by every variant, so each gets an equal part of the budget
+            WindowPlanner.Plan plan = WindowPlanner.plan(seed.timestamp(), Utils.currentUuidTimestamp(), state.getUuidScanRange(),
+                    Math.max(1, budget / variants.length), codec.resolution());
+            //Visit candidates near identifiers already seen from the same issuers first, then spiral outward from the seed
+            CandidateSpace candidates = new CandidateSpace(seed, plan, variants, state.getTimelineIndex(), PRIORITY_RADIUS_TICKS);
+            //Candidates already sent to this target by any audit are skipped
+            TimestampBitmap[] tested = new TimestampBitmap[variants.length];
+            String insertionPointKey = auditInsertionPoint.name() + ' ' + template.location();
+            for (int v = 0; v < variants.length; v++) {
+                tested[v] = state.getTestedCandidates().forTarget(httpRequestResponse.httpService(), httpRequestResponse.request().method(),
+                        httpRequestResponse.request().path(), insertionPointKey, new TimeId(codec, seed.msb(), variants[v]));
+            }
+            //Requests to the same host share one adaptive limit on requests in flight
+            AdaptiveConcurrencyLimiter limiter = state.getLimiter(httpRequestResponse.httpService());
+            //Either show hits in the site map straight away or hold them for the final result
+            Consumer<AuditIssue> report = issue -> {
+                if (streamIssues) {
+                    state.getCallbacks().siteMap().add(issue);
+                } else {
+                    auditIssueList.add(issue);
+                }
+            };
+            //Answered candidates of every variant, as variant and timestamp pairs
+            TimestampBitmap answered = new TimestampBitmap();
+            List<TimeId> hits = Collections.synchronizedList(new ArrayList<>());
+            //Learn how the target answers identifiers that can't be valid, so uniform answers aren't reported as hits
+            ResponseBaseline baseline = buildBaseline(seed, template, limiter, hostRequests, hostBudget);
+            //Past the first few hits of each confidence, hits are folded into one issue so a permissive target can't fill the heap
+            HitFolder folder = new HitFolder();
+            //Skip what a resumed sweep already sent, and re-check the hits it found before reporting them again
+            if (checkpoint != null) {
+                for (long key : checkpoint.answered()) {
+                    int variant = CandidateSpace.variantOf(key);
+                    if (variant < variants.length) {
+                        answered.add(key);
+                        tested[variant].add(CandidateSpace.timestampOf(key));
+                    }
+                }
+                for (TimeId hit : checkpoint.hits()) {
+                    if (hit.codec() != codec) {
+                        continue;
+                    }
+                    if (hostRequests.incrementAndGet() > hostBudget) {
+                        hostRequests.decrementAndGet();
+                        break;
+                    }
+                    byte[] payload = payloadBuffer(codec);
+                    hit.render(payload, 0);
+                    HttpRequestResponse response = send(template.build(payload), limiter);
+                    UuidHunterAuditIssue issue = response == null ? null : classify(hit, response, baseline, payload);
+                    if (issue != null && folder.offer(issue) != null) {
+                        hits.add(hit);
+                        report.accept(issue);
+                    }
+                }
+            }
+            AtomicLong lastCheckpoint = new AtomicLong(System.currentTimeMillis());
+            //Candidate answers so far and how many stood out from the baseline, to abandon sweeps of targets that accept anything
+            AtomicLong sampled = new AtomicLong();
+            AtomicLong standouts = new AtomicLong();
+            boolean permissive = baseline.isPermissive();
+            boolean interrupted = false;
+            boolean cancelled;
+            String hostKey = httpRequestResponse.httpService().host() + ":" + httpRequestResponse.httpService().port();
+            try {
+                cancelled = !state.getScheduler().run(hostKey, limiter, candidates.size(), position -> {
+                    int variant = candidates.variantAt(position);
+                    long timestamp = candidates.timestampAt(position);
+                    //Don't scan the original UUID, any already known or already visited candidate, or one another audit already sent
+                    if(!candidates.skip(position) && tested[variant].add(timestamp)) {
+                        //Stop once the host's budget has been spent by this or any other audit
+                        if (hostRequests.incrementAndGet() > hostBudget) {
+                            hostRequests.decrementAndGet();
+                            tested[variant].remove(timestamp);
+                            return;
+                        }
+                        //Render the candidate into this thread's payload buffer, splice it into the request and send it
+                        byte[] payload = payloadBuffer(codec);
+                        candidates.render(position, payload, 0);
+                        state.getMetrics().candidateGenerated();
+                        HttpRequest request = template.build(payload);
+                        HttpRequestResponse response = send(request, limiter);
+                        if (response == null) {
+                            //The candidate was never answered, leave it free for a later audit
+                            tested[variant].remove(timestamp);
+                            return;
+                        }
+                        answered.add(CandidateSpace.answeredKey(variant, timestamp));
+                        sampled.incrementAndGet();
+                        TimeId candidate = candidates.toId(position);
+                        UuidHunterAuditIssue issue = classify(candidate, response, baseline, payload);
+                        if (issue != null) {
+                            standouts.incrementAndGet();
+                            if (issue.confidence() == AuditIssueConfidence.FIRM) {
+                                confirmedHits.incrementAndGet();
+                                state.getTimelineIndex().record(candidate);
+                            }
+                            //Only hits reported on their own are re-checked on resume, folded ones are just counted
+                            if (folder.offer(issue) != null) {
+                                hits.add(candidate);
+                                report.accept(issue);
+                            }
+                        }
+                        //Periodically save progress, one worker at a time
+                        long now = System.currentTimeMillis();
+                        long last = lastCheckpoint.get();
+                        if (now - last >= CHECKPOINT_INTERVAL_MILLIS && lastCheckpoint.compareAndSet(last, now)) {
+                            checkpoints.save(seed, templateHash, variants, new ArrayList<>(hits), answered);
+                        }
+                    }
+                }, () -> (maxConfirmedHits > 0 && confirmedHits.get() >= maxConfirmedHits) || hostRequests.get() >= hostBudget
+                        || permissive && standouts.get() == 0 && sampled.get() >= ResponseBaseline.EARLY_SAMPLE);
+            } catch (InterruptedException e) {
+                //The scan was cancelled, report whatever was found so far
+                interrupted = true;
+                cancelled = true;
+            }
+            if (permissive && standouts.get() == 0 && sampled.get() >= ResponseBaseline.EARLY_SAMPLE) {
+                state.getCallbacks().logging().logToOutput("Abandoned sweep of " + httpRequestResponse.request().url()
+                        + ": the first " + ResponseBaseline.EARLY_SAMPLE + " candidates were answered like the controls (" + baseline.describe() + ")");
+            }
+            if (!cancelled && hostRequests.get() >= hostBudget) {
+                state.getCallbacks().logging().logToOutput("Paused sweep of " + httpRequestResponse.request().url() + ": the " + hostBudget
+                        + " requests per host to " + hostKey(httpRequestResponse) + " are spent,"
+                        + " click \"Reset Host Budgets\" and scan again to resume");
+            }
+            folder.foldedIssues().forEach(report);
+            //Keep the progress of a sweep that was cancelled, by Burp or by the extension unloading, or ran out of host budget
+            if (cancelled || hostRequests.get() >= hostBudget) {
+                checkpoints.save(seed, templateHash, variants, new ArrayList<>(hits), answered);
+            } else {
+                checkpoints.delete(seed, templateHash);
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (auditIssueList) {
+                return AuditResult.auditResult(new ArrayList<>(auditIssueList));
+            }
        } else {
            return AuditResult.auditResult(emptyList());
        }
     }
 
-    @Override
-    public AuditResult passiveAudit(HttpRequestResponse httpRequestResponse) {
-        ArrayList<UUID> potentialUuidStrings = new ArrayList<>();
-        /*
-            This mess of stream().map().filter() calls collects the Request/Response header/parameter values then filters for only V1 UUIDs
-         */
-        potentialUuidStrings.addAll(httpRequestResponse.request().headers().stream().map(HttpHeader::value).map(value -> {
-            try {
-                return parseUuidString(value);
-            } catch (IllegalArgumentException ignored) {
-                return null;
+    /**
+     * Getter for the host and port the host budget of a request/response is counted against
+     * @param httpRequestResponse the request/response being audited
+     * @return the host and port, as shown in the log
+     */
+    private static String hostKey(HttpRequestResponse httpRequestResponse) {
+        return httpRequestResponse.httpService().host() + ":" + httpRequestResponse.httpService().port();
+    }
+
+    /**
+     * Getter for this thread's buffer for payloads of a format
+     * @param codec the format of the payload
+     * @return a buffer exactly as long as the format's text form
+     */
+    private static byte[] payloadBuffer(TimeIdCodec codec) {
+        byte[][] buffers = PAYLOAD_BUFFERS.get();
+        byte[] buffer = buffers[codec.textLength()];
+        if (buffer == null) {
+            buffer = new byte[codec.textLength()];
+            buffers[codec.textLength()] = buffer;
+        }
+        return buffer;
+    }
+
+    /**
+     * Send the control identifiers of a sweep and fingerprint their responses
+     * @param seed the seed identifier of the sweep
+     * @param template the template candidate requests are built from
+     * @param limiter the adaptive limiter of the target host
+     * @param hostRequests the number of requests sent to the target host, controls count towards its budget
+     * @param hostBudget the most requests which may be sent to the target host
+     * @return the baseline built from whichever controls were answered
+     */
+    private static ResponseBaseline buildBaseline(TimeId seed, PayloadTemplate template, AdaptiveConcurrencyLimiter limiter,
+                                                  AtomicLong hostRequests, int hostBudget) {
+        List<ResponseBaseline.Fingerprint> controls = new ArrayList<>();
+        for (byte[] payload : ResponseBaseline.controlPayloads(seed)) {
+            if (hostRequests.incrementAndGet() > hostBudget) {
+                hostRequests.decrementAndGet();
+                break;
             }
-        }).filter(Objects::nonNull).toList());
-        potentialUuidStrings.addAll(httpRequestResponse.response().headers().stream().map(HttpHeader::value).map(value -> {
-            try {
-                return parseUuidString(value);
-            } catch (IllegalArgumentException ignored) {
-                return null;
+            HttpRequestResponse response = send(template.build(payload), limiter);
+            if (response != null && response.response() != null) {
+                controls.add(ResponseBaseline.fingerprint(response.response(), payload));
             }
-        }).filter(Objects::nonNull).toList());
-        potentialUuidStrings.addAll(httpRequestResponse.request().parameters().stream().map(ParsedHttpParameter::value).map(value -> {
-            try {
-                return parseUuidString(value);
-            } catch (IllegalArgumentException ignored) {
-                return null;
+        }
+        return new ResponseBaseline(controls);
+    }
+
+    /**
+     * Send a candidate request within the host's adaptive limit, retrying with a back off while the host throttles
+     * @param request the candidate request
+     * @param limiter the adaptive limiter of the request's host
+     * @return the response, or null if the host kept throttling or the scan was cancelled
+     */
+    private static HttpRequestResponse send(HttpRequest request, AdaptiveConcurrencyLimiter limiter) {
+        try {
+            for (int attempt = 0; ; attempt++) {
+                limiter.acquire();
+                ScanMetrics metrics = ExtensionState.getInstance().getMetrics();
+                metrics.requestStarted();
+                long started = System.nanoTime();
+                HttpRequestResponse response = null;
+                boolean throttled = true;
+                try {
+                    response = ExtensionState.getInstance().getCallbacks().http().sendRequest(request);
+                    throttled = isThrottled(response);
+                } finally {
+                    long latency = System.nanoTime() - started;
+                    limiter.release(latency, throttled);
+                    metrics.requestCompleted(response == null || response.response() == null ? 0 : response.response().statusCode(), latency);
+                }
+                if (!throttled) {
+                    return response;
+                }
+                if (attempt == MAX_RETRIES) {
+                    ExtensionState.getInstance().getCallbacks().logging().logToError(
+                            "Candidate dropped after " + MAX_RETRIES + " throttled retries: " + request.url());
+                    return null;
+                }
+                Thread.sleep(retryDelayMillis(response, attempt));
             }
-        }).filter(Objects::nonNull).toList());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
 
-        List<AuditIssue> issues = potentialUuidStrings.stream().map(uuid -> {
-            ExtensionState.getInstance().getCallbacks().logging().logToOutput(uuid.toString());
-            return new UuidHunterAuditIssue(uuid, httpRequestResponse, AuditIssueConfidence.CERTAIN,AuditIssueSeverity.LOW);
-        }).collect(Collectors.toList());
+    /**
+     * Check if a response shows the host is throttling or failing, in which case the candidate result can't be trusted
+     * @param response the response to a candidate request
+     * @return true if there was no response or the status was 429 or 503
+     */
+    private static boolean isThrottled(HttpRequestResponse response) {
+        if (response == null || response.response() == null) {
+            return true;
+        }
+        short status = response.response().statusCode();
+        return status == 429 || status == 503;
+    }
 
-        //This extension also checks the response body for V1 UUID's
-        if(httpRequestResponse.response().body().countMatches("[a-fA-F0-9]{8}-[a-fA-F0-9]{4}-[a-fA-F0-9]{4}-[a-fA-F0-9]{4}-[a-fA-F0-9]{12}") > 0) {
-            issues.add(new UuidHunterAuditIssue(null,httpRequestResponse,AuditIssueConfidence.CERTAIN,AuditIssueSeverity.LOW));
+    /**
+     * Work out how long to wait before retrying a throttled candidate, honouring a Retry-After header given in seconds
+     * @param response the throttled response, may be null
+     * @param attempt the number of attempts made so far, starting at 0
+     * @return the number of milliseconds to wait
+     */
+    private static long retryDelayMillis(HttpRequestResponse response, int attempt) {
+        if (response != null && response.response() != null) {
+            for (HttpHeader header : response.response().headers()) {
+                if (header.name().equalsIgnoreCase("Retry-After")) {
+                    try {
+                        return Math.min(MAX_RETRY_DELAY_MILLIS, Long.parseLong(header.value().trim()) * 1000);
+                    } catch (NumberFormatException ignored) {
+                        //HTTP dates aren't worth parsing here, use the exponential back off instead
+                    }
+                }
+            }
         }
+        return Math.min(MAX_RETRY_DELAY_MILLIS, BASE_RETRY_DELAY_MILLIS << attempt);
+    }
 
-        return issues.isEmpty() ? AuditResult.auditResult(emptyList()) : AuditResult.auditResult(issues);
+    /**
+     * Decide if the response to a candidate identifier indicates the candidate is valid
+     * @param candidate the candidate identifier that was sent
+     * @param response the response to the candidate request
+     * @param baseline how the target answers identifiers that can't be valid
+     * @param payload the text of the candidate as sent, so echoes of it can be ignored when comparing with the baseline
+     * @return an {@link AuditIssue} describing the hit, or null if the candidate doesn't look valid
+     */
+    private static UuidHunterAuditIssue classify(TimeId candidate, HttpRequestResponse response, ResponseBaseline baseline, byte[] payload) {
+        short status = response.statusCode();
+        //A hit must stand out from the controls, answers that look the same are the target's response to any identifier
+        if (status > 199 && status < 400 && baseline.isPermissive() && baseline.matches(ResponseBaseline.fingerprint(response.response(), payload))) {
+            return null;
+        }
+        //if the status code is a 2XX it's a FIRM HIGH Issue
+        if (status > 199 && status < 300) {
+            return new UuidHunterAuditIssue(candidate, response, AuditIssueConfidence.FIRM, AuditIssueSeverity.HIGH);
+        } else if (status >299 && status < 400) {
+            //If the status code is a 3XX it's a TENTATIVE MEDIUM Issue
+            return new UuidHunterAuditIssue(candidate, response, AuditIssueConfidence.TENTATIVE,AuditIssueSeverity.MEDIUM);
+        }
+        return null;
     }
 
+    @Override
+    public AuditResult passiveAudit(HttpRequestResponse httpRequestResponse) {
+        ExtensionState state = ExtensionState.getInstance();
+        if (!state.isBackgroundPassive()) {
+            return AuditResult.auditResult(passiveIssues(httpRequestResponse, false));
+        }
+        //Only note the body length on Burp's thread, the workers report what they find straight to the site map
+        HttpResponse response = httpRequestResponse.response();
+        long bodyLength = response == null ? 0 : response.body().length();
+        state.getPassiveQueue().submit(httpRequestResponse, bodyLength, (requestResponse, skipResponseBody) ->
+                passiveIssues(requestResponse, skipResponseBody).stream()
+                        .filter(issue -> !alreadyReported(issue))
+                        .forEach(issue -> state.getCallbacks().siteMap().add(issue)));
+        return AuditResult.auditResult(emptyList());
+    }
+
+    /**
+     * Check if an issue found by a background passive scan worker was already reported by one. Issues added straight to the site map
+     * don't go through {@link #consolidateIssues(AuditIssue, AuditIssue)}, so the same identifier at the same URL is remembered here.
+     * @param issue the issue about to be added to the site map
+     * @return true if an issue for the same identifier at the same URL with the same confidence was already added
+     */
+    private static boolean alreadyReported(AuditIssue issue) {
+        TimeId id = ((UuidHunterAuditIssue) issue).id();
+        //Tagged so the hash can't collide with the content hashes kept in the same cache
+        long hash = new PassiveResultCache.Hasher().add("reported").add(issue.baseUrl()).add(id.msb()).add(id.lsb())
+                .add(issue.confidence().ordinal()).hash();
+        return ExtensionState.getInstance().getPassiveResultCache().markScanned(hash);
+    }
+
+    /**
+     * Find every time based identifier in a request/response and build an issue for each one not already reported
+     * @param httpRequestResponse the request/response to scan
+     * @param skipResponseBody true to scan only the response's status line and headers
+     * @return an issue per identifier found, empty if none were found or all were already reported
+     */
+    List<AuditIssue> passiveIssues(HttpRequestResponse httpRequestResponse, boolean skipResponseBody) {
+        ScanMetrics metrics = ExtensionState.getInstance().getMetrics();
+        HttpRequest request = httpRequestResponse.request();
+        HttpResponse response = httpRequestResponse.response();
+
+        //Skip contents already scanned, the issues they raise have already been reported
+        byte[] requestBytes = request.toByteArray().getBytes();
+        byte[] responseBytes = response == null ? null : response.toByteArray().getBytes();
+        PassiveResultCache.Hasher hasher = new PassiveResultCache.Hasher().add(request.url())
+                .addIdBearingLines(requestBytes, 0, request.bodyOffset())
+                .add(requestBytes, request.bodyOffset(), requestBytes.length);
+        int responseEnd = 0;
+        if (responseBytes != null) {
+            responseEnd = skipResponseBody ? Math.min(response.bodyOffset(), responseBytes.length) : responseBytes.length;
+            hasher.addIdBearingLines(responseBytes, 0, response.bodyOffset())
+                    .add(skipResponseBody ? 1 : 0)
+                    .add(responseBytes, Math.min(response.bodyOffset(), responseEnd), responseEnd);
+        }
+        if (ExtensionState.getInstance().getPassiveResultCache().markScanned(hasher.hash())) {
+            metrics.passiveCacheHit();
+            return emptyList();
+        }
+
+        //One pass over the raw bytes of each message finds identifiers of every format wherever they are, along with where they are
+        Map<TimeId, PassiveHits> hits = new LinkedHashMap<>();
+        MessageIdExtractor.extract(requestBytes, request.bodyOffset(), false, (codec, msb, lsb, offset, location) ->
+                hits.computeIfAbsent(new TimeId(codec, msb, lsb), id -> new PassiveHits()).add(offset, codec.textLength(), location));
+        if (responseBytes != null) {
+            MessageIdExtractor.extract(responseBytes, response.bodyOffset(), responseEnd, true, (codec, msb, lsb, offset, location) ->
+                    hits.computeIfAbsent(new TimeId(codec, msb, lsb), id -> new PassiveHits()).add(offset, codec.textLength(), location));
+        }
+        metrics.passiveBytesScanned(requestBytes.length + (long) responseEnd);
+        if (hits.isEmpty()) {
+            return emptyList();
+        }
+        metrics.timeIdsFound(hits.size());
+
+        //One issue per identifier, highlighting every place it appears
+        V1TimelineIndex timelineIndex = ExtensionState.getInstance().getTimelineIndex();
+        List<AuditIssue> issues = new ArrayList<>(hits.size());
+        hits.forEach((id, idHits) -> {
+            timelineIndex.record(id);
+            HttpRequestResponse marked = httpRequestResponse;
+            if (!idHits.requestMarkers.isEmpty()) {
+                marked = marked.withRequestMarkers(idHits.requestMarkers);
+            }
+            if (!idHits.responseMarkers.isEmpty()) {
+                marked = marked.withResponseMarkers(idHits.responseMarkers);
+            }
+            issues.add(new UuidHunterAuditIssue(id, marked, idHits.locations, AuditIssueConfidence.CERTAIN, AuditIssueSeverity.LOW));
+        });
+        return issues;
+    }
+
+    /**
+     * Every place the passive scan check found one identifier in a request/response
+     */
+    private static final class PassiveHits {
+        private final List<Marker> requestMarkers = new ArrayList<>(1);
+        private final List<Marker> responseMarkers = new ArrayList<>(1);
+        private final EnumSet<MessageIdExtractor.Location> locations = EnumSet.noneOf(MessageIdExtractor.Location.class);
+
+        void add(int offset, int length, MessageIdExtractor.Location location) {
+            (location.inResponse() ? responseMarkers : requestMarkers).add(Marker.marker(offset, offset + length));
+            locations.add(location);
+        }
+    }
+
+    /**
+     * Merge issues reporting the same identifier at the same URL with the same confidence, otherwise keep both.<br>
+     * Issues loaded from a saved project aren't instances of {@link UuidHunterAuditIssue}, so they are compared by their detail,
+     * which lists the fields that make up the identifier, such as the timestamp, node and clock sequence of a V1 UUID.
+     */
     @Override
     public ConsolidationAction consolidateIssues(AuditIssue newIssue, AuditIssue existingIssue) {
-        return KEEP_BOTH;
+        if (!newIssue.name().equals(existingIssue.name()) || newIssue.confidence() != existingIssue.confidence()
+                || !Objects.equals(newIssue.baseUrl(), existingIssue.baseUrl())) {
+            return KEEP_BOTH;
+        }
+        boolean sameId = newIssue instanceof UuidHunterAuditIssue newUuidIssue && existingIssue instanceof UuidHunterAuditIssue existingUuidIssue
+                ? newUuidIssue.sameId(existingUuidIssue) && newUuidIssue.otherHitCount() == existingUuidIssue.otherHitCount()
+                : Objects.equals(newIssue.detail(), existingIssue.detail());
+        return sameId ? KEEP_EXISTING : KEEP_BOTH;
     }
 
 }
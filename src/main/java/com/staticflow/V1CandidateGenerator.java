@@ -0,0 +1,186 @@
+package main.java.com.staticflow;
+
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+/**
+ * Allocation free generator of candidate V1 UUIDs surrounding a seed UUID.<br>
+ * Candidates are addressed by an index between 0 and {@link #count()} and represented only by their most significant bits, the least
+ * significant bits (clock sequence and node) are shared with the seed. Candidate timestamps are full 60 bit values, so a window
+ * crossing a time_low rollover carries into time_mid and time_hi. Rendering a candidate writes its 36 character text form straight
+ * into a caller supplied buffer so no {@link UUID} or {@link String} is created per candidate.
+ */
+public final class V1CandidateGenerator {
+
+    // Length in bytes of the text form of a UUID
+    public static final int UUID_TEXT_LENGTH = V1UuidParser.UUID_TEXT_LENGTH;
+
+    // Number of 100 nanosecond ticks in one second
+    static final long TICKS_PER_SECOND = 10_000_000L;
+
+    // The most significant bits of the seed UUID
+    private final long seedMsb;
+    // The least significant bits shared by the seed and every candidate
+    private final long lsb;
+    // The increment between two candidates in 100 nanosecond ticks
+    private final long precision;
+    // The number of candidates in the sequence
+    private final long count;
+    // The full 60 bit timestamp of the seed
+    private final long seedTimestamp;
+    // The index of the seed in the sequence
+    private final long seedIndex;
+    // Pre-rendered text of the seed, only the timestamp characters change between candidates
+    private final byte[] seedText = new byte[UUID_TEXT_LENGTH];
+
+    /**
+     * Build a generator covering {@code seconds} before to {@code seconds} after the timestamp of {@code seed}
+     * @param seed the V1 UUID from which to generate the sequence
+     * @param precision the increment value, in 100 nanosecond ticks, to use when generating the sequence
+     * @param seconds the number of seconds before and after the timestamp of {@code seed} to start and stop the sequence
+     */
+    public V1CandidateGenerator(UUID seed, long precision, int seconds) {
+        this(seed, precision, TICKS_PER_SECOND * seconds, TICKS_PER_SECOND * seconds);
+    }
+
+    /**
+     * Build a generator covering an asymmetric window around the timestamp of {@code seed}
+     * @param seed the V1 UUID from which to generate the sequence
+     * @param precision the increment value, in 100 nanosecond ticks, to use when generating the sequence
+     * @param before the number of 100 nanosecond ticks before the timestamp of {@code seed} to start the sequence
+     * @param after the number of 100 nanosecond ticks after the timestamp of {@code seed} to stop the sequence
+     */
+    public V1CandidateGenerator(UUID seed, long precision, long before, long after) {
+        this.seedMsb = seed.getMostSignificantBits();
+        this.lsb = seed.getLeastSignificantBits();
+        this.precision = Math.max(1, precision);
+        this.seedIndex = Math.max(0, before) / this.precision;
+        this.count = seedIndex + Math.max(0, after) / this.precision + 1;
+        this.seedTimestamp = seed.timestamp();
+        Utils.writeUuid(seedMsb, lsb, seedText, 0);
+    }
+
+    /**
+     * Getter for the number of candidates in the sequence
+     * @return the number of candidates, including the seed itself
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Getter for the least significant bits shared by every candidate
+     * @return the least significant bits of the seed
+     */
+    public long lsb() {
+        return lsb;
+    }
+
+    /**
+     * Compute the most significant bits of the candidate at {@code index}
+     * @param index the position of the candidate in the sequence
+     * @return the most significant bits of the candidate
+     */
+    public long msbAt(long index) {
+        return msbFor(timestampAt(index));
+    }
+
+    /**
+     * Compute the most significant bits of a V1 UUID from its full 60 bit timestamp
+     * @param timestamp the timestamp in 100 nanosecond ticks since the Gregorian epoch
+     * @return the time_low, time_mid, version and time_hi fields packed as the most significant bits of a UUID
+     */
+    public static long msbFor(long timestamp) {
+        long timeLow = timestamp & 0xFFFFFFFFL;
+        long timeMid = (timestamp >>> 32) & 0xFFFFL;
+        long timeHi = (timestamp >>> 48) & 0x0FFFL;
+        return (timeLow << 32) | (timeMid << 16) | 0x1000L | timeHi;
+    }
+
+    /**
+     * Compute the 60 bit timestamp of the candidate at {@code index}
+     * @param index the position of the candidate in the sequence
+     * @return the candidate's timestamp in 100 nanosecond ticks since the Gregorian epoch
+     */
+    public long timestampAt(long index) {
+        return seedTimestamp + (index - seedIndex) * precision;
+    }
+
+    /**
+     * Find the candidate whose timestamp is closest to {@code timestamp}
+     * @param timestamp a 60 bit timestamp in 100 nanosecond ticks since the Gregorian epoch
+     * @return the index of the closest candidate, or -1 if {@code timestamp} falls outside of the sequence
+     */
+    public long indexNearest(long timestamp) {
+        long offset = timestamp - seedTimestamp + seedIndex * precision;
+        long index = Math.floorDiv(offset + precision / 2, precision);
+        return index < 0 || index >= count ? -1 : index;
+    }
+
+    /**
+     * Getter for the position of the seed in the sequence
+     * @return the index of the seed, which is also the number of candidates before it
+     */
+    public long seedIndex() {
+        return seedIndex;
+    }
+
+    /**
+     * Getter for the increment between two candidates
+     * @return the number of 100 nanosecond ticks between neighbouring candidates
+     */
+    public long precision() {
+        return precision;
+    }
+
+    /**
+     * Check if a candidate is the seed UUID without building either as a {@link UUID}
+     * @param msb the most significant bits of the candidate
+     * @return true if the candidate is the seed UUID
+     */
+    public boolean isSeed(long msb) {
+        return msb == seedMsb;
+    }
+
+    /**
+     * Write the 36 character text form of the candidate with the given most significant bits into {@code dst}.
+     * Only the timestamp characters are rendered, the clock sequence and node are copied from the pre-rendered seed.
+     * @param msb the most significant bits of the candidate
+     * @param dst the buffer to write into, must have room for {@link #UUID_TEXT_LENGTH} bytes after {@code offset}
+     * @param offset the position in {@code dst} to start writing
+     */
+    public void render(long msb, byte[] dst, int offset) {
+        Utils.writeHex(msb >>> 32, 4, dst, offset);
+        dst[offset + 8] = '-';
+        Utils.writeHex(msb >>> 16, 2, dst, offset + 9);
+        dst[offset + 13] = '-';
+        Utils.writeHex(msb, 2, dst, offset + 14);
+        System.arraycopy(seedText, 18, dst, offset + 18, UUID_TEXT_LENGTH - 18);
+    }
+
+    /**
+     * Build a {@link UUID} for a candidate, only intended for candidates that need to outlive the scan such as hits
+     * @param msb the most significant bits of the candidate
+     * @return the candidate as a {@link UUID}
+     */
+    public UUID toUuid(long msb) {
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * The most significant bits of every candidate as a sized stream which can be split evenly across cores
+     * @return a stream of candidate most significant bits in sequence order
+     */
+    public LongStream msbs() {
+        return LongStream.range(0, count).map(this::msbAt);
+    }
+
+    /**
+     * A splittable view of the candidate most significant bits
+     * @return a {@link Spliterator.OfLong} over the candidate most significant bits in sequence order
+     */
+    public Spliterator.OfLong spliterator() {
+        return msbs().spliterator();
+    }
+}
@@ -0,0 +1,160 @@
+package main.java.com.staticflow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In memory index of every time based identifier timestamp observed, grouped by the node (MAC) and clock sequence that issued it.<br>
+ * Identifiers are grouped by their least significant bits, which are the clock sequence and node for V1 and V6 UUIDs, so a V1 and a
+ * V6 UUID from the same issuer share a group. Formats with random least significant bits, such as V7 UUIDs and ULIDs, each get a group
+ * of their own, kept apart from the node groups and bounded to {@link #MAX_RANDOM_GROUPS}, so busy traffic full of those can't evict
+ * the node timelines the active scan check draws variants from. Each group keeps its 60 bit timestamps in a sorted primitive array so
+ * range queries are a pair of binary searches. Memory is bounded in two ways: each group keeps only its most recent
+ * {@link #MAX_TIMESTAMPS_PER_NODE} timestamps and only the {@link #MAX_NODES} most recently used node groups are kept.
+ */
+public class V1TimelineIndex {
+
+    // The most timestamps kept for a single node and clock sequence
+    static final int MAX_TIMESTAMPS_PER_NODE = 4096;
+    // The most node and clock sequence groups kept
+    static final int MAX_NODES = 1024;
+    // The most groups of identifiers with random least significant bits kept, each only ever helps re-scans of the same identifier
+    static final int MAX_RANDOM_GROUPS = 64;
+    // Mask of the node within the least significant bits of a V1 or V6 UUID
+    private static final long NODE_MASK = 0xFFFFFFFFFFFFL;
+
+    // Sorted timestamps keyed by least significant bits, which hold the node and clock sequence, in least recently used order
+    private final Map<Long, Timeline> timelines = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Timeline> eldest) {
+            return size() > MAX_NODES;
+        }
+    };
+    // Sorted timestamps of formats with random least significant bits, keyed by those bits, in least recently used order
+    private final Map<Long, Timeline> randomTimelines = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Timeline> eldest) {
+            return size() > MAX_RANDOM_GROUPS;
+        }
+    };
+
+    /**
+     * Sorted, de-duplicated timestamps of a single node and clock sequence
+     */
+    private static final class Timeline {
+        long[] timestamps = new long[16];
+        int size;
+
+        void add(long timestamp) {
+            int position = Arrays.binarySearch(timestamps, 0, size, timestamp);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == MAX_TIMESTAMPS_PER_NODE) {
+                //Forget the oldest timestamp, unless the new one would be the oldest itself
+                if (position == 0) {
+                    return;
+                }
+                System.arraycopy(timestamps, 1, timestamps, 0, position - 1);
+                timestamps[position - 1] = timestamp;
+                return;
+            }
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, Math.min(MAX_TIMESTAMPS_PER_NODE, size * 2));
+            }
+            System.arraycopy(timestamps, position, timestamps, position + 1, size - position);
+            timestamps[position] = timestamp;
+            size++;
+        }
+
+        int countBetween(long from, long to) {
+            int start = Arrays.binarySearch(timestamps, 0, size, from);
+            start = start < 0 ? -start - 1 : start;
+            int end = Arrays.binarySearch(timestamps, 0, size, to);
+            end = end < 0 ? -end - 1 : end + 1;
+            return end - start;
+        }
+
+        long[] between(long from, long to) {
+            int start = Arrays.binarySearch(timestamps, 0, size, from);
+            start = start < 0 ? -start - 1 : start;
+            int end = Arrays.binarySearch(timestamps, 0, size, to);
+            end = end < 0 ? -end - 1 : end + 1;
+            return Arrays.copyOfRange(timestamps, start, end);
+        }
+    }
+
+    /**
+     * Record an identifier that has been seen in traffic or confirmed by the active scan check
+     * @param id a time based identifier
+     */
+    public synchronized void record(TimeId id) {
+        timelinesOf(id).computeIfAbsent(id.lsb(), key -> new Timeline()).add(id.timestamp());
+    }
+
+    /**
+     * List the clock sequence and node combinations likely to have issued identifiers around the time of {@code seed}.<br>
+     * The seed's own combination comes first. If the seed's format has a node, it is followed by other combinations with at least
+     * one timestamp within {@code radius} of the seed's: first those of the seed's node, then those of other nodes. Within each of
+     * those, combinations with more timestamps in range come first. Other clock sequences of the same node appear when the issuer
+     * restarts or its clock steps back, and other nodes when a service is spread over several hosts. Formats whose least significant
+     * bits are random have no other combinations.
+     * @param seed a time based identifier
+     * @param radius the number of 100 nanosecond ticks either side of the seed's timestamp a combination must have been seen in
+     * @param max the most combinations returned, including the seed's own
+     * @return the least significant bits of each combination, most likely first
+     */
+    public synchronized long[] variantsNear(TimeId seed, long radius, int max) {
+        if (!seed.codec().hasNode()) {
+            return new long[]{seed.lsb()};
+        }
+        long seedNode = seed.lsb() & NODE_MASK;
+        long from = seed.timestamp() - radius;
+        long to = seed.timestamp() + radius;
+        //key -> {0 for the seed's node and 1 for another node, number of timestamps in range}
+        List<long[]> ranked = new ArrayList<>();
+        for (Map.Entry<Long, Timeline> entry : timelines.entrySet()) {
+            long key = entry.getKey();
+            if (key == seed.lsb()) {
+                continue;
+            }
+            int inRange = entry.getValue().countBetween(from, to);
+            if (inRange > 0) {
+                ranked.add(new long[]{key, (key & NODE_MASK) == seedNode ? 0 : 1, inRange});
+            }
+        }
+        ranked.sort((a, b) -> a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(b[2], a[2]));
+        int size = (int) Math.min(Math.max(1, max), ranked.size() + 1L);
+        long[] variants = new long[size];
+        variants[0] = seed.lsb();
+        for (int i = 1; i < size; i++) {
+            variants[i] = ranked.get(i - 1)[0];
+        }
+        return variants;
+    }
+
+    /**
+     * Find the timestamps recorded for the least significant bits of {@code seed} within {@code radius} ticks of its timestamp
+     * @param seed a time based identifier
+     * @param radius the number of 100 nanosecond ticks either side of the seed's timestamp to search
+     * @return the sorted timestamps found, which includes the seed's own timestamp if it was recorded
+     */
+    public synchronized long[] near(TimeId seed, long radius) {
+        Timeline timeline = timelinesOf(seed).get(seed.lsb());
+        if (timeline == null) {
+            return new long[0];
+        }
+        return timeline.between(seed.timestamp() - radius, seed.timestamp() + radius);
+    }
+
+    /**
+     * The groups an identifier belongs with, by whether its least significant bits are a clock sequence and node or random
+     */
+    private Map<Long, Timeline> timelinesOf(TimeId id) {
+        return id.codec().hasNode() ? timelines : randomTimelines;
+    }
+}
@@ -0,0 +1,171 @@
+package main.java.com.staticflow;
+
+import burp.api.montoya.core.ByteArray;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Exception free parser for the text form of V1 UUIDs.<br>
+ * Most values handed to the passive scan check are not UUIDs at all, so every entry point rejects on length and hyphen positions
+ * before any hex is decoded. Decoding goes through a 256 entry lookup table and a failed parse never throws or allocates, a
+ * {@link UUID} is only created for a successful match.
+ */
+public final class V1UuidParser {
+
+    // Length of the text form of a UUID
+    public static final int UUID_TEXT_LENGTH = 36;
+
+    // Position of the version character within the text form of a UUID
+    private static final int VERSION_INDEX = 14;
+
+    // Lookup table from a byte to its hex value, or -1 if the byte is not a hex digit
+    private static final byte[] HEX_VALUES = new byte[256];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            HEX_VALUES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUES['a' + i] = (byte) (10 + i);
+            HEX_VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private V1UuidParser(){}
+
+    /**
+     * Check if a byte is a hex digit
+     * @param b the byte to check
+     * @return true if {@code b} is one of 0-9, a-f or A-F
+     */
+    public static boolean isHex(byte b) {
+        return HEX_VALUES[b & 0xFF] >= 0;
+    }
+
+    /**
+     * Return a {@link UUID} if the supplied {@code value} is a valid V1 UUID
+     * @param value A text representation of a UUID
+     * @return A V1 {@link UUID} or null if {@code value} is not a V1 UUID
+     */
+    public static UUID parse(CharSequence value) {
+        if (value == null || value.length() != UUID_TEXT_LENGTH
+                || value.charAt(8) != '-' || value.charAt(13) != '-' || value.charAt(18) != '-' || value.charAt(23) != '-'
+                || value.charAt(VERSION_INDEX) != '1') {
+            return null;
+        }
+        long timeLow = decode(value, 0, 8);
+        long timeMid = decode(value, 9, 4);
+        long timeHi = decode(value, 14, 4);
+        long clockSeq = decode(value, 19, 4);
+        long node = decode(value, 24, 12);
+        if ((timeLow | timeMid | timeHi | clockSeq | node) < 0) {
+            return null;
+        }
+        return new UUID(timeLow << 32 | timeMid << 16 | timeHi, clockSeq << 48 | node);
+    }
+
+    /**
+     * Return a {@link UUID} if the supplied {@code value} is exactly a valid V1 UUID
+     * @param value A text representation of a UUID
+     * @return A V1 {@link UUID} or null if {@code value} is not a V1 UUID
+     */
+    public static UUID parse(ByteArray value) {
+        if (value == null || value.length() != UUID_TEXT_LENGTH
+                || value.getByte(8) != '-' || value.getByte(13) != '-' || value.getByte(18) != '-' || value.getByte(23) != '-'
+                || value.getByte(VERSION_INDEX) != '1') {
+            return null;
+        }
+        byte[] bytes = value.getBytes();
+        return parse(bytes, 0);
+    }
+
+    /**
+     * Return a {@link UUID} if the 36 bytes of {@code src} starting at {@code offset} are a valid V1 UUID
+     * @param src the buffer containing the text representation of a UUID
+     * @param offset the position in {@code src} where the UUID starts
+     * @return A V1 {@link UUID} or null if the bytes are not a V1 UUID
+     */
+    public static UUID parse(byte[] src, int offset) {
+        if (!matches(src, offset)) {
+            return null;
+        }
+        return new UUID(msb(src, offset), lsb(src, offset));
+    }
+
+    /**
+     * Check, without allocating, if the 36 bytes of {@code src} starting at {@code offset} are a valid V1 UUID
+     * @param src the buffer containing the text representation of a UUID
+     * @param offset the position in {@code src} where the UUID starts
+     * @return true if the bytes are a V1 UUID
+     */
+    public static boolean matches(byte[] src, int offset) {
+        return matches(src, offset, (byte) '1');
+    }
+
+    /**
+     * Check, without allocating, if the 36 bytes of {@code src} starting at {@code offset} are a valid UUID of a given version
+     * @param src the buffer containing the text representation of a UUID
+     * @param offset the position in {@code src} where the UUID starts
+     * @param version the version character the UUID must have, such as {@code '1'}
+     * @return true if the bytes are a UUID of that version
+     */
+    public static boolean matches(byte[] src, int offset, byte version) {
+        if (offset < 0 || src.length - offset < UUID_TEXT_LENGTH
+                || src[offset + 8] != '-' || src[offset + 13] != '-' || src[offset + 18] != '-' || src[offset + 23] != '-'
+                || src[offset + VERSION_INDEX] != version) {
+            return false;
+        }
+        return (decode(src, offset, 8) | decode(src, offset + 9, 4) | decode(src, offset + 14, 4)
+                | decode(src, offset + 19, 4) | decode(src, offset + 24, 12)) >= 0;
+    }
+
+    /**
+     * Decode the most significant bits of a UUID already validated by {@link #matches(byte[], int)}
+     * @param src the buffer containing the text representation of a UUID
+     * @param offset the position in {@code src} where the UUID starts
+     * @return the most significant bits of the UUID
+     */
+    public static long msb(byte[] src, int offset) {
+        return decode(src, offset, 8) << 32 | decode(src, offset + 9, 4) << 16 | decode(src, offset + 14, 4);
+    }
+
+    /**
+     * Decode the least significant bits of a UUID already validated by {@link #matches(byte[], int)}
+     * @param src the buffer containing the text representation of a UUID
+     * @param offset the position in {@code src} where the UUID starts
+     * @return the least significant bits of the UUID
+     */
+    public static long lsb(byte[] src, int offset) {
+        return decode(src, offset + 19, 4) << 48 | decode(src, offset + 24, 12);
+    }
+
+    /**
+     * Decode {@code length} hex characters, at most 15, into a value
+     * @return the decoded value or a negative number if any character is not a hex digit
+     */
+    private static long decode(CharSequence value, int offset, int length) {
+        long result = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char c = value.charAt(i);
+            if (c > 0xFF) {
+                return -1;
+            }
+            result = (result << 4) | HEX_VALUES[c];
+        }
+        return result;
+    }
+
+    /**
+     * Decode {@code length} hex bytes, at most 15, into a value
+     * @return the decoded value or a negative number if any byte is not a hex digit
+     */
+    private static long decode(byte[] src, int offset, int length) {
+        long result = 0;
+        for (int i = offset; i < offset + length; i++) {
+            result = (result << 4) | HEX_VALUES[src[i] & 0xFF];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,76 @@
+package main.java.com.staticflow;
+
+/**
+ * Plans the candidate window of an active scan from a request budget instead of a fixed step.<br>
+ * The window extends up to the configured number of seconds before the seed, but after the seed only up to the current time plus a
+ * small allowance for clock skew, since UUIDs from the future don't exist yet. The step is the finest of 100ns, 1us, 10us, 100us and
+ * 1ms that fits the whole window in the budget. If even 1ms steps don't fit, the window is narrowed around the seed rather than the
+ * step coarsened, because most V1 generators issue at millisecond resolution and a coarser step would skip straight past them.
+ * Formats with a coarser resolution, such as the millisecond timestamps of UUIDv7 and ULID, never get a step finer than it.
+ */
+public final class WindowPlanner {
+
+    // Candidate steps in 100 nanosecond ticks, finest first
+    private static final long[] STEPS = {1, 10, 100, 1_000, 10_000};
+    // Allowance for the target's clock running ahead of ours
+    private static final long CLOCK_SKEW_TICKS = 10 * V1CandidateGenerator.TICKS_PER_SECOND;
+
+    private WindowPlanner(){}
+
+    /**
+     * The window chosen for an active scan
+     * @param before the number of 100 nanosecond ticks before the seed to start the window
+     * @param after the number of 100 nanosecond ticks after the seed to end the window
+     * @param step the number of 100 nanosecond ticks between candidates
+     */
+    public record Plan(long before, long after, long step) {
+
+        /**
+         * Getter for the number of candidates in the window, including the seed
+         * @return the number of candidates
+         */
+        public long count() {
+            return before / step + after / step + 1;
+        }
+    }
+
+    /**
+     * Plan the window for a seed timestamp within a request budget
+     * @param seedTimestamp the 60 bit timestamp of the seed UUID
+     * @param nowTimestamp the current time as a 60 bit UUID timestamp
+     * @param maxSeconds the most seconds either side of the seed to cover
+     * @param budget the most candidate requests to send
+     * @return the planned window
+     */
+    public static Plan plan(long seedTimestamp, long nowTimestamp, int maxSeconds, long budget) {
+        return plan(seedTimestamp, nowTimestamp, maxSeconds, budget, 1);
+    }
+
+    /**
+     * Plan the window for a seed timestamp within a request budget, never stepping finer than the resolution of the seed's format
+     * @param seedTimestamp the 60 bit timestamp of the seed identifier
+     * @param nowTimestamp the current time as a 60 bit UUID timestamp
+     * @param maxSeconds the most seconds either side of the seed to cover
+     * @param budget the most candidate requests to send
+     * @param resolution the finest difference between two timestamps of the seed's format, in 100 nanosecond ticks
+     * @return the planned window
+     */
+    public static Plan plan(long seedTimestamp, long nowTimestamp, int maxSeconds, long budget, long resolution) {
+        long maxSpan = Math.max(0, maxSeconds) * V1CandidateGenerator.TICKS_PER_SECOND;
+        long before = maxSpan;
+        long after = Math.max(0, Math.min(maxSpan, nowTimestamp + CLOCK_SKEW_TICKS - seedTimestamp));
+        //The seed itself is never sent, so it doesn't count against the budget
+        long steps = Math.max(0, budget);
+        for (long step : STEPS) {
+            if (step >= resolution && before / step + after / step <= steps) {
+                return new Plan(before, after, step);
+            }
+        }
+        //Narrow the window around the seed, sharing the budget evenly and handing any unused share to the other side
+        long step = Math.max(STEPS[STEPS.length - 1], resolution);
+        long stepsAfter = Math.min(after / step, steps / 2);
+        long stepsBefore = Math.min(before / step, steps - stepsAfter);
+        stepsAfter = Math.min(after / step, steps - stepsBefore);
+        return new Plan(stepsBefore * step, stepsAfter * step, step);
+    }
+}
@@ -0,0 +1,118 @@
+package test.java;
+
+import main.java.com.staticflow.AdaptiveConcurrencyLimiter;
+import main.java.com.staticflow.CandidateScheduler;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class CandidateSchedulerTest {
+
+    @Test
+    void jobsOfOneHostTakeTurns() throws Exception {
+        CandidateScheduler scheduler = new CandidateScheduler();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("a:443", () -> 1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch secondQueued = new CountDownLatch(1);
+        Thread first = new Thread(() -> {
+            try {
+                scheduler.run("a:443", limiter, 5, position -> {
+                    if (position == 0) {
+                        try {
+                            secondQueued.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    order.add("A" + position);
+                }, () -> false);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        first.start();
+        while (!scheduler.describe().contains("audits=1")) {
+            Thread.sleep(1);
+        }
+        Thread second = new Thread(() -> {
+            try {
+                scheduler.run("a:443", limiter, 5, position -> order.add("B" + position), () -> false);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        second.start();
+        while (!scheduler.describe().contains("audits=2")) {
+            Thread.sleep(1);
+        }
+        secondQueued.countDown();
+        first.join(5000);
+        second.join(5000);
+        Assertions.assertEquals(List.of("A0", "B0", "A1", "B1", "A2", "B2", "A3", "B3", "A4", "B4"), order);
+        scheduler.shutdown();
+    }
+
+    @Test
+    void hostLimitIsRespected() throws Exception {
+        CandidateScheduler scheduler = new CandidateScheduler();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("a:443", () -> 8);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        Assertions.assertTrue(scheduler.run("a:443", limiter, 50, position -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+        }, () -> false));
+        //The limiter starts at a quarter of its maximum
+        Assertions.assertTrue(peak.get() <= limiter.limit());
+        scheduler.shutdown();
+    }
+
+    @Test
+    void stopRequestEndsTheJobEarly() throws Exception {
+        CandidateScheduler scheduler = new CandidateScheduler();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("a:443", () -> 1);
+        AtomicInteger handled = new AtomicInteger();
+        Assertions.assertTrue(scheduler.run("a:443", limiter, 1000, position -> handled.incrementAndGet(), () -> handled.get() >= 10));
+        Assertions.assertEquals(10, handled.get());
+        scheduler.shutdown();
+    }
+
+    @Test
+    void shutdownCancelsInFlightWork() throws Exception {
+        CandidateScheduler scheduler = new CandidateScheduler();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("a:443", () -> 4);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        AtomicBoolean completed = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(1);
+        Thread audit = new Thread(() -> {
+            try {
+                completed.set(scheduler.run("a:443", limiter, 1000, position -> {
+                    started.countDown();
+                    try {
+                        Thread.sleep(60_000);
+                    } catch (InterruptedException e) {
+                        interrupted.set(true);
+                    }
+                }, () -> false));
+            } catch (InterruptedException ignored) {
+            }
+        });
+        audit.start();
+        started.await();
+        scheduler.shutdown();
+        audit.join(5000);
+        Assertions.assertFalse(audit.isAlive());
+        Assertions.assertTrue(interrupted.get());
+        Assertions.assertFalse(completed.get());
+        Assertions.assertFalse(scheduler.run("a:443", limiter, 10, position -> Assertions.fail("ran after shutdown"), () -> false));
+    }
+}
@@ -0,0 +1,52 @@
+package test.java;
+
+import main.java.com.staticflow.CandidateSpace;
+import main.java.com.staticflow.TimeId;
+import main.java.com.staticflow.V1TimelineIndex;
+import main.java.com.staticflow.WindowPlanner;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+class CandidateSpaceTest {
+
+    private static final UUID SEED = UUID.fromString("95f6e264-bb00-11ec-8833-00155d01ef00");
+    private static final UUID OTHER = UUID.fromString("95f6e264-bb00-11ec-8834-00155d01ef00");
+
+    @Test
+    void coversEveryTimestampOfEveryVariantOnce() {
+        V1TimelineIndex index = new V1TimelineIndex();
+        index.record(TimeId.of(OTHER));
+        long[] variants = {SEED.getLeastSignificantBits(), OTHER.getLeastSignificantBits()};
+        CandidateSpace space = new CandidateSpace(TimeId.of(SEED), new WindowPlanner.Plan(50_000L, 50_000L, 1000L), variants, index, 5000L);
+        //the timestamps near the known UUID are listed ahead of the spiral as well as in it
+        Assertions.assertTrue(space.size() > 101L * 2);
+        byte[] buffer = new byte[36];
+        Set<TimeId> sent = new HashSet<>();
+        for (long position = 0; position < space.size(); position++) {
+            if (space.skip(position)) {
+                continue;
+            }
+            TimeId candidate = space.toId(position);
+            Assertions.assertTrue(sent.add(candidate));
+            Assertions.assertEquals(variants[space.variantAt(position)], candidate.lsb());
+            space.render(position, buffer, 0);
+            Assertions.assertEquals(candidate.toString(), new String(buffer));
+        }
+        //the seed itself and the known UUID of the other variant are never sent
+        Assertions.assertEquals(101 * 2 - 2, sent.size());
+        Assertions.assertFalse(sent.contains(TimeId.of(SEED)));
+        Assertions.assertFalse(sent.contains(TimeId.of(OTHER)));
+    }
+
+    @Test
+    void answeredKeysRoundTrip() {
+        long key = CandidateSpace.answeredKey(7, SEED.timestamp());
+        Assertions.assertEquals(7, CandidateSpace.variantOf(key));
+        Assertions.assertEquals(SEED.timestamp(), CandidateSpace.timestampOf(key));
+        Assertions.assertTrue(key > 0);
+    }
+}
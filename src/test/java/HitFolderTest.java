@@ -0,0 +1,47 @@
+package test.java;
+
+import burp.api.montoya.scanner.audit.issues.AuditIssue;
+import burp.api.montoya.scanner.audit.issues.AuditIssueConfidence;
+import burp.api.montoya.scanner.audit.issues.AuditIssueSeverity;
+import main.java.com.staticflow.TimeId;
+import main.java.com.staticflow.UuidHunterAuditIssue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.List;
+
+class HitFolderTest {
+
+    private static final TimeId SEED = TimeId.parse("95f6e264-bb00-11ec-8833-00155d01ef00");
+
+    @Test
+    void foldedHitsKeepTheirOwnClockSequenceAndNode() throws Exception {
+        //HitFolder is package private, it is only used by the active scan check
+        Class<?> folderClass = Class.forName("main.java.com.staticflow.HitFolder");
+        Constructor<?> constructor = folderClass.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        Object folder = constructor.newInstance();
+        Method offer = folderClass.getDeclaredMethod("offer", UuidHunterAuditIssue.class);
+        offer.setAccessible(true);
+        Method foldedIssues = folderClass.getDeclaredMethod("foldedIssues");
+        foldedIssues.setAccessible(true);
+
+        int hits = 24;
+        for (int i = 0; i < hits; i++) {
+            //Alternate between two nodes, as a sweep over several clock sequence and node variants does
+            TimeId hit = new TimeId(SEED.codec(), SEED.withTimestamp(SEED.timestamp() + i).msb(), SEED.lsb() + (i & 1));
+            offer.invoke(folder, new UuidHunterAuditIssue(hit, null, AuditIssueConfidence.FIRM, AuditIssueSeverity.HIGH));
+        }
+        @SuppressWarnings("unchecked")
+        List<AuditIssue> folded = (List<AuditIssue>) foldedIssues.invoke(folder);
+        Assertions.assertEquals(1, folded.size());
+        String detail = folded.get(0).detail();
+        Assertions.assertTrue(detail.contains("3 other candidates were also accepted"), detail);
+        for (int i = 21; i < hits; i++) {
+            TimeId hit = new TimeId(SEED.codec(), SEED.withTimestamp(SEED.timestamp() + i).msb(), SEED.lsb() + (i & 1));
+            Assertions.assertTrue(detail.contains(hit.toString()), hit + " is listed in " + detail);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package test.java;
+
+import main.java.com.staticflow.LatencyHistogram;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void estimatesPercentilesAsBucketUpperBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assertions.assertEquals(-1L, histogram.percentileMillis(50));
+        for (int i = 0; i < 98; i++) {
+            histogram.record(3 * MILLIS);
+        }
+        histogram.record(150 * MILLIS);
+        histogram.record(700 * MILLIS);
+        Assertions.assertEquals(100L, histogram.count());
+        Assertions.assertEquals(5L, histogram.percentileMillis(50));
+        Assertions.assertEquals(200L, histogram.percentileMillis(99));
+        Assertions.assertEquals(1_000L, histogram.percentileMillis(100));
+    }
+
+    @Test
+    void reportsTheLastBoundForLatenciesBeyondIt() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10 * MILLIS);
+        //A request that hung for two minutes lands in the overflow bucket
+        histogram.record(120_000 * MILLIS);
+        Assertions.assertEquals(10L, histogram.percentileMillis(50));
+        Assertions.assertEquals(30_000L, histogram.percentileMillis(99));
+    }
+}
@@ -0,0 +1,82 @@
+package test.java;
+
+import main.java.com.staticflow.MessageIdExtractor;
+import main.java.com.staticflow.MessageIdExtractor.Location;
+import main.java.com.staticflow.UlidCodec;
+import main.java.com.staticflow.UuidCodec;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+class MessageIdExtractorTest {
+
+    private static final String V1 = "95f6e264-bb00-11ec-8833-00155d01ef00";
+    private static final String V7 = "017f22e2-79b0-7cc3-98c4-dc0c0c07398f";
+    private static final String ULID = "01ARZ3NDEKTSV4RRFFQ69G5FAV";
+
+    private record Hit(int offset, Location location) {}
+
+    private static List<Hit> extract(String message, boolean response) {
+        byte[] bytes = message.getBytes(StandardCharsets.US_ASCII);
+        int bodyOffset = message.indexOf("\r\n\r\n") + 4;
+        List<Hit> hits = new ArrayList<>();
+        MessageIdExtractor.extract(bytes, bodyOffset, response, (codec, msb, lsb, offset, location) -> hits.add(new Hit(offset, location)));
+        return hits;
+    }
+
+    @Test
+    void locatesEveryPartOfARequest() {
+        String request = "POST /orders/" + V1 + "/items?after=" + ULID + " HTTP/1.1\r\n"
+                + "Host: shop.example\r\n"
+                + "X-Request-Id: " + V7 + "\r\n"
+                + "cookie: theme=dark; session=" + V1 + "\r\n"
+                + "Cookie2: " + V1 + "\r\n"
+                + "\r\n"
+                + "{\"parent\":\"" + V7 + "\"}";
+        List<Hit> hits = extract(request, false);
+        Assertions.assertEquals(List.of(
+                new Hit(request.indexOf(V1), Location.PATH),
+                new Hit(request.indexOf(ULID), Location.QUERY),
+                new Hit(request.indexOf(V7), Location.REQUEST_HEADER),
+                new Hit(request.indexOf("session=") + 8, Location.COOKIE),
+                new Hit(request.indexOf("Cookie2: ") + 9, Location.REQUEST_HEADER),
+                new Hit(request.lastIndexOf(V7), Location.REQUEST_BODY)), hits);
+    }
+
+    @Test
+    void locatesEveryPartOfAResponse() {
+        String response = "HTTP/1.1 200 OK\r\n"
+                + "Set-Cookie: id=" + ULID + "; HttpOnly\r\n"
+                + "Location: /orders/" + V1 + "\r\n"
+                + "\r\n"
+                + "{\"id\":\"" + V1 + "\",\"at\":\"" + V7 + "\"}";
+        List<Hit> hits = extract(response, true);
+        Assertions.assertEquals(List.of(
+                new Hit(response.indexOf(ULID), Location.SET_COOKIE),
+                new Hit(response.indexOf(V1), Location.RESPONSE_HEADER),
+                new Hit(response.lastIndexOf(V1), Location.RESPONSE_BODY),
+                new Hit(response.indexOf(V7), Location.RESPONSE_BODY)), hits);
+        Assertions.assertTrue(hits.stream().allMatch(hit -> hit.location().inResponse()));
+    }
+
+    @Test
+    void locatesASinglePosition() {
+        String request = "POST /orders/1?parent=2 HTTP/1.1\r\nHost: x\r\n\r\n{\"parent\":3}";
+        byte[] bytes = request.getBytes(StandardCharsets.US_ASCII);
+        int bodyOffset = request.indexOf("\r\n\r\n") + 4;
+        Assertions.assertEquals(Location.PATH, MessageIdExtractor.locate(bytes, bodyOffset, false, request.indexOf('1')));
+        Assertions.assertEquals(Location.QUERY, MessageIdExtractor.locate(bytes, bodyOffset, false, request.indexOf('2')));
+        Assertions.assertEquals(Location.REQUEST_BODY, MessageIdExtractor.locate(bytes, bodyOffset, false, request.indexOf('3')));
+    }
+
+    @Test
+    void reportsTheFormatOfEachHit() {
+        byte[] bytes = ("GET /" + ULID + "?v1=" + V1 + " HTTP/1.1\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        List<Object> codecs = new ArrayList<>();
+        MessageIdExtractor.extract(bytes, bytes.length, false, (codec, msb, lsb, offset, location) -> codecs.add(codec));
+        Assertions.assertEquals(List.of(UlidCodec.ULID, UuidCodec.V1), codecs);
+    }
+}
@@ -0,0 +1,174 @@
+package test.java;
+
+import burp.api.montoya.core.ByteArray;
+import burp.api.montoya.http.HttpService;
+import burp.api.montoya.http.message.HttpHeader;
+import burp.api.montoya.http.message.HttpRequestResponse;
+import burp.api.montoya.http.message.requests.HttpRequest;
+import burp.api.montoya.http.message.responses.HttpResponse;
+import burp.api.montoya.persistence.PersistedObject;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Stand ins for the Montoya interfaces the tests hand to the extension, built with {@link Proxy}.<br>
+ * Each stub only implements the methods the extension calls and throws {@link UnsupportedOperationException} for the rest, so a test
+ * notices when the extension starts relying on something new.
+ */
+final class MontoyaStubs {
+
+    private MontoyaStubs() {
+    }
+
+    /**
+     * Implement an interface by method name, answering the methods of {@link Object} by identity
+     * @param type the interface to implement
+     * @param handler answers every other method from its name and arguments
+     * @return the stub
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, BiFunction<String, Object[], Object> handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> switch (method.getName()) {
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> type.getSimpleName();
+            default -> handler.apply(method.getName(), args);
+        });
+    }
+
+    /**
+     * Build a persisted object backed by a map, only implementing the string methods
+     * @param strings the map the strings are kept in, so tests can inspect or tamper with them
+     * @return the persisted object
+     */
+    static PersistedObject persisted(Map<String, String> strings) {
+        return stub(PersistedObject.class, (method, args) -> switch (method) {
+            case "getString" -> strings.get((String) args[0]);
+            case "setString" -> strings.put((String) args[0], (String) args[1]);
+            case "deleteString" -> strings.remove((String) args[0]);
+            case "stringKeys" -> new HashSet<>(strings.keySet());
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    /**
+     * Wrap bytes without copying them, as Burp Suite's byte arrays are mutable views of the message
+     * @param data the bytes to wrap
+     * @return the byte array
+     */
+    static ByteArray bytes(byte[] data) {
+        return stub(ByteArray.class, (method, args) -> switch (method) {
+            case "getBytes" -> data;
+            case "length" -> data.length;
+            case "getByte" -> data[(int) args[0]];
+            case "copy" -> bytes(data.clone());
+            case "setBytes" -> {
+                byte[] value = (byte[]) args[1];
+                System.arraycopy(value, 0, data, (int) args[0], value.length);
+                yield null;
+            }
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    /**
+     * Build a service, secure when it is on port 443
+     * @param host the host name
+     * @param port the port
+     * @return the service
+     */
+    static HttpService service(String host, int port) {
+        return stub(HttpService.class, (method, args) -> switch (method) {
+            case "host" -> host;
+            case "port" -> port;
+            case "secure" -> port == 443;
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    private static HttpHeader header(String name, String value) {
+        return stub(HttpHeader.class, (method, args) -> switch (method) {
+            case "name" -> name;
+            case "value" -> value;
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    private static List<HttpHeader> headers(byte[] raw, int bodyOffset) {
+        String[] lines = new String(raw, 0, bodyOffset, StandardCharsets.ISO_8859_1).split("\r\n");
+        List<HttpHeader> headers = new ArrayList<>();
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon > 0) {
+                headers.add(header(lines[i].substring(0, colon), lines[i].substring(colon + 1).trim()));
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * Build a request from its raw bytes
+     * @param service the service the request is sent to
+     * @param raw the request line, headers and body
+     * @return the request
+     */
+    static HttpRequest request(HttpService service, ByteArray raw) {
+        byte[] data = raw.getBytes();
+        String text = new String(data, StandardCharsets.ISO_8859_1);
+        int bodyOffset = text.indexOf("\r\n\r\n") + 4;
+        String path = text.substring(text.indexOf(' ') + 1, text.indexOf(' ', text.indexOf(' ') + 1));
+        return stub(HttpRequest.class, (method, args) -> switch (method) {
+            case "httpService" -> service;
+            case "withService" -> request((HttpService) args[0], raw);
+            case "toByteArray" -> raw;
+            case "path" -> path;
+            case "url" -> "http://" + service.host() + ":" + service.port() + path;
+            case "method" -> text.substring(0, text.indexOf(' '));
+            case "headers" -> headers(data, bodyOffset);
+            case "parameters" -> List.of();
+            case "bodyOffset" -> bodyOffset;
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    /**
+     * Build a response from its raw bytes
+     * @param raw the status line, headers and body
+     * @param bodyOffset where the body starts
+     * @return the response
+     */
+    static HttpResponse response(byte[] raw, int bodyOffset) {
+        short status = Short.parseShort(new String(raw, 9, 3, StandardCharsets.US_ASCII));
+        return stub(HttpResponse.class, (method, args) -> switch (method) {
+            case "statusCode" -> status;
+            case "toByteArray" -> bytes(raw);
+            case "bodyOffset" -> bodyOffset;
+            case "headers" -> headers(raw, bodyOffset);
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    /**
+     * Pair a request with its response
+     * @param request the request
+     * @param response the response
+     * @return the request/response
+     */
+    static HttpRequestResponse requestResponse(HttpRequest request, HttpResponse response) {
+        return stub(HttpRequestResponse.class, (method, args) -> switch (method) {
+            case "request" -> request;
+            case "response" -> response;
+            case "httpService" -> request.httpService();
+            case "url" -> request.url();
+            case "statusCode" -> response.statusCode();
+            case "withResponseMarkers", "withRequestMarkers" -> requestResponse(request, response);
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+}
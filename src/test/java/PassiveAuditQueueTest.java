@@ -0,0 +1,89 @@
+package test.java;
+
+import main.java.com.staticflow.PassiveAuditQueue;
+import main.java.com.staticflow.ScanMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class PassiveAuditQueueTest {
+
+    private static final long SMALL_BODY = 1024;
+    private static final long LARGE_BODY = 4L << 20;
+
+    private static long metric(ScanMetrics metrics, String name) {
+        return metrics.snapshot().get(name);
+    }
+
+    @Test
+    void degradesInsteadOfBlockingWhenWorkersFallBehind() throws InterruptedException {
+        ScanMetrics metrics = new ScanMetrics();
+        PassiveAuditQueue queue = new PassiveAuditQueue(4, 1, metrics);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Boolean> skipped = new CopyOnWriteArrayList<>();
+        PassiveAuditQueue.Audit audit = (requestResponse, skipResponseBody) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            skipped.add(skipResponseBody);
+        };
+        try {
+            //The single worker holds the first entry until released
+            Assertions.assertTrue(queue.submit(null, LARGE_BODY, audit));
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+            Assertions.assertTrue(queue.submit(null, LARGE_BODY, audit));
+            Assertions.assertTrue(queue.submit(null, SMALL_BODY, audit));
+            //Half full, so a large body is skipped but a small one isn't
+            Assertions.assertTrue(queue.submit(null, LARGE_BODY, audit));
+            Assertions.assertTrue(queue.submit(null, SMALL_BODY, audit));
+            //Full, so new entries are dropped straight away
+            Assertions.assertFalse(queue.submit(null, SMALL_BODY, audit));
+            Assertions.assertEquals(4, queue.depth());
+            Assertions.assertEquals(4L, metric(metrics, "passive_queue_depth"));
+            Assertions.assertEquals(1L, metric(metrics, "passive_dropped"));
+            Assertions.assertEquals(1L, metric(metrics, "passive_bodies_skipped"));
+
+            release.countDown();
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (skipped.size() < 5 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assertions.assertEquals(List.of(false, false, false, true, false), skipped);
+            Assertions.assertEquals(0L, metric(metrics, "passive_queue_depth"));
+        } finally {
+            release.countDown();
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void shutdownDiscardsQueuedEntries() throws InterruptedException {
+        ScanMetrics metrics = new ScanMetrics();
+        PassiveAuditQueue queue = new PassiveAuditQueue(8, 1, metrics);
+        CountDownLatch started = new CountDownLatch(1);
+        PassiveAuditQueue.Audit blocking = (requestResponse, skipResponseBody) -> {
+            started.countDown();
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        queue.submit(null, SMALL_BODY, blocking);
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        queue.submit(null, SMALL_BODY, blocking);
+        queue.submit(null, SMALL_BODY, blocking);
+        queue.shutdown();
+        Assertions.assertEquals(0, queue.depth());
+        Assertions.assertEquals(0L, metric(metrics, "passive_queue_depth"));
+        Assertions.assertFalse(queue.submit(null, SMALL_BODY, blocking));
+    }
+}
@@ -0,0 +1,67 @@
+package test.java;
+
+import main.java.com.staticflow.PassiveResultCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+class PassiveResultCacheTest {
+
+    private static long hash(String url, String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+        return new PassiveResultCache.Hasher().add(url).add(bytes, 0, bytes.length).hash();
+    }
+
+    @Test
+    void sameContentsHashTheSame() {
+        Assertions.assertEquals(hash("https://a/x", "{\"id\":\"95f6e264-bb00-11ec-8833-00155d01ef00\"}"),
+                hash("https://a/x", "{\"id\":\"95f6e264-bb00-11ec-8833-00155d01ef00\"}"));
+        Assertions.assertNotEquals(hash("https://a/x", "{\"id\":\"95f6e264-bb00-11ec-8833-00155d01ef00\"}"),
+                hash("https://a/x", "{\"id\":\"95f6e265-bb00-11ec-8833-00155d01ef00\"}"));
+        Assertions.assertNotEquals(hash("https://a/x", "body"), hash("https://a/y", "body"));
+        //Values can't run into each other
+        Assertions.assertNotEquals(hash("https://a/x", "body"), hash("https://a/xb", "ody"));
+        Assertions.assertNotEquals(hash("", ""), hash("", "\0"));
+    }
+
+    @Test
+    void bodyRangeIsHashedNotTheWholeArray() {
+        byte[] first = "HTTP/1.1 200 OK\r\nDate: 1\r\n\r\nbody-bytes".getBytes(StandardCharsets.US_ASCII);
+        byte[] second = "HTTP/1.1 200 OK\r\nDate: 2\r\n\r\nbody-bytes".getBytes(StandardCharsets.US_ASCII);
+        Assertions.assertEquals(new PassiveResultCache.Hasher().add(first, 28, first.length).hash(),
+                new PassiveResultCache.Hasher().add(second, 28, second.length).hash());
+    }
+
+    private static long headerHash(String head) {
+        byte[] bytes = head.getBytes(StandardCharsets.US_ASCII);
+        return new PassiveResultCache.Hasher().addIdBearingLines(bytes, 0, bytes.length).hash();
+    }
+
+    @Test
+    void headerLinesWhichCantHoldAnIdentifierAreLeftOut() {
+        String head = "HTTP/1.1 200 OK\r\nDate: %s\r\nSet-Cookie: id=%s; HttpOnly\r\nContent-Length: %d\r\n\r\n";
+        Assertions.assertEquals(headerHash(String.format(head, "Sun, 18 Oct 2026 04:12:07 GMT", "01ARZ3NDEKTSV4RRFFQ69G5FAV", 10)),
+                headerHash(String.format(head, "Sun, 18 Oct 2026 04:12:09 GMT", "01ARZ3NDEKTSV4RRFFQ69G5FAV", 12)));
+        Assertions.assertNotEquals(headerHash(String.format(head, "Sun, 18 Oct 2026 04:12:07 GMT", "01ARZ3NDEKTSV4RRFFQ69G5FAV", 10)),
+                headerHash(String.format(head, "Sun, 18 Oct 2026 04:12:07 GMT", "01ARZ3NDEKTSV4RRFFQ69G5FAW", 10)));
+        //A UUID inside a longer value still marks its line
+        Assertions.assertNotEquals(headerHash("Location: /orders/95f6e264-bb00-11ec-8833-00155d01ef00/items\r\n"),
+                headerHash("Location: /orders/95f6e265-bb00-11ec-8833-00155d01ef00/items\r\n"));
+    }
+
+    @Test
+    void repeatsAreRecognisedAndOldestEvicted() {
+        PassiveResultCache cache = new PassiveResultCache();
+        Assertions.assertFalse(cache.markScanned(1L));
+        Assertions.assertTrue(cache.markScanned(1L));
+        for (long hash = 2; hash <= 65537; hash++) {
+            cache.markScanned(hash);
+        }
+        //1 was the least recently seen when the cache overflowed, so it was evicted
+        Assertions.assertFalse(cache.markScanned(1L));
+        //Adding 1 back evicted 2, while the most recent hash is still held
+        Assertions.assertTrue(cache.markScanned(65537L));
+        Assertions.assertFalse(cache.markScanned(2L));
+    }
+}
@@ -0,0 +1,87 @@
+package test.java;
+
+import burp.api.montoya.http.message.responses.HttpResponse;
+import main.java.com.staticflow.ResponseBaseline;
+import main.java.com.staticflow.TimeId;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+class ResponseBaselineTest {
+
+    private static final UUID SEED = UUID.fromString("95f6e264-bb00-11ec-8833-00155d01ef00");
+
+    /**
+     * Build a response with the given status and body
+     */
+    private static HttpResponse response(int status, String body) {
+        String head = "HTTP/1.1 " + status + " X\r\nContent-Type: text/html\r\n\r\n";
+        byte[] bytes = (head + body).getBytes(StandardCharsets.US_ASCII);
+        return MontoyaStubs.response(bytes, head.length());
+    }
+
+    private static ResponseBaseline.Fingerprint fingerprint(int status, String bodyTemplate, UUID uuid) {
+        byte[] payload = uuid.toString().getBytes(StandardCharsets.US_ASCII);
+        return ResponseBaseline.fingerprint(response(status, bodyTemplate.replace("{id}", uuid.toString())), payload);
+    }
+
+    @Test
+    void controlsAreFarFromTheSeed() {
+        List<UUID> controls = ResponseBaseline.controlPayloads(TimeId.of(SEED)).stream()
+                .map(payload -> UUID.fromString(new String(payload, StandardCharsets.US_ASCII))).toList();
+        Assertions.assertEquals(4, controls.size());
+        Assertions.assertEquals(4, controls.get(0).version());
+        Assertions.assertEquals(1, controls.get(2).version());
+        Assertions.assertEquals(SEED.node(), controls.get(2).node());
+        Assertions.assertEquals(SEED.clockSequence(), controls.get(3).clockSequence());
+        Assertions.assertTrue(SEED.timestamp() - controls.get(2).timestamp() > 300L * 24 * 60 * 60 * 10_000_000L);
+        Assertions.assertTrue(controls.get(3).timestamp() < controls.get(2).timestamp());
+    }
+
+    @Test
+    void controlsKeepTheSeedsFormat() {
+        //Recent enough that the controls a year or two back are still plausible ULIDs
+        TimeId ulid = TimeId.parse("01G0NTKX00TSV4RRFFQ69G5FAV");
+        List<TimeId> controls = ResponseBaseline.controlPayloads(ulid).stream()
+                .map(payload -> TimeId.parse(new String(payload, StandardCharsets.US_ASCII))).toList();
+        Assertions.assertEquals(4, controls.size());
+        controls.forEach(control -> Assertions.assertEquals(ulid.codec(), control.codec()));
+        Assertions.assertEquals(ulid.lsb(), controls.get(2).lsb());
+        Assertions.assertTrue(controls.get(3).timestamp() < controls.get(2).timestamp());
+    }
+
+    @Test
+    void echoedPayloadIsIgnored() {
+        String softNotFound = "<html>No item {id} here, {id} was not found</html>";
+        ResponseBaseline baseline = new ResponseBaseline(List.of(
+                fingerprint(200, softNotFound, UUID.randomUUID()), fingerprint(200, softNotFound, UUID.randomUUID())));
+        Assertions.assertTrue(baseline.isPermissive());
+        Assertions.assertTrue(baseline.matches(fingerprint(200, softNotFound, SEED)));
+        Assertions.assertFalse(baseline.matches(fingerprint(200, "<html>Item {id}: owner alice</html>", SEED)));
+        Assertions.assertFalse(baseline.matches(fingerprint(302, softNotFound, SEED)));
+    }
+
+    @Test
+    void dynamicPagesAreComparedByLength() {
+        String page = "<html><input name=csrf value=%s>Not found</html>";
+        ResponseBaseline baseline = new ResponseBaseline(List.of(
+                fingerprint(200, String.format(page, "aaaa1111"), UUID.randomUUID()),
+                fingerprint(200, String.format(page, "bbbb2222"), UUID.randomUUID())));
+        Assertions.assertTrue(baseline.matches(fingerprint(200, String.format(page, "cccc3333"), SEED)));
+        Assertions.assertFalse(baseline.matches(fingerprint(200, String.format(page, "cccc3333") + "x".repeat(200), SEED)));
+
+        //A static page is only matched by its exact body
+        ResponseBaseline fixed = new ResponseBaseline(List.of(fingerprint(200, String.format(page, "aaaa1111"), UUID.randomUUID())));
+        Assertions.assertFalse(fixed.matches(fingerprint(200, String.format(page, "cccc3333"), SEED)));
+    }
+
+    @Test
+    void notFoundBaselineIsNotPermissive() {
+        ResponseBaseline baseline = new ResponseBaseline(List.of(fingerprint(404, "missing", UUID.randomUUID())));
+        Assertions.assertFalse(baseline.isPermissive());
+        Assertions.assertFalse(new ResponseBaseline(List.of()).isPermissive());
+    }
+}
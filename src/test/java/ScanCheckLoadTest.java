@@ -0,0 +1,463 @@
+package test.java;
+
+import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.core.ByteArray;
+import burp.api.montoya.http.HttpService;
+import burp.api.montoya.http.message.HttpRequestResponse;
+import burp.api.montoya.http.message.requests.HttpRequest;
+import burp.api.montoya.http.message.responses.HttpResponse;
+import burp.api.montoya.internal.MontoyaObjectFactory;
+import burp.api.montoya.internal.ObjectFactoryLocator;
+import burp.api.montoya.persistence.PersistedObject;
+import burp.api.montoya.scanner.AuditResult;
+import burp.api.montoya.scanner.audit.insertionpoint.AuditInsertionPoint;
+import burp.api.montoya.scanner.audit.issues.AuditIssue;
+import burp.api.montoya.scanner.audit.issues.AuditIssueConfidence;
+import com.sun.net.httpserver.HttpServer;
+import main.java.com.staticflow.ExtensionState;
+import main.java.com.staticflow.UuidHunterScannerCheck;
+import main.java.com.staticflow.V1CandidateGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static test.java.MontoyaStubs.bytes;
+import static test.java.MontoyaStubs.persisted;
+import static test.java.MontoyaStubs.request;
+import static test.java.MontoyaStubs.requestResponse;
+import static test.java.MontoyaStubs.response;
+import static test.java.MontoyaStubs.service;
+import static test.java.MontoyaStubs.stub;
+
+/**
+ * End to end load test of {@link UuidHunterScannerCheck} against a stub Burp Suite.<br>
+ * The Montoya interfaces are implemented with {@link MontoyaStubs}, and candidate requests are sent over real HTTP to an in-process server
+ * with configurable latency, jitter and set of valid identifiers. Each run records throughput, time to first hit and peak heap to a
+ * JSON file under {@code target/load-test}, then fails if any of them is worse than the checked in baseline by more than the tolerance,
+ * e.g. {@code -Duuidhunter.load.tolerance=0.2}. Tagged {@code load}, so it only runs with {@code mvn -P load test}.
+ */
+@Tag("load")
+class ScanCheckLoadTest {
+
+    private static final UUID SEED = UUID.fromString("95f6e264-bb00-11ec-8833-00155d01ef00");
+    // Candidates the server accepts, as steps of 1ms either side of the seed, all inside the smallest window
+    private static final long[] VALID_STEPS = {37, -120, 240};
+    // Candidate budgets of the active runs, the largest covers the whole window
+    private static final int[] WINDOWS = {500, 1000, 4000};
+    // Response body sizes of the passive runs
+    private static final int[] BODY_SIZES = {1024, 65536, 1048576};
+    // How much response body each passive run scans
+    private static final long PASSIVE_BYTES_PER_RUN = 32L << 20;
+
+    private static final int LATENCY_MILLIS = Integer.getInteger("uuidhunter.load.latencyMs", 1);
+    private static final int JITTER_MILLIS = Integer.getInteger("uuidhunter.load.jitterMs", 1);
+    private static final Path RESULTS = Path.of(System.getProperty("uuidhunter.load.out", "target/load-test"));
+    // Measured results of each run to compare against, keyed by window or body size
+    private static final Path BASELINE = Path.of(System.getProperty("uuidhunter.load.baseline", "src/test/resources/load-baseline.json"));
+    // How much worse than the baseline a result may be, as a fraction of the baseline
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("uuidhunter.load.tolerance", "0.5"));
+
+    // Settings of the shared extension state before each run, put back afterwards so other tests see them unchanged
+    private MontoyaApi savedCallbacks;
+    private MontoyaObjectFactory savedFactory;
+    private int savedScanRange;
+    private int savedConcurrency;
+    private boolean savedStreamIssues;
+    private int savedMaxConfirmedHits;
+    private int savedInsertionPointBudget;
+    private int savedHostBudget;
+    private boolean savedBackgroundPassive;
+
+    /**
+     * A stub Burp Suite whose HTTP client forwards to an in-process server
+     */
+    private static final class StubBurp {
+        final HttpServer server;
+        final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        final ExecutorService serverThreads = Executors.newFixedThreadPool(128);
+        final Set<String> valid = ConcurrentHashMap.newKeySet();
+        final AtomicLong served = new AtomicLong();
+        final AtomicLong firstHitNanos = new AtomicLong();
+        final List<AuditIssue> siteMap = new ArrayList<>();
+        final MontoyaApi api;
+
+        StubBurp() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/orders/", exchange -> {
+                try {
+                    Thread.sleep(LATENCY_MILLIS + (JITTER_MILLIS > 0 ? ThreadLocalRandom.current().nextInt(JITTER_MILLIS + 1) : 0));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                String id = exchange.getRequestURI().getPath().substring("/orders/".length());
+                boolean found = valid.contains(id);
+                byte[] body = (found ? "{\"order\":\"" + id + "\",\"total\":42}" : "{\"error\":\"not found\"}").getBytes(StandardCharsets.US_ASCII);
+                served.incrementAndGet();
+                exchange.sendResponseHeaders(found ? 200 : 404, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.setExecutor(serverThreads);
+            server.start();
+            PersistedObject extensionData = persisted(new ConcurrentHashMap<>());
+            Object persistence = stub(burp.api.montoya.persistence.Persistence.class, (method, args) -> switch (method) {
+                case "extensionData" -> extensionData;
+                case "preferences" -> stub(burp.api.montoya.persistence.Preferences.class, (name, values) -> null);
+                default -> null;
+            });
+            Object http = stub(burp.api.montoya.http.Http.class, (method, args) -> send((HttpRequest) args[0]));
+            Object siteMapStub = stub(burp.api.montoya.sitemap.SiteMap.class, (method, args) -> {
+                AuditIssue issue = (AuditIssue) args[0];
+                if (issue.confidence() == AuditIssueConfidence.FIRM) {
+                    firstHitNanos.compareAndSet(0, System.nanoTime());
+                }
+                synchronized (siteMap) {
+                    siteMap.add(issue);
+                }
+                return null;
+            });
+            Object logging = stub(burp.api.montoya.logging.Logging.class, (method, args) -> null);
+            api = stub(MontoyaApi.class, (method, args) -> switch (method) {
+                case "http" -> http;
+                case "persistence" -> persistence;
+                case "siteMap" -> siteMapStub;
+                case "logging" -> logging;
+                default -> throw new UnsupportedOperationException(method);
+            });
+        }
+
+        /**
+         * Forward a candidate request to the in-process server and wrap its answer as Burp Suite would
+         */
+        HttpRequestResponse send(HttpRequest request) {
+            try {
+                java.net.http.HttpResponse<byte[]> answer = client.send(java.net.http.HttpRequest.newBuilder(
+                                URI.create("http://127.0.0.1:" + server.getAddress().getPort() + request.path())).build(),
+                        java.net.http.HttpResponse.BodyHandlers.ofByteArray());
+                byte[] head = ("HTTP/1.1 " + answer.statusCode() + " X\r\nContent-Type: application/json\r\nContent-Length: "
+                        + answer.body().length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+                byte[] raw = Arrays.copyOf(head, head.length + answer.body().length);
+                System.arraycopy(answer.body(), 0, raw, head.length, answer.body().length);
+                return requestResponse(request, response(raw, head.length));
+            } catch (IOException e) {
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        void close() {
+            server.stop(0);
+            serverThreads.shutdownNow();
+        }
+    }
+
+    private static AuditInsertionPoint insertionPoint(HttpService service, String baseValue) {
+        return stub(AuditInsertionPoint.class, (method, args) -> switch (method) {
+            case "baseValue" -> baseValue;
+            case "name" -> "id";
+            case "buildHttpRequestWithPayload" -> request(service, bytes(("GET /orders/"
+                    + new String(((ByteArray) args[0]).getBytes(), StandardCharsets.US_ASCII)
+                    + " HTTP/1.1\r\nHost: " + service.host() + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII)));
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    /**
+     * Stand in for the object factory Burp Suite installs, so the static Montoya builders work outside of Burp Suite
+     */
+    @SuppressWarnings("unchecked")
+    private static void installObjectFactory() {
+        ObjectFactoryLocator.FACTORY = stub(MontoyaObjectFactory.class, (method, args) -> switch (method) {
+            case "byteArray" -> args[0] instanceof String text ? bytes(text.getBytes(StandardCharsets.ISO_8859_1)) : bytes(((byte[]) args[0]).clone());
+            case "httpRequest" -> request((HttpService) args[0], (ByteArray) args[1]);
+            case "auditResult" -> {
+                List<AuditIssue> issues = List.copyOf((List<AuditIssue>) args[0]);
+                yield stub(AuditResult.class, (name, values) -> issues);
+            }
+            case "marker" -> stub(burp.api.montoya.core.Marker.class, (name, values) -> null);
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    /**
+     * The extension's shared state
+     */
+    private static ExtensionState extensionState() throws ReflectiveOperationException {
+        Method getInstance = ExtensionState.class.getDeclaredMethod("getInstance");
+        getInstance.setAccessible(true);
+        return (ExtensionState) getInstance.invoke(null);
+    }
+
+    /**
+     * The extension's shared state, as Burp Suite sets it up when the extension loads
+     */
+    private static ExtensionState extensionState(MontoyaApi api) throws ReflectiveOperationException {
+        ExtensionState state = extensionState();
+        state.setCallbacks(api);
+        return state;
+    }
+
+    @BeforeEach
+    void saveSettings() throws ReflectiveOperationException {
+        ExtensionState state = extensionState();
+        savedCallbacks = state.getCallbacks();
+        savedFactory = ObjectFactoryLocator.FACTORY;
+        savedScanRange = state.getUuidScanRange();
+        savedConcurrency = state.getRequestConcurrency();
+        savedStreamIssues = state.isStreamIssues();
+        savedMaxConfirmedHits = state.getMaxConfirmedHits();
+        savedInsertionPointBudget = state.getInsertionPointBudget();
+        savedHostBudget = state.getHostBudget();
+        savedBackgroundPassive = state.isBackgroundPassive();
+    }
+
+    @AfterEach
+    void restoreSettings() throws ReflectiveOperationException {
+        ExtensionState state = extensionState();
+        state.setUuidScanRange(savedScanRange);
+        state.setRequestConcurrency(savedConcurrency);
+        state.setStreamIssues(savedStreamIssues);
+        state.setMaxConfirmedHits(savedMaxConfirmedHits);
+        state.setInsertionPointBudget(savedInsertionPointBudget);
+        state.setHostBudget(savedHostBudget);
+        state.setBackgroundPassive(savedBackgroundPassive);
+        state.resetHostRequestCounts();
+        state.setCallbacks(savedCallbacks);
+        ObjectFactoryLocator.FACTORY = savedFactory;
+    }
+
+    /**
+     * Forget the peak heap use so far and collect garbage, so the next reading covers a single run
+     */
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeapMb() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak >> 20;
+    }
+
+    private static void writeResults(String name, String json) throws IOException {
+        Files.createDirectories(RESULTS);
+        Files.writeString(RESULTS.resolve(name), json, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read one measurement of a run from the baseline file
+     * @param section "active" or "passive"
+     * @param run the window or body size of the run
+     * @param metric the name of the measurement, as written to the results
+     * @return the baseline value of the measurement
+     */
+    private static double baseline(String section, int run, String metric) throws IOException {
+        String json = Files.readString(BASELINE, StandardCharsets.UTF_8);
+        Matcher sectionStart = Pattern.compile("\"" + section + "\"\\s*:").matcher(json);
+        Matcher runValues = Pattern.compile("\"" + run + "\"\\s*:\\s*\\{([^}]*)}").matcher(json);
+        if (!sectionStart.find() || !runValues.find(sectionStart.end())) {
+            throw new IOException("No " + section + " run " + run + " in " + BASELINE);
+        }
+        Matcher value = Pattern.compile("\"" + metric + "\"\\s*:\\s*([0-9.]+)").matcher(runValues.group(1));
+        if (!value.find()) {
+            throw new IOException("No " + metric + " for " + section + " run " + run + " in " + BASELINE);
+        }
+        return Double.parseDouble(value.group(1));
+    }
+
+    /**
+     * Note a failure if a measurement that should be high fell below its baseline by more than the tolerance
+     */
+    private static void atLeast(List<String> failures, String section, int run, String metric, double measured) throws IOException {
+        double floor = baseline(section, run, metric) * (1 - TOLERANCE);
+        if (measured < floor) {
+            failures.add(section + " run " + run + ": " + metric + " was " + measured + ", below " + floor);
+        }
+    }
+
+    /**
+     * Note a failure if a measurement that should be low rose above its baseline by more than the tolerance
+     */
+    private static void atMost(List<String> failures, String section, int run, String metric, double measured) throws IOException {
+        double ceiling = baseline(section, run, metric) * (1 + TOLERANCE);
+        if (measured > ceiling) {
+            failures.add(section + " run " + run + ": " + metric + " was " + measured + ", above " + ceiling);
+        }
+    }
+
+    @Test
+    void activeAuditThroughput() throws Exception {
+        installObjectFactory();
+        StubBurp burp = new StubBurp();
+        try {
+            ExtensionState state = extensionState(burp.api);
+            state.setUuidScanRange(2);
+            state.setRequestConcurrency(32);
+            state.setStreamIssues(true);
+            state.setMaxConfirmedHits(0);
+            state.setHostBudget(Integer.MAX_VALUE);
+            UuidHunterScannerCheck check = new UuidHunterScannerCheck();
+            StringBuilder json = new StringBuilder(String.format(Locale.ROOT, "{\"latency_ms\":%d,\"jitter_ms\":%d,\"runs\":[",
+                    LATENCY_MILLIS, JITTER_MILLIS));
+            List<String> failures = new ArrayList<>();
+            //Write whatever was measured even if a run throws, so a regression can be compared against the baseline
+            try {
+                for (int i = 0; i < WINDOWS.length; i++) {
+                    int window = WINDOWS[i];
+                    state.setInsertionPointBudget(window);
+                    //A node of its own per run, as hits of earlier runs are already known and wouldn't be sent again
+                    UUID seed = new UUID(SEED.getMostSignificantBits(), SEED.getLeastSignificantBits() + i);
+                    for (long step : VALID_STEPS) {
+                        burp.valid.add(new UUID(V1CandidateGenerator.msbFor(seed.timestamp() + step * 10_000L), seed.getLeastSignificantBits()).toString());
+                    }
+                    //A host of its own per run, so no candidate counts as already sent by an earlier run
+                    HttpService service = service("window-" + window + ".test", 80);
+                    HttpRequest base = request(service, bytes(("GET /orders/" + seed + " HTTP/1.1\r\nHost: x\r\n\r\n").getBytes(StandardCharsets.US_ASCII)));
+                    HttpRequestResponse baseResponse = requestResponse(base, response("HTTP/1.1 200 X\r\n\r\n".getBytes(StandardCharsets.US_ASCII), 19));
+                    synchronized (burp.siteMap) {
+                        burp.siteMap.clear();
+                    }
+                    burp.firstHitNanos.set(0);
+                    long servedBefore = burp.served.get();
+                    resetPeakHeap();
+                    long started = System.nanoTime();
+                    check.activeAudit(baseResponse, insertionPoint(service, seed.toString()));
+                    long elapsedNanos = System.nanoTime() - started;
+                    long requests = burp.served.get() - servedBefore;
+                    double rps = requests * 1e9 / elapsedNanos;
+                    long firstHitMillis = burp.firstHitNanos.get() == 0 ? -1 : (burp.firstHitNanos.get() - started) / 1_000_000;
+                    long peakHeap = peakHeapMb();
+                    long hits;
+                    synchronized (burp.siteMap) {
+                        hits = burp.siteMap.stream().filter(issue -> issue.confidence() == AuditIssueConfidence.FIRM).count();
+                    }
+                    json.append(i == 0 ? "" : ",").append(String.format(Locale.ROOT,
+                            "{\"window\":%d,\"requests\":%d,\"elapsed_ms\":%d,\"requests_per_second\":%.1f,\"time_to_first_hit_ms\":%d,"
+                                    + "\"peak_heap_mb\":%d,\"hits\":%d}",
+                            window, requests, elapsedNanos / 1_000_000, rps, firstHitMillis, peakHeap, hits));
+                    if (hits != VALID_STEPS.length) {
+                        failures.add("active run " + window + ": found " + hits + " of " + VALID_STEPS.length + " valid identifiers");
+                    }
+                    if (firstHitMillis < 0) {
+                        failures.add("active run " + window + ": no hit was reported");
+                    }
+                    atLeast(failures, "active", window, "requests_per_second", rps);
+                    atMost(failures, "active", window, "time_to_first_hit_ms", firstHitMillis);
+                    atMost(failures, "active", window, "peak_heap_mb", peakHeap);
+                }
+            } finally {
+                writeResults("active-audit.json", json.append("]}\n").toString());
+            }
+            Assertions.assertTrue(failures.isEmpty(), String.join("\n", failures));
+        } finally {
+            burp.close();
+        }
+    }
+
+    @Test
+    void passiveAuditThroughput() throws Exception {
+        installObjectFactory();
+        StubBurp burp = new StubBurp();
+        try {
+            //Issues are counted from each audit's result, so scan inline
+            extensionState(burp.api).setBackgroundPassive(false);
+            UuidHunterScannerCheck check = new UuidHunterScannerCheck();
+            StringBuilder json = new StringBuilder("{\"runs\":[");
+            List<String> failures = new ArrayList<>();
+            //As above, keep the results of the runs that finished before any failure
+            try {
+                for (int i = 0; i < BODY_SIZES.length; i++) {
+                    int size = BODY_SIZES[i];
+                    byte[] raw = jsonResponse(size);
+                    int bodyOffset = indexOfBody(raw);
+                    HttpService service = service("passive-" + size + ".test", 80);
+                    long audits = Math.max(1, PASSIVE_BYTES_PER_RUN / size);
+                    long found = 0;
+                    resetPeakHeap();
+                    long started = System.nanoTime();
+                    for (long audit = 0; audit < audits; audit++) {
+                        //A path of its own per audit, so repeats aren't skipped as already scanned
+                        HttpRequest request = request(service, bytes(("GET /page/" + audit + " HTTP/1.1\r\nHost: x\r\n\r\n").getBytes(StandardCharsets.US_ASCII)));
+                        found += check.passiveAudit(requestResponse(request, response(raw, bodyOffset))).auditIssues().size();
+                    }
+                    long elapsedNanos = System.nanoTime() - started;
+                    double mbPerSecond = audits * (double) size / (1 << 20) * 1e9 / elapsedNanos;
+                    long peakHeap = peakHeapMb();
+                    json.append(i == 0 ? "" : ",").append(String.format(Locale.ROOT,
+                            "{\"body_bytes\":%d,\"audits\":%d,\"elapsed_ms\":%d,\"audits_per_second\":%.1f,\"mb_per_second\":%.1f,"
+                                    + "\"peak_heap_mb\":%d,\"issues\":%d}",
+                            size, audits, elapsedNanos / 1_000_000, audits * 1e9 / elapsedNanos, mbPerSecond, peakHeap, found));
+                    if (found < audits) {
+                        failures.add("passive run " + size + ": " + found + " issues from " + audits + " bodies that each hold an identifier");
+                    }
+                    atLeast(failures, "passive", size, "mb_per_second", mbPerSecond);
+                    atMost(failures, "passive", size, "peak_heap_mb", peakHeap);
+                }
+            } finally {
+                writeResults("passive-audit.json", json.append("]}\n").toString());
+            }
+            Assertions.assertTrue(failures.isEmpty(), String.join("\n", failures));
+        } finally {
+            burp.close();
+        }
+    }
+
+    /**
+     * Build a JSON response of roughly {@code size} bytes holding V1 and V4 UUIDs, hex hashes and text
+     */
+    private static byte[] jsonResponse(int size) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder sb = new StringBuilder("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\n\r\n[");
+        while (sb.length() < size) {
+            //Identifiers from 2015, far from the active runs' seed, so they don't add variants to those sweeps
+            sb.append("{\"id\":\"").append(String.format("%08x-%04x-11e5-8833-00155d01ef00", random.nextInt(), random.nextInt(0x10000)))
+                    .append("\",\"ref\":\"").append(UUID.randomUUID())
+                    .append("\",\"sha\":\"").append(Long.toHexString(random.nextLong())).append(Long.toHexString(random.nextLong()))
+                    .append("\",\"name\":\"Lorem ipsum dolor sit amet, consectetur adipiscing elit\"},");
+        }
+        sb.setCharAt(sb.length() - 1, ']');
+        return sb.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static int indexOfBody(byte[] raw) {
+        return new String(raw, StandardCharsets.ISO_8859_1).indexOf("\r\n\r\n") + 4;
+    }
+}
@@ -0,0 +1,81 @@
+package test.java;
+
+import main.java.com.staticflow.ScanCheckpointStore;
+import main.java.com.staticflow.TimeId;
+import main.java.com.staticflow.TimestampBitmap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class ScanCheckpointStoreTest {
+
+    private static final TimeId SEED = TimeId.parse("95f6e264-bb00-11ec-8833-00155d01ef00");
+    private static final TimeId HIT = TimeId.parse("95f6e265-bb00-11ec-8833-00155d01ef00");
+    private static final long[] VARIANTS = {SEED.lsb(), 0x8834_00155d01ef01L};
+
+    private static TimestampBitmap window(long start, int count, long step) {
+        TimestampBitmap answered = new TimestampBitmap();
+        for (int i = 0; i < count; i++) {
+            answered.add(start + i * step);
+        }
+        return answered;
+    }
+
+    @Test
+    void savedProgressIsLoadedBack() {
+        Map<String, String> strings = new HashMap<>();
+        ScanCheckpointStore store = new ScanCheckpointStore(() -> MontoyaStubs.persisted(strings));
+        TimestampBitmap answered = window(SEED.timestamp(), 60_000, 1000);
+        store.save(SEED, 42L, VARIANTS, List.of(HIT), answered);
+
+        ScanCheckpointStore.Checkpoint checkpoint = store.load(SEED, 42L);
+        Assertions.assertNotNull(checkpoint);
+        Assertions.assertEquals(List.of(HIT), checkpoint.hits());
+        Assertions.assertArrayEquals(VARIANTS, checkpoint.variants());
+        Assertions.assertArrayEquals(answered.toArray(), checkpoint.answered());
+        //Evenly stepped candidates compress to almost nothing
+        Assertions.assertTrue(strings.values().iterator().next().length() < 2000);
+        Assertions.assertNull(store.load(SEED, 43L));
+
+        store.delete(SEED, 42L);
+        Assertions.assertNull(store.load(SEED, 42L));
+        Assertions.assertTrue(strings.isEmpty());
+    }
+
+    @Test
+    void expiredAndCorruptCheckpointsAreIgnored() {
+        Map<String, String> strings = new HashMap<>();
+        ScanCheckpointStore store = new ScanCheckpointStore(() -> MontoyaStubs.persisted(strings));
+        store.save(SEED, 1L, VARIANTS, List.of(), window(SEED.timestamp(), 10, 1));
+        String key = strings.keySet().iterator().next();
+        strings.put(key, strings.get(key).replaceFirst(";\\d+;", ";0;"));
+        Assertions.assertNull(store.load(SEED, 1L));
+        strings.put(key, "1;garbage");
+        Assertions.assertNull(store.load(SEED, 1L));
+        strings.put(key, "1;" + System.currentTimeMillis() + ";;not base64!");
+        Assertions.assertNull(store.load(SEED, 1L));
+
+        //Expired checkpoints are dropped the next time anything is saved
+        strings.put(key, strings.get(key).replaceFirst(";\\d+;", ";0;"));
+        store.save(SEED, 2L, VARIANTS, List.of(), window(SEED.timestamp(), 10, 1));
+        Assertions.assertEquals(1, strings.size());
+        Assertions.assertNotNull(store.load(SEED, 2L));
+    }
+
+    @Test
+    void oldestCheckpointsAreDroppedPastTheLimit() throws InterruptedException {
+        Map<String, String> strings = new HashMap<>();
+        ScanCheckpointStore store = new ScanCheckpointStore(() -> MontoyaStubs.persisted(strings));
+        store.save(SEED, 0L, VARIANTS, List.of(), window(SEED.timestamp(), 10, 1));
+        Thread.sleep(5);
+        for (long hash = 1; hash <= 64; hash++) {
+            store.save(SEED, hash, VARIANTS, List.of(), window(SEED.timestamp(), 10, 1));
+        }
+        Assertions.assertEquals(64, strings.size());
+        Assertions.assertNull(store.load(SEED, 0L));
+        Assertions.assertNotNull(store.load(SEED, 64L));
+    }
+}
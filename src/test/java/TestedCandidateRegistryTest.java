@@ -0,0 +1,39 @@
+package test.java;
+
+import burp.api.montoya.http.HttpService;
+import main.java.com.staticflow.TestedCandidateRegistry;
+import main.java.com.staticflow.TimeId;
+import main.java.com.staticflow.TimestampBitmap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TestedCandidateRegistryTest {
+
+    private static final TimeId SEED = TimeId.parse("95f6e264-bb00-11ec-8833-00155d01ef00");
+    private static final TimeId SAME_NODE = TimeId.parse("95f6e265-bb00-11ec-8833-00155d01ef00");
+
+    @Test
+    void sharesCandidatesBetweenAuditsOfTheSameInsertionPoint() {
+        TestedCandidateRegistry registry = new TestedCandidateRegistry();
+        HttpService service = MontoyaStubs.service("shop.example", 443);
+        TimestampBitmap first = registry.forTarget(service, "GET", "/orders/" + SEED, "id PATH", SEED);
+        first.add(SEED.timestamp());
+        //Another order from the same node, in the same insertion point
+        Assertions.assertSame(first, registry.forTarget(service, "GET", "/orders/" + SAME_NODE, "id PATH", SAME_NODE));
+    }
+
+    @Test
+    void keepsInsertionPointsOfTheSamePathApart() {
+        TestedCandidateRegistry registry = new TestedCandidateRegistry();
+        HttpService service = MontoyaStubs.service("shop.example", 443);
+        String path = "/orders/" + SEED + "?parent=" + SAME_NODE;
+        TimestampBitmap pathSegment = registry.forTarget(service, "GET", path, "URL path folder 2 PATH", SEED);
+        pathSegment.add(SEED.timestamp());
+        TimestampBitmap parent = registry.forTarget(service, "GET", path, "parent QUERY", SAME_NODE);
+        Assertions.assertNotSame(pathSegment, parent);
+        Assertions.assertFalse(parent.contains(SEED.timestamp()));
+        //The same parameter name in a body is another insertion point, as is the same insertion point under another method
+        Assertions.assertNotSame(parent, registry.forTarget(service, "GET", path, "parent REQUEST_BODY", SAME_NODE));
+        Assertions.assertNotSame(parent, registry.forTarget(service, "POST", path, "parent QUERY", SAME_NODE));
+    }
+}
@@ -0,0 +1,71 @@
+package test.java;
+
+import main.java.com.staticflow.TimeId;
+import main.java.com.staticflow.UlidCodec;
+import main.java.com.staticflow.UuidCodec;
+import main.java.com.staticflow.Utils;
+import main.java.com.staticflow.WindowPlanner;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+class TimeIdCodecTest {
+
+    private static final String V1 = "95f6e264-bb00-11ec-8833-00155d01ef00";
+    private static final String V6 = "1ec9414c-232a-6b00-b3c8-9f6bdeced846";
+    private static final String V7 = "017f22e2-79b0-7cc3-98c4-dc0c0c07398f";
+    private static final String ULID = "01ARZ3NDEKTSV4RRFFQ69G5FAV";
+
+    @Test
+    void parsesAndRendersEveryFormat() {
+        for (String text : new String[]{V1, V6, V7, ULID}) {
+            TimeId id = TimeId.parse(text);
+            Assertions.assertNotNull(id);
+            Assertions.assertEquals(text, id.toString());
+        }
+        Assertions.assertEquals(ULID, TimeId.parse(ULID.toLowerCase()).toString());
+        Assertions.assertEquals(TimeId.of(UUID.fromString(V1)), TimeId.parse(V1));
+        //a v4 UUID and a ULID with a letter outside of the alphabet
+        Assertions.assertNull(TimeId.parse("1b4e28ba-2fa1-41d2-883f-0016d3cca427"));
+        Assertions.assertNull(TimeId.parse("01ARZ3NDEKTSV4RRFFQ69G5FAU"));
+        //random base32 tokens dated in 2090 and 2010
+        Assertions.assertNull(TimeId.parse("03E6R6A300TSV4RRFFQ69G5FAV"));
+        Assertions.assertNull(TimeId.parse("014QKJWY00TSV4RRFFQ69G5FAV"));
+    }
+
+    @Test
+    void timestampsShareOneScale() {
+        Assertions.assertEquals(UUID.fromString(V1).timestamp(), TimeId.parse(V1).timestamp());
+        Assertions.assertEquals(Utils.uuidTimestampOfMillis(0x017f22e279b0L), TimeId.parse(V7).timestamp());
+        Assertions.assertEquals(Utils.uuidTimestampOfMillis(1469922850259L), TimeId.parse(ULID).timestamp());
+    }
+
+    @Test
+    void withTimestampKeepsTheOtherBits() {
+        for (String text : new String[]{V1, V6, V7, ULID}) {
+            TimeId id = TimeId.parse(text);
+            TimeId moved = id.withTimestamp(id.timestamp() + 20_000L);
+            Assertions.assertEquals(id.timestamp() + 20_000L, moved.timestamp());
+            Assertions.assertEquals(id.lsb(), moved.lsb());
+            //the moved identifier is still recognised as the same format
+            Assertions.assertEquals(moved, TimeId.parse(moved.toString()));
+        }
+        TimeId v7 = TimeId.parse(V7);
+        Assertions.assertEquals(v7.msb() & 0xFFFFL, v7.withTimestamp(0L).msb() & 0xFFFFL);
+    }
+
+    @Test
+    void probesBoundTheFormat() {
+        Assertions.assertEquals("00000000-0000-1000-8000-000000000000", new String(UuidCodec.V1.probe(false), StandardCharsets.US_ASCII));
+        Assertions.assertEquals("ffffffff-ffff-1fff-bfff-ffffffffffff", new String(UuidCodec.V1.probe(true), StandardCharsets.US_ASCII));
+        Assertions.assertEquals("7ZZZZZZZZZZZZZZZZZZZZZZZZZ", new String(UlidCodec.ULID.probe(true), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void millisecondFormatsAreNotSweptFinerThanAMillisecond() {
+        WindowPlanner.Plan plan = WindowPlanner.plan(0L, 0L, 1, 1_000_000, UlidCodec.ULID.resolution());
+        Assertions.assertEquals(10_000L, plan.step());
+    }
+}
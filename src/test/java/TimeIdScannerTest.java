@@ -0,0 +1,115 @@
+package test.java;
+
+import main.java.com.staticflow.TimeId;
+import main.java.com.staticflow.TimeIdScanner;
+import main.java.com.staticflow.UlidCodec;
+import main.java.com.staticflow.UuidCodec;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+class TimeIdScannerTest {
+
+    private static final String V1 = "95f6e264-bb00-11ec-8833-00155d01ef00";
+    private static final String V4 = "1b4e28ba-2fa1-41d2-883f-0016d3cca427";
+    // The RFC 9562 examples of a V6 UUID, the V1 UUID with the same timestamp, and a V7 UUID
+    private static final String V6 = "1ec9414c-232a-6b00-b3c8-9f6bdeced846";
+    private static final String V6_AS_V1 = "c232ab00-9414-11ec-b3c8-9f6bdeced846";
+    private static final String V7 = "017f22e2-79b0-7cc3-98c4-dc0c0c07398f";
+    private static final String ULID = "01ARZ3NDEKTSV4RRFFQ69G5FAV";
+
+    /**
+     * Scan text as a byte array, and check that scanning it from a direct buffer and from a heap buffer that doesn't start at the
+     * beginning of its array finds the same identifiers
+     */
+    private static List<TimeIdScanner.Match> scan(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        List<TimeIdScanner.Match> matches = TimeIdScanner.scan(bytes);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        Assertions.assertEquals(matches, scan(direct, 0, bytes.length), text);
+        byte[] padded = new byte[bytes.length + 2];
+        System.arraycopy(bytes, 0, padded, 1, bytes.length);
+        //Hex digits around the slice, which would end up in identifiers decoded from the wrong place in the array
+        padded[0] = '0';
+        padded[padded.length - 1] = '0';
+        ByteBuffer slice = ByteBuffer.wrap(padded, 1, bytes.length).slice();
+        Assertions.assertEquals(matches, scan(slice, 0, bytes.length), text);
+        return matches;
+    }
+
+    private static List<TimeIdScanner.Match> scan(ByteBuffer buffer, int from, int to) {
+        List<TimeIdScanner.Match> matches = new ArrayList<>();
+        TimeIdScanner.scan(buffer, from, to, (codec, msb, lsb, offset) -> matches.add(new TimeIdScanner.Match(codec, msb, lsb, offset)));
+        return matches;
+    }
+
+    @Test
+    void findsV1UuidsWithOffsets() {
+        String body = "{\"id\":\"" + V1 + "\",\"other\":\"" + V4 + "\",\"again\":[" + V1.toUpperCase() + "]}";
+        List<TimeIdScanner.Match> matches = scan(body);
+        Assertions.assertEquals(2, matches.size());
+        Assertions.assertEquals(body.indexOf(V1), matches.get(0).offset());
+        Assertions.assertEquals(TimeId.of(UUID.fromString(V1)), matches.get(0).id());
+        Assertions.assertEquals(body.indexOf(V1.toUpperCase()), matches.get(1).offset());
+    }
+
+    @Test
+    void requiresBoundaries() {
+        Assertions.assertTrue(scan("a" + V1).isEmpty());
+        Assertions.assertTrue(scan(V1 + "0").isEmpty());
+        Assertions.assertTrue(scan("0" + V1).isEmpty());
+        Assertions.assertTrue(scan("1234567" + V1).isEmpty());
+        Assertions.assertEquals(1, scan("95f6e264-bb00-zz " + V1 + "\n").size());
+        Assertions.assertEquals(2, scan(V1 + "/" + V1).size());
+        Assertions.assertEquals(2, scan(V1 + "-" + V1).size());
+        Assertions.assertTrue(scan("x" + ULID).isEmpty());
+        Assertions.assertTrue(scan(ULID + "0").isEmpty());
+        //26 digits would decode to a time in 1970
+        Assertions.assertTrue(scan("00000000000000000000000001").isEmpty());
+    }
+
+    @Test
+    void findsUuidsInsideSlugs() {
+        for (String text : new String[]{"order-" + V1 + "-v2", "/files/12345678-1234-" + V1, "item-abc-" + V1 + "-1f"}) {
+            List<TimeIdScanner.Match> matches = scan(text);
+            Assertions.assertEquals(1, matches.size(), text);
+            Assertions.assertEquals(text.indexOf(V1), matches.get(0).offset(), text);
+        }
+    }
+
+    @Test
+    void scansRangesOfBuffers() {
+        String text = "a" + V1 + " order-" + V7 + "-v2 " + ULID + " 0" + V1 + " " + V6;
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        //A range starting inside a run of hex digits, as the byte array scan sees it
+        for (int from : new int[]{0, 2}) {
+            List<TimeIdScanner.Match> expected = new ArrayList<>();
+            TimeIdScanner.scan(bytes, from, bytes.length, (codec, msb, lsb, offset) ->
+                    expected.add(new TimeIdScanner.Match(codec, msb, lsb, offset)));
+            Assertions.assertEquals(expected, scan(direct, from, bytes.length));
+        }
+        Assertions.assertEquals(3, scan(text).size());
+    }
+
+    @Test
+    void findsEveryFormatInOnePass() {
+        String body = "v6=" + V6 + "&v7=" + V7 + "&ulid=" + ULID.toLowerCase() + "&v1=" + V6_AS_V1;
+        List<TimeIdScanner.Match> matches = scan(body);
+        Assertions.assertEquals(4, matches.size());
+        Assertions.assertSame(UuidCodec.V6, matches.get(0).codec());
+        Assertions.assertSame(UuidCodec.V7, matches.get(1).codec());
+        Assertions.assertSame(UlidCodec.ULID, matches.get(2).codec());
+        Assertions.assertEquals(body.indexOf(ULID.toLowerCase()), matches.get(2).offset());
+        Assertions.assertEquals(ULID, matches.get(2).id().toString());
+        //V6 holds the same timestamp as V1, reordered
+        Assertions.assertEquals(matches.get(3).id().timestamp(), matches.get(0).id().timestamp());
+        Assertions.assertEquals(V6, matches.get(0).id().toString());
+        Assertions.assertEquals(V7, matches.get(1).id().toString());
+    }
+}
@@ -0,0 +1,71 @@
+package test.java;
+
+import main.java.com.staticflow.TimestampBitmap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TimestampBitmapTest {
+
+    private static final long BASE = 0x1ec_bb00_95f6_e264L;
+
+    @Test
+    void addContainsRemove() {
+        TimestampBitmap bitmap = new TimestampBitmap();
+        Assertions.assertTrue(bitmap.add(BASE));
+        Assertions.assertFalse(bitmap.add(BASE));
+        Assertions.assertTrue(bitmap.contains(BASE));
+        Assertions.assertFalse(bitmap.contains(BASE + 1));
+        Assertions.assertFalse(bitmap.contains(BASE + 65536));
+        bitmap.remove(BASE);
+        Assertions.assertFalse(bitmap.contains(BASE));
+        Assertions.assertEquals(0L, bitmap.cardinality());
+    }
+
+    @Test
+    void denseChunksStayCorrect() {
+        TimestampBitmap bitmap = new TimestampBitmap();
+        long start = BASE & ~0xFFFFL;
+        for (long i = 0; i < 65536; i += 3) {
+            bitmap.add(start + i);
+        }
+        Assertions.assertEquals(21846L, bitmap.cardinality());
+        for (long i = 0; i < 65536; i++) {
+            Assertions.assertEquals(i % 3 == 0, bitmap.contains(start + i));
+        }
+        Assertions.assertTrue(bitmap.sizeInBytes() < 9000);
+    }
+
+    @Test
+    void overlappingWindowsAreMerged() {
+        TimestampBitmap bitmap = new TimestampBitmap();
+        long added = 0;
+        for (long t = BASE - 10_000_000L; t <= BASE + 10_000_000L; t += 10_000L) {
+            added += bitmap.add(t) ? 1 : 0;
+        }
+        for (long t = BASE - 5_000_000L; t <= BASE + 15_000_000L; t += 10_000L) {
+            added += bitmap.add(t) ? 1 : 0;
+        }
+        Assertions.assertEquals(2501L, added);
+        Assertions.assertEquals(2501L, bitmap.cardinality());
+    }
+
+    @Test
+    void toArrayListsSparseAndDenseChunksInOrder() {
+        TimestampBitmap bitmap = new TimestampBitmap();
+        long start = BASE & ~0xFFFFL;
+        for (long i = 0; i < 65536; i += 7) {
+            bitmap.add(start + 65536 + i);
+        }
+        bitmap.add(start + 5);
+        bitmap.add(start + 3);
+        long[] timestamps = bitmap.toArray();
+        Assertions.assertEquals(bitmap.cardinality(), timestamps.length);
+        Assertions.assertEquals(start + 3, timestamps[0]);
+        Assertions.assertEquals(start + 5, timestamps[1]);
+        Assertions.assertEquals(start + 65536, timestamps[2]);
+        Assertions.assertEquals(start + 65536 + 7, timestamps[3]);
+        for (int i = 1; i < timestamps.length; i++) {
+            Assertions.assertTrue(timestamps[i - 1] < timestamps[i]);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package test.java;
+
+import main.java.com.staticflow.TrafficExportAnalyzer;
+import main.java.com.staticflow.UlidCodec;
+import main.java.com.staticflow.UuidCodec;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+
+class TrafficExportAnalyzerTest {
+
+    private static final String ORDER = "95f6e264-bb00-11ec-8833-00155d01ef00";
+    private static final String NEXT_ORDER = "95f6e265-bb00-11ec-8833-00155d01ef00";
+    private static final String OTHER_NODE = "95f6e264-bb00-11ec-8833-00155d01ef01";
+    private static final String ULID = "01ARZ3NDEKTSV4RRFFQ69G5FAV";
+
+    private static String burpItem(String host, String request, String response) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        return "<item><time>Mon Apr 11 10:00:00 UTC 2022</time><url><![CDATA[https://" + host + "/]]></url>"
+                + "<host ip=\"127.0.0.1\">" + host + "</host><port>443</port><protocol>https</protocol>"
+                + "<request base64=\"true\"><![CDATA[" + encoder.encodeToString(request.getBytes(StandardCharsets.US_ASCII)) + "]]></request>"
+                + "<status>200</status><responselength>" + response.length() + "</responselength>"
+                + "<response base64=\"true\"><![CDATA[" + encoder.encodeToString(response.getBytes(StandardCharsets.US_ASCII)) + "]]></response>"
+                + "<comment></comment></item>\n";
+    }
+
+    private static TrafficExportAnalyzer.Report analyze(String export) throws IOException {
+        Path file = Files.createTempFile("export", ".tmp");
+        try {
+            Files.writeString(file, export, StandardCharsets.US_ASCII);
+            //Chunks far smaller than a record, so every record boundary starts a chunk
+            return new TrafficExportAnalyzer(file, 64, 4).analyze();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static long occurrences(TrafficExportAnalyzer.Report report, TrafficExportAnalyzer.Issuer issuer) {
+        TrafficExportAnalyzer.IssuerTimeline timeline = report.issuers().get(issuer);
+        return timeline == null ? 0 : timeline.occurrences();
+    }
+
+    @Test
+    void groupsBurpExportByHostAndNode() throws IOException {
+        StringBuilder export = new StringBuilder("<?xml version=\"1.0\"?>\n<items burpVersion=\"2023.3\">\n");
+        export.append(burpItem("shop.example", "GET /orders/" + ORDER + " HTTP/1.1\r\n\r\n", "{\"next\":\"" + NEXT_ORDER + "\"}"));
+        export.append(burpItem("shop.example", "GET /orders/" + NEXT_ORDER + " HTTP/1.1\r\n\r\n", "{\"id\":\"" + ULID + "\"}"));
+        export.append(burpItem("api.example", "GET /users/" + OTHER_NODE + " HTTP/1.1\r\n\r\n", "{}"));
+        export.append("</items>\n");
+        TrafficExportAnalyzer.Report report = analyze(export.toString());
+        Assertions.assertEquals(TrafficExportAnalyzer.Format.BURP_XML, report.format());
+        Assertions.assertEquals(3, report.records());
+        Assertions.assertEquals(5, report.identifiers());
+        Assertions.assertEquals(3, report.issuers().size());
+        TrafficExportAnalyzer.Issuer shop = new TrafficExportAnalyzer.Issuer("shop.example", UuidCodec.V1, 0x00155d01ef00L);
+        Assertions.assertEquals(3, occurrences(report, shop));
+        Assertions.assertEquals(2, report.issuers().get(shop).timestamps().length);
+        Assertions.assertEquals(1, occurrences(report, new TrafficExportAnalyzer.Issuer("shop.example", UlidCodec.ULID, -1)));
+        Assertions.assertEquals(1, occurrences(report, new TrafficExportAnalyzer.Issuer("api.example", UuidCodec.V1, 0x00155d01ef01L)));
+
+        StringWriter out = new StringWriter();
+        report.write(out);
+        String[] lines = out.toString().split("\n");
+        Assertions.assertEquals(3, lines.length);
+        Assertions.assertTrue(lines[1].startsWith("{\"host\":\"shop.example\",\"format\":\"V1 UUID\",\"node\":\"00:15:5d:01:ef:00\",\"occurrences\":3,\"distinct\":2"));
+        Assertions.assertTrue(lines[1].endsWith("\"median_gap_us\":0.1}"));
+    }
+
+    @Test
+    void groupsHarEntriesByRequestHost() throws IOException {
+        String export = "{\"log\":{\"version\":\"1.2\",\"creator\":{\"name\":\"test\"},\"entries\":["
+                + "{\"startedDateTime\":\"2022-04-11T10:00:00Z\",\"request\":{\"method\":\"GET\",\"url\":\"https://shop.example:8443/orders/"
+                + ORDER + "\"},\"response\":{\"content\":{\"text\":\"{\\\"next\\\":\\\"" + NEXT_ORDER + "\\\"}\"}}},"
+                + "{\"startedDateTime\":\"2022-04-11T10:00:01Z\",\"request\":{\"method\":\"GET\",\"url\":\"https://api.example/users?id="
+                + OTHER_NODE + "\"},\"response\":{\"content\":{\"text\":\"\"}}}"
+                + "]}}";
+        TrafficExportAnalyzer.Report report = analyze(export);
+        Assertions.assertEquals(TrafficExportAnalyzer.Format.HAR, report.format());
+        Assertions.assertEquals(2, report.records());
+        Assertions.assertEquals(2, report.issuers().size());
+        Assertions.assertEquals(2, occurrences(report, new TrafficExportAnalyzer.Issuer("shop.example", UuidCodec.V1, 0x00155d01ef00L)));
+        Assertions.assertEquals(1, occurrences(report, new TrafficExportAnalyzer.Issuer("api.example", UuidCodec.V1, 0x00155d01ef01L)));
+    }
+
+    @Test
+    void itemsInsideAResponseAreNotRecords() throws IOException {
+        String rss = "HTTP/1.1 200 OK\r\nContent-Type: application/rss+xml\r\n\r\n<rss><channel><item><title>Order</title><guid>"
+                + ULID + "</guid></item></channel></rss>";
+        StringBuilder export = new StringBuilder("<?xml version=\"1.0\"?>\n<items burpVersion=\"2023.3\">\n");
+        export.append("<item><time>Mon Apr 11 10:00:00 UTC 2022</time><host ip=\"127.0.0.1\">feed.example</host>"
+                + "<request base64=\"false\"><![CDATA[GET /feed HTTP/1.1\r\n\r\n]]></request>"
+                + "<response base64=\"false\"><![CDATA[" + rss + "]]></response><comment></comment></item>\n");
+        export.append(burpItem("shop.example", "GET /orders/" + ORDER + " HTTP/1.1\r\n\r\n", "{}"));
+        export.append("</items>\n");
+        TrafficExportAnalyzer.Report report = analyze(export.toString());
+        Assertions.assertEquals(2, report.records());
+        Assertions.assertEquals(1, occurrences(report, new TrafficExportAnalyzer.Issuer("feed.example", UlidCodec.ULID, -1)));
+        Assertions.assertEquals(1, occurrences(report, new TrafficExportAnalyzer.Issuer("shop.example", UuidCodec.V1, 0x00155d01ef00L)));
+    }
+
+    @Test
+    void splitsChromeHarOnEntriesOnly() throws IOException {
+        //Chrome puts its own fields, with URLs of their own, before the request, and startedDateTime after the response
+        String export = "{\"log\":{\"version\":\"1.2\",\"creator\":{\"name\":\"WebInspector\"},"
+                + "\"pages\":[{\"startedDateTime\":\"2022-04-11T10:00:00Z\",\"id\":\"page_1\",\"title\":\"https://shop.example/orders/"
+                + ORDER + "\",\"pageTimings\":{}}],\"entries\":["
+                + "{\"_initiator\":{\"type\":\"script\",\"stack\":{\"callFrames\":[{\"url\":\"https://cdn.example/app.js\"}]}},"
+                + "\"_priority\":\"High\",\"cache\":{},\"request\":{\"method\":\"GET\",\"url\":\"https://shop.example/orders/" + ORDER
+                + "\",\"headers\":[]},\"response\":{\"content\":{\"text\":\"{\\\"next\\\":\\\"" + NEXT_ORDER
+                + "\\\",\\\"x\\\":\\\"}{\\\"}\"}},"
+                + "\"startedDateTime\":\"2022-04-11T10:00:01Z\"},\n"
+                + "{\"_initiator\":{\"type\":\"other\"},\"request\":{\"url\":\"https://api.example/users?id=" + OTHER_NODE + "\"},"
+                + "\"response\":{\"content\":{\"text\":\"\"}},\"startedDateTime\":\"2022-04-11T10:00:02Z\"}"
+                + "]}}";
+        TrafficExportAnalyzer.Report report = analyze(export);
+        Assertions.assertEquals(TrafficExportAnalyzer.Format.HAR, report.format());
+        Assertions.assertEquals(2, report.records());
+        Assertions.assertEquals(2, occurrences(report, new TrafficExportAnalyzer.Issuer("shop.example", UuidCodec.V1, 0x00155d01ef00L)));
+        Assertions.assertEquals(1, occurrences(report, new TrafficExportAnalyzer.Issuer("api.example", UuidCodec.V1, 0x00155d01ef01L)));
+        //The page title is outside of any entry
+        Assertions.assertEquals(1, occurrences(report, new TrafficExportAnalyzer.Issuer("", UuidCodec.V1, 0x00155d01ef00L)));
+        Assertions.assertEquals(3, report.issuers().size());
+    }
+
+    @Test
+    void rejectsOtherFiles() {
+        Assertions.assertThrows(IOException.class, () -> analyze("GET / HTTP/1.1\r\n\r\n"));
+    }
+}
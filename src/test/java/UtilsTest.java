@@ -57,4 +57,21 @@ class UtilsTest {
         }
         Assertions.assertTrue(foundStart && foundEnd);
     }
-}
\ No newline at end of file
+
+    @Test
+    void writeUuid() {
+        UUID uuid = UUID.fromString("95f6e264-bb00-11ec-8833-00155d01ef00");
+        byte[] buffer = new byte[38];
+        Utils.writeUuid(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), buffer, 1);
+        Assertions.assertEquals(uuid.toString(), new String(buffer, 1, 36));
+    }
+
+    @Test
+    void uuidTimeAndMac() {
+        UUID uuid = UUID.fromString("95f6e264-bb00-11ec-8833-00155d01ef00");
+        Assertions.assertEquals("00:15:5d:01:ef:00", Utils.getUuidMac(uuid));
+        Assertions.assertEquals("ff:ff:ff:ff:ff:ff", Utils.getUuidMac(0xFFFF_FFFF_FFFFL));
+        Assertions.assertEquals("2022-04-13 08:06:13.202186", Utils.getUuidTime(uuid));
+        Assertions.assertEquals("1582-10-15 00:00:00.000000", Utils.getUuidTime(0L));
+    }
+}
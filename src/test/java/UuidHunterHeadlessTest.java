@@ -0,0 +1,110 @@
+package test.java;
+
+import com.sun.net.httpserver.HttpServer;
+import main.java.com.staticflow.TimeId;
+import main.java.com.staticflow.UuidHunterHeadless;
+import main.java.com.staticflow.V1CandidateGenerator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class UuidHunterHeadlessTest {
+
+    private static final UUID SEED = UUID.fromString("95f6e264-bb00-11ec-8833-00155d01ef00");
+
+    @Test
+    void shardsFindEveryValidUuid() throws IOException, InterruptedException {
+        //Candidates either side of the seed that the stub server accepts
+        V1CandidateGenerator candidates = new V1CandidateGenerator(SEED, 10000L, 1);
+        Set<String> valid = Set.of(
+                candidates.toUuid(candidates.msbAt(3)).toString(),
+                candidates.toUuid(candidates.msbAt(999)).toString(),
+                candidates.toUuid(candidates.msbAt(1700)).toString());
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/orders/", exchange -> {
+            String id = exchange.getRequestURI().getPath().substring("/orders/".length());
+            boolean authorized = "Bearer test".equals(exchange.getRequestHeaders().getFirst("Authorization"));
+            byte[] body = id.getBytes(StandardCharsets.US_ASCII);
+            exchange.sendResponseHeaders(authorized && valid.contains(id) ? 200 : 404, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        try {
+            String template = "GET /orders/" + UuidHunterHeadless.PLACEHOLDER + " HTTP/1.1\r\nHost: example\r\nAuthorization: Bearer test\r\n\r\n";
+            URI target = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+            Set<String> found = new HashSet<>();
+            long hits = 0;
+            for (int shard = 0; shard < 2; shard++) {
+                StringWriter out = new StringWriter();
+                hits += new UuidHunterHeadless(new UuidHunterHeadless.Options(TimeId.of(SEED), template, target, shard, 2, 1, 10000L, 16)).run(out);
+                for (String line : out.toString().split("\n")) {
+                    if (!line.isBlank()) {
+                        Assertions.assertTrue(line.contains("\"confidence\":\"FIRM\""));
+                        found.add(line.substring(line.indexOf("\"uuid\":\"") + 8, line.indexOf("\"uuid\":\"") + 44));
+                    }
+                }
+            }
+            Assertions.assertEquals(3L, hits);
+            Assertions.assertEquals(valid, found);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void sendsTheTemplateBodyByteForByte() throws IOException, InterruptedException {
+        //A multipart body whose CRLF line endings must survive, after a head written with bare line feeds
+        String body = "--b\r\nContent-Disposition: form-data; name=\"id\"\r\n\r\n" + UuidHunterHeadless.PLACEHOLDER + "\r\n--b--\r\n";
+        String template = "POST /orders HTTP/1.1\nHost: example\nContent-Type: multipart/form-data; boundary=b\n\n" + body;
+        AtomicInteger requests = new AtomicInteger();
+        AtomicInteger mismatches = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/orders", exchange -> {
+            byte[] received = exchange.getRequestBody().readAllBytes();
+            String text = new String(received, StandardCharsets.ISO_8859_1);
+            int id = text.indexOf("\r\n\r\n") + 4;
+            String expected = id < 4 || text.length() < id + 36 ? null : body.replace(UuidHunterHeadless.PLACEHOLDER, text.substring(id, id + 36));
+            requests.incrementAndGet();
+            if (!text.equals(expected) || !String.valueOf(received.length).equals(exchange.getRequestHeaders().getFirst("Content-Length"))) {
+                mismatches.incrementAndGet();
+            }
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            URI target = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+            //A small slice of the window is enough
+            new UuidHunterHeadless(new UuidHunterHeadless.Options(TimeId.of(SEED), template, target, 0, 100, 1, 10000L, 4)).run(new StringWriter());
+            Assertions.assertTrue(requests.get() > 0);
+            Assertions.assertEquals(0, mismatches.get());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void rejectsShardsOutsideTheirCount() throws Exception {
+        //parseShard is package private, it is only used to read the command line
+        Method parseShard = UuidHunterHeadless.class.getDeclaredMethod("parseShard", String.class);
+        parseShard.setAccessible(true);
+        Assertions.assertArrayEquals(new int[]{1, 4}, (int[]) parseShard.invoke(null, "1/4"));
+        for (String shard : new String[]{"0/0", "5/2", "2/2", "-1/2", "3", "a/b", "1/2/3"}) {
+            InvocationTargetException thrown = Assertions.assertThrows(InvocationTargetException.class,
+                    () -> parseShard.invoke(null, shard));
+            Assertions.assertTrue(thrown.getCause() instanceof IllegalArgumentException, shard);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package test.java;
+
+import main.java.com.staticflow.Utils;
+import main.java.com.staticflow.V1CandidateGenerator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+class V1CandidateGeneratorTest {
+
+    private static final UUID SEED = UUID.fromString("95f6e264-bb00-11ec-8833-00155d01ef00");
+
+    @Test
+    void renderMatchesUuidText() {
+        V1CandidateGenerator candidates = new V1CandidateGenerator(SEED, 10000L, 1);
+        byte[] buffer = new byte[V1CandidateGenerator.UUID_TEXT_LENGTH];
+        for (long i = 0; i < candidates.count(); i += 97) {
+            long msb = candidates.msbAt(i);
+            candidates.render(msb, buffer, 0);
+            Assertions.assertEquals(candidates.toUuid(msb).toString(), new String(buffer));
+        }
+    }
+
+    @Test
+    void seedIsInSequenceOnce() {
+        V1CandidateGenerator candidates = new V1CandidateGenerator(SEED, 10000L, 1);
+        Assertions.assertEquals(2001L, candidates.count());
+        Assertions.assertEquals(1L, candidates.msbs().filter(candidates::isSeed).count());
+    }
+
+    @Test
+    void parallelStreamMatchesIterable() {
+        V1CandidateGenerator candidates = new V1CandidateGenerator(SEED, 10000L, 2);
+        long sequential = 0;
+        for (UUID uuid : Utils.genUUIDs(SEED, 10000L, 2)) {
+            sequential += uuid.getMostSignificantBits();
+        }
+        Assertions.assertEquals(sequential, candidates.msbs().parallel().sum());
+    }
+
+    @Test
+    void timestampsCarryAcrossTimeLow() {
+        //time_low is 10000 ticks from wrapping, so the window crosses into the next time_mid
+        UUID seed = UUID.fromString("ffffd8ef-bb00-11ec-8833-00155d01ef00");
+        V1CandidateGenerator candidates = new V1CandidateGenerator(seed, 1000L, 0L, 20_000L);
+        byte[] buffer = new byte[V1CandidateGenerator.UUID_TEXT_LENGTH];
+        for (long i = 0; i < candidates.count(); i++) {
+            long msb = candidates.msbAt(i);
+            Assertions.assertEquals(seed.timestamp() + i * 1000L, candidates.toUuid(msb).timestamp());
+            candidates.render(msb, buffer, 0);
+            Assertions.assertEquals(candidates.toUuid(msb).toString(), new String(buffer));
+        }
+        Assertions.assertEquals("0000270f-bb01-11ec-8833-00155d01ef00", candidates.toUuid(candidates.msbAt(20)).toString());
+    }
+}
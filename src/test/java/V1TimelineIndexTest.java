@@ -0,0 +1,96 @@
+package test.java;
+
+import main.java.com.staticflow.CandidateOrder;
+import main.java.com.staticflow.TimeId;
+import main.java.com.staticflow.UuidCodec;
+import main.java.com.staticflow.V1CandidateGenerator;
+import main.java.com.staticflow.V1TimelineIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+class V1TimelineIndexTest {
+
+    private static final UUID SEED = UUID.fromString("95f6e264-bb00-11ec-8833-00155d01ef00");
+
+    // A UUID from the same node and clock sequence issued 300ms after the seed
+    private static final UUID NEIGHBOUR = new UUID(((0x95f6e264L + 3_000_000L) << 32) | 0xbb0011ecL, SEED.getLeastSignificantBits());
+
+    @Test
+    void groupsByNodeAndClockSequence() {
+        V1TimelineIndex index = new V1TimelineIndex();
+        index.record(TimeId.of(SEED));
+        index.record(TimeId.of(NEIGHBOUR));
+        index.record(TimeId.of(UUID.fromString("95f6e264-bb00-11ec-8834-00155d01ef00")));
+        Assertions.assertArrayEquals(new long[]{SEED.timestamp(), NEIGHBOUR.timestamp()}, index.near(TimeId.of(SEED), 10_000_000L));
+        Assertions.assertArrayEquals(new long[]{SEED.timestamp()}, index.near(TimeId.of(SEED), 1_000_000L));
+    }
+
+    @Test
+    void visitsCandidatesNearKnownTimestampsFirst() {
+        V1CandidateGenerator candidates = new V1CandidateGenerator(SEED, 10000L, 1);
+        long[] known = {NEIGHBOUR.timestamp()};
+        CandidateOrder order = CandidateOrder.prioritized(candidates, known, 50_000L);
+        //the known timestamp itself comes first and is skipped, then its closest neighbours
+        Assertions.assertEquals(NEIGHBOUR.timestamp(), candidates.timestampAt(order.at(0)));
+        Assertions.assertTrue(order.skip(0));
+        Assertions.assertEquals(10_000L, Math.abs(candidates.timestampAt(order.at(1)) - NEIGHBOUR.timestamp()));
+        Assertions.assertFalse(order.skip(1));
+        //every candidate is still visited exactly once
+        long visited = 0;
+        for (long position = 0; position < order.size(); position++) {
+            if (!order.skip(position)) {
+                visited++;
+            }
+        }
+        Assertions.assertEquals(candidates.count() - 1, visited);
+    }
+
+    @Test
+    void listsVariantsSeenAroundTheSeed() {
+        V1TimelineIndex index = new V1TimelineIndex();
+        UUID otherNode = UUID.fromString("95f6e264-bb00-11ec-8833-00155d01ef01");
+        UUID otherClockSequence = UUID.fromString("95f6e264-bb00-11ec-8834-00155d01ef00");
+        index.record(TimeId.of(otherNode));
+        index.record(TimeId.of(new UUID(NEIGHBOUR.getMostSignificantBits(), otherNode.getLeastSignificantBits())));
+        index.record(TimeId.of(otherClockSequence));
+        //seen, but years before the seed
+        index.record(TimeId.of(UUID.fromString("95f6e264-bb00-10ec-8835-00155d01ef00")));
+        //the seed's own variant first, then the same node's other clock sequence, then the other node
+        Assertions.assertArrayEquals(new long[]{SEED.getLeastSignificantBits(), otherClockSequence.getLeastSignificantBits(),
+                otherNode.getLeastSignificantBits()}, index.variantsNear(TimeId.of(SEED), 10_000_000L, 8));
+        Assertions.assertArrayEquals(new long[]{SEED.getLeastSignificantBits(), otherClockSequence.getLeastSignificantBits()},
+                index.variantsNear(TimeId.of(SEED), 10_000_000L, 2));
+        Assertions.assertArrayEquals(new long[]{SEED.getLeastSignificantBits()}, new V1TimelineIndex().variantsNear(TimeId.of(SEED), 10_000_000L, 8));
+    }
+
+    @Test
+    void sharesTimelinesAcrossFormatsWithANode() {
+        V1TimelineIndex index = new V1TimelineIndex();
+        index.record(TimeId.of(NEIGHBOUR));
+        //a V6 UUID with the seed's timestamp, clock sequence and node finds the V1 UUID issued 300ms later
+        TimeId v6Seed = new TimeId(UuidCodec.V6, UuidCodec.V6.withTimestamp(0L, SEED.timestamp()), SEED.getLeastSignificantBits());
+        Assertions.assertEquals(SEED.timestamp(), v6Seed.timestamp());
+        Assertions.assertArrayEquals(new long[]{NEIGHBOUR.timestamp()}, index.near(v6Seed, 10_000_000L));
+        //formats without a node only ever sweep their own random bits
+        TimeId v7Seed = TimeId.parse("017f22e2-79b0-7cc3-98c4-dc0c0c07398f");
+        Assertions.assertArrayEquals(new long[]{v7Seed.lsb()}, index.variantsNear(v7Seed, Long.MAX_VALUE / 4, 8));
+    }
+
+    @Test
+    void randomBitsDoNotEvictNodeTimelines() {
+        V1TimelineIndex index = new V1TimelineIndex();
+        index.record(TimeId.of(SEED));
+        TimeId v7 = TimeId.parse("017f22e2-79b0-7cc3-98c4-dc0c0c07398f");
+        //Busy traffic full of V7 UUIDs, each with random bits of its own
+        for (int i = 0; i < 2000; i++) {
+            index.record(new TimeId(v7.codec(), v7.msb(), v7.lsb() + i));
+        }
+        Assertions.assertArrayEquals(new long[]{SEED.timestamp()}, index.near(TimeId.of(SEED), 1_000_000L));
+        //The most recent random groups are still there for re-scans of the same identifier
+        TimeId latest = new TimeId(v7.codec(), v7.msb(), v7.lsb() + 1999);
+        Assertions.assertArrayEquals(new long[]{latest.timestamp()}, index.near(latest, 1_000_000L));
+        Assertions.assertArrayEquals(new long[0], index.near(v7, 1_000_000L));
+    }
+}
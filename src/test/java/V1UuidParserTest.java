@@ -0,0 +1,43 @@
+package test.java;
+
+import main.java.com.staticflow.V1UuidParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+class V1UuidParserTest {
+
+    private static final String V1 = "95f6e264-bb00-11ec-8833-00155d01ef00";
+
+    @Test
+    void parsesV1() {
+        Assertions.assertEquals(UUID.fromString(V1), V1UuidParser.parse(V1));
+        Assertions.assertEquals(UUID.fromString(V1), V1UuidParser.parse(V1.toUpperCase()));
+    }
+
+    @Test
+    void rejectsWithoutThrowing() {
+        Assertions.assertNull(V1UuidParser.parse((String) null));
+        Assertions.assertNull(V1UuidParser.parse(""));
+        Assertions.assertNull(V1UuidParser.parse("application/json"));
+        //version 4
+        Assertions.assertNull(V1UuidParser.parse("95f6e264-bb00-41ec-8833-00155d01ef00"));
+        //misplaced hyphen
+        Assertions.assertNull(V1UuidParser.parse("95f6e264b-b00-11ec-8833-00155d01ef00"));
+        //non hex character in each group
+        Assertions.assertNull(V1UuidParser.parse("95f6e26g-bb00-11ec-8833-00155d01ef00"));
+        Assertions.assertNull(V1UuidParser.parse("95f6e264-bb00-11ec-8833-00155d01ef0z"));
+        Assertions.assertNull(V1UuidParser.parse("95f6e264-bb00-11ec-8833-00155d01ef0\u0130"));
+    }
+
+    @Test
+    void parsesAtOffset() {
+        byte[] bytes = ("id=" + V1 + "&x").getBytes(StandardCharsets.US_ASCII);
+        Assertions.assertTrue(V1UuidParser.matches(bytes, 3));
+        Assertions.assertFalse(V1UuidParser.matches(bytes, 4));
+        Assertions.assertFalse(V1UuidParser.matches(bytes, 10));
+        Assertions.assertEquals(UUID.fromString(V1), V1UuidParser.parse(bytes, 3));
+    }
+}
@@ -0,0 +1,38 @@
+package test.java;
+
+import main.java.com.staticflow.WindowPlanner;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class WindowPlannerTest {
+
+    private static final long SECOND = 10_000_000L;
+    private static final long SEED = 0x1ec_bb00_95f6_e264L;
+
+    @Test
+    void picksFinestStepThatFitsBudget() {
+        WindowPlanner.Plan plan = WindowPlanner.plan(SEED, SEED + 60 * SECOND, 1, 2_000_000);
+        Assertions.assertEquals(10L, plan.step());
+        Assertions.assertTrue(plan.count() - 1 <= 2_000_000);
+    }
+
+    @Test
+    void neverLooksPastNowPlusSkew() {
+        WindowPlanner.Plan plan = WindowPlanner.plan(SEED, SEED, 30, 100_000);
+        Assertions.assertEquals(30 * SECOND, plan.before());
+        Assertions.assertEquals(10 * SECOND, plan.after());
+    }
+
+    @Test
+    void narrowsWindowRatherThanCoarsenStep() {
+        WindowPlanner.Plan plan = WindowPlanner.plan(SEED, SEED + 60 * SECOND, 10, 1000);
+        Assertions.assertEquals(10_000L, plan.step());
+        Assertions.assertEquals(1001L, plan.count());
+        Assertions.assertEquals(plan.before(), plan.after());
+
+        //an unused share of the budget after the seed is spent before it
+        plan = WindowPlanner.plan(SEED, SEED - 10 * SECOND + 100 * 10_000L, 10, 1000);
+        Assertions.assertEquals(100 * 10_000L, plan.after());
+        Assertions.assertEquals(900 * 10_000L, plan.before());
+    }
+}